@@ -0,0 +1,168 @@
+package com.loadtest.code;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * High dynamic range histogram of latencies in microseconds.
+ * Uses the bucket layout of HdrHistogram: values are grouped into power-of-two
+ * buckets, each split into 2048 linear sub-buckets, so every recorded value is
+ * kept to three significant digits from 1 µs up to an hour with a fixed,
+ * small amount of memory. Recording is thread-safe.
+ */
+public class LatencyHistogram {
+
+    // 2048 sub-buckets keep three significant decimal digits
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 10;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (2L << SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+
+    private final long[] counts = new long[countsIndex(HIGHEST_TRACKABLE_MICROS) + 1];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    /**
+     * Records a latency; values above an hour are recorded as an hour.
+     *
+     * @param micros the latency in microseconds
+     */
+    public synchronized void recordValue(long micros) {
+        long value = Math.min(Math.max(0, micros), HIGHEST_TRACKABLE_MICROS);
+        counts[countsIndex(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    /**
+     * Adds all values recorded in another histogram.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherTotal;
+        long otherMax;
+        double otherSum;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.totalCount;
+            otherMax = other.max;
+            otherSum = other.sum;
+        }
+        synchronized (this) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += otherCounts[i];
+            }
+            totalCount += otherTotal;
+            max = Math.max(max, otherMax);
+            sum += otherSum;
+        }
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Gets the value at a percentile, as the highest value equivalent to the
+     * recorded value within the histogram's precision.
+     *
+     * @param percentile the percentile, 0 to 100
+     * @return the value in microseconds, or 0 when nothing was recorded
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Writes the percentile distribution in HdrHistogram's {@code .hgrm} text
+     * format, which its plotting tools read.
+     *
+     * @param out the stream to write to
+     * @param outputScale divisor applied to values, e.g. 1000.0 for milliseconds
+     */
+    public synchronized void outputPercentileDistribution(PrintStream out, double outputScale) {
+        out.println("       Value     Percentile TotalCount 1/(1-Percentile)");
+        out.println();
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            seen += counts[i];
+            double percentile = (double) seen / totalCount;
+            String inverse = percentile < 1.0
+                ? String.format(Locale.ROOT, "%14.2f", 1.0 / (1.0 - percentile)) : "";
+            out.println(String.format(Locale.ROOT, "%12.3f %2.12f %10d %s",
+                Math.min(highestEquivalentValue(i), max) / outputScale, percentile, seen, inverse).stripTrailing());
+        }
+
+        out.println(String.format(Locale.ROOT, "#[Mean    = %12.3f, StdDeviation   = %12.3f]",
+            getMean() / outputScale, standardDeviation() / outputScale));
+        out.println(String.format(Locale.ROOT, "#[Max     = %12.3f, Total count    = %12d]",
+            max / outputScale, totalCount));
+        out.println(String.format(Locale.ROOT, "#[Buckets = %12d, SubBuckets     = %12d]",
+            counts.length / SUB_BUCKET_HALF_COUNT - 1, 2 * SUB_BUCKET_HALF_COUNT));
+    }
+
+    private double standardDeviation() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double mean = sum / totalCount;
+        double squares = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                double deviation = medianEquivalentValue(i) - mean;
+                squares += deviation * deviation * counts[i];
+            }
+        }
+        return Math.sqrt(squares / totalCount);
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = Math.max(0,
+            63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_HALF_COUNT_MAGNITUDE);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return (bucketIndex << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex;
+    }
+
+    private static long lowestEquivalentValue(int index) {
+        int bucketIndex = Math.max(0, (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1);
+        int subBucketIndex = index - (bucketIndex << SUB_BUCKET_HALF_COUNT_MAGNITUDE);
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucketIndex = Math.max(0, (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1);
+        return lowestEquivalentValue(index) + (1L << bucketIndex) - 1;
+    }
+
+    private static double medianEquivalentValue(int index) {
+        return (lowestEquivalentValue(index) + highestEquivalentValue(index)) / 2.0;
+    }
+}
@@ -0,0 +1,184 @@
+package com.loadtest.code;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Command-line load test for the generator and builder services.
+ * Options are given as {@code --name=value}; run with {@code --help} for the list.
+ */
+public class LoadTestApplication {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("target", "generate");
+        DEFAULTS.put("generator-url", "http://localhost:8080");
+        DEFAULTS.put("builder-url", "http://localhost:8081");
+        DEFAULTS.put("rate", "20");
+        DEFAULTS.put("duration-seconds", "30");
+        DEFAULTS.put("warmup-seconds", "10");
+        DEFAULTS.put("timeout-seconds", "30");
+        DEFAULTS.put("max-outstanding", "1000");
+        DEFAULTS.put("sites", "20");
+        DEFAULTS.put("tenants", "4");
+        DEFAULTS.put("pages", "10");
+        DEFAULTS.put("sections-per-page", "5");
+        DEFAULTS.put("text-words", "100");
+        DEFAULTS.put("mix", "hero=1,text=3,about=1,skills=1,image=1,contact=1,form=1");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("output", "target/load-test");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            System.out.println("Options (defaults):");
+            DEFAULTS.forEach((name, value) -> System.out.println("  --" + name + "=" + value));
+            return;
+        }
+
+        String target = options.get("target");
+        if (!target.equals("generate") && !target.equals("build")) {
+            throw new IllegalArgumentException("--target must be generate or build");
+        }
+
+        int sites = Math.max(1, Integer.parseInt(options.get("sites")));
+        SyntheticSiteFactory factory = new SyntheticSiteFactory(
+            Long.parseLong(options.get("seed")),
+            Integer.parseInt(options.get("pages")),
+            Integer.parseInt(options.get("sections-per-page")),
+            Integer.parseInt(options.get("text-words")),
+            Integer.parseInt(options.get("tenants")),
+            parseMix(options.get("mix")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.get("timeout-seconds")));
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        // Bodies are built before the run so the sender never waits on serialization
+        byte[][] bodies = new byte[sites][];
+        for (int i = 0; i < sites; i++) {
+            bodies[i] = factory.createSiteJson(i);
+        }
+
+        URI generateUri = URI.create(options.get("generator-url") + "/api/generate/json");
+        LongFunction<HttpRequest> requests;
+        String description;
+        if (target.equals("generate")) {
+            requests = i -> generateRequest(generateUri, bodies[(int) (i % sites)], timeout);
+            description = "POST " + generateUri;
+        } else {
+            // Builds read the generator's output, so every site is generated once first
+            for (int i = 0; i < sites; i++) {
+                HttpResponse<String> response = httpClient.send(generateRequest(generateUri, bodies[i], timeout),
+                    HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Generating " + factory.siteName(i) + " failed with "
+                        + response.statusCode() + ": " + response.body());
+                }
+            }
+            String buildUrl = options.get("builder-url") + "/api/build?siteName=";
+            requests = i -> HttpRequest.newBuilder(URI.create(buildUrl
+                    + URLEncoder.encode(factory.siteName((int) (i % sites)), StandardCharsets.UTF_8)))
+                .timeout(timeout)
+                .GET()
+                .build();
+            description = "GET " + buildUrl + "{site}";
+        }
+
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup-seconds")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration-seconds")));
+        OpenLoopDriver driver = new OpenLoopDriver(httpClient, requests, rate,
+            Integer.parseInt(options.get("max-outstanding")));
+
+        System.out.printf(Locale.ROOT, "Driving %s at %.1f/s: %d s warm-up, %d s measured, %d sites of %s pages%n",
+            description, rate, warmup.toSeconds(), duration.toSeconds(), sites, options.get("pages"));
+        OpenLoopDriver.Result result = driver.run(warmup, duration, timeout);
+
+        Path outputDir = Files.createDirectories(Paths.get(options.get("output")));
+        Path latencyFile = writeHistogram(result.getLatency(), outputDir.resolve(target + "-latency.hgrm"));
+        Path serviceTimeFile = writeHistogram(result.getServiceTime(), outputDir.resolve(target + "-service-time.hgrm"));
+        Path allOutcomesFile = writeHistogram(result.getAllOutcomes(), outputDir.resolve(target + "-all-latency.hgrm"));
+        printReport(System.out, result);
+        System.out.println("Histograms   " + latencyFile + ", " + serviceTimeFile + ", " + allOutcomesFile);
+    }
+
+    static void printReport(PrintStream out, OpenLoopDriver.Result result) {
+        out.printf(Locale.ROOT, "Requests     %d due, %d ok, %d rejected (429), %d errors, %d failed, %d dropped, %d abandoned%n",
+            result.getSent(), result.getSucceeded(), result.getRejected(), result.getErrors(),
+            result.getFailures(), result.getDropped(), result.getAbandoned());
+        out.printf(Locale.ROOT, "Throughput   %.1f/s%n", result.getThroughput());
+        out.printf(Locale.ROOT, "%-12s %9s %9s %9s %9s %9s%n", "Latency ms", "p50", "p90", "p99", "p999", "max");
+        // The first two rows only cover 2xx responses; the last also charges 429s, errors and drops
+        printLatencies(out, "ok intended", result.getLatency());
+        printLatencies(out, "ok from send", result.getServiceTime());
+        printLatencies(out, "all intended", result.getAllOutcomes());
+    }
+
+    private static void printLatencies(PrintStream out, String label, LatencyHistogram histogram) {
+        out.printf(Locale.ROOT, "%-12s %9.1f %9.1f %9.1f %9.1f %9.1f%n", label,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMax() / 1000.0);
+    }
+
+    private static Path writeHistogram(LatencyHistogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+        return file;
+    }
+
+    private static HttpRequest generateRequest(URI uri, byte[] body, Duration timeout) {
+        return HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            String name = equals < 0 ? arg.substring(2) : arg.substring(2, equals);
+            if (!DEFAULTS.containsKey(name) && !name.equals("help")) {
+                throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+            options.put(name, equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+}
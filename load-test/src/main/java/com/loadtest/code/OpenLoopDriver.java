@@ -0,0 +1,224 @@
+package com.loadtest.code;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests at a fixed rate regardless of how fast responses come back.
+ * Request {@code i} is due at {@code start + i / rate}; its latency is measured
+ * from that intended time, not from when it was actually sent, so a stalled
+ * server or a lagging sender shows up in the percentiles instead of silently
+ * lowering the request rate (coordinated omission). Latencies are kept for
+ * successful requests and, separately, for every outcome: a server that sheds
+ * load with fast 429s or errors looks better in the first than it is.
+ */
+public class OpenLoopDriver {
+
+    private final HttpClient httpClient;
+    private final LongFunction<HttpRequest> requests;
+    private final double ratePerSecond;
+    private final int maxOutstanding;
+
+    /**
+     * @param httpClient the client to send with
+     * @param requests creates the request with a given sequence number
+     * @param ratePerSecond the target request rate
+     * @param maxOutstanding requests in flight beyond which due requests are dropped
+     */
+    public OpenLoopDriver(HttpClient httpClient, LongFunction<HttpRequest> requests,
+                          double ratePerSecond, int maxOutstanding) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        this.httpClient = httpClient;
+        this.requests = requests;
+        this.ratePerSecond = ratePerSecond;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Runs the load. Requests due during the warm-up are sent but not recorded.
+     *
+     * @param warmup the warm-up period
+     * @param duration the measured period
+     * @param drainTimeout how long to wait for outstanding responses at the end;
+     *                     also the latency charged to dropped requests, as if they timed out
+     * @return the recorded result
+     * @throws InterruptedException if interrupted while running
+     */
+    public Result run(Duration warmup, Duration duration, Duration drainTimeout) throws InterruptedException {
+        Result result = new Result(duration);
+        AtomicInteger outstanding = new AtomicInteger();
+
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                result.sent.increment();
+            }
+            if (outstanding.get() >= maxOutstanding) {
+                if (measured) {
+                    result.dropped.increment();
+                    result.allOutcomes.recordValue(drainTimeout.toNanos() / 1000);
+                }
+                continue;
+            }
+
+            outstanding.incrementAndGet();
+            long sentAt = System.nanoTime();
+            httpClient.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    outstanding.decrementAndGet();
+                    if (measured) {
+                        result.record(response, error, done - intended, done - sentAt);
+                    }
+                });
+        }
+
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        result.abandoned = outstanding.get();
+        return result;
+    }
+
+    /**
+     * Latencies and outcome counts of the measured period.
+     */
+    public static final class Result {
+
+        private final Duration duration;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LatencyHistogram allOutcomes = new LatencyHistogram();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private volatile int abandoned;
+
+        private Result(Duration duration) {
+            this.duration = duration;
+        }
+
+        private void record(HttpResponse<?> response, Throwable error, long latencyNanos, long serviceNanos) {
+            allOutcomes.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if (error != null) {
+                failures.increment();
+            } else if (response.statusCode() / 100 == 2) {
+                succeeded.increment();
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+                serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceNanos));
+            } else if (response.statusCode() == 429) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        /**
+         * @return latency of successful requests from their intended send time
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return latency of successful requests from their actual send time
+         */
+        public LatencyHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        /**
+         * @return latency of every answered, failed or dropped request from its intended
+         *         send time; dropped requests count as the drain timeout
+         */
+        public LatencyHistogram getAllOutcomes() {
+            return allOutcomes;
+        }
+
+        /**
+         * @return requests due during the measured period
+         */
+        public long getSent() {
+            return sent.sum();
+        }
+
+        /**
+         * @return requests answered with 2xx
+         */
+        public long getSucceeded() {
+            return succeeded.sum();
+        }
+
+        /**
+         * @return requests answered with 429
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * @return requests answered with any other status
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * @return requests that failed without a response, e.g. timeouts and refused connections
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return due requests not sent because too many were in flight
+         */
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        /**
+         * @return requests still in flight when the drain timeout ran out
+         */
+        public int getAbandoned() {
+            return abandoned;
+        }
+
+        /**
+         * @return successful requests per second of the measured period
+         */
+        public double getThroughput() {
+            return getSucceeded() * 1000.0 / Math.max(1, duration.toMillis());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.loadtest.code;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Creates synthetic site documents in the generator's JSON format.
+ * Each site is derived from the seed and its index only, so a run can be
+ * repeated with exactly the same corpus.
+ */
+public class SyntheticSiteFactory {
+
+    private static final String[] WORDS = {
+        "static", "site", "page", "build", "deploy", "content", "layout", "section", "render", "cache",
+        "asset", "style", "script", "image", "portfolio", "project", "service", "client", "design", "team",
+        "the", "a", "and", "of", "to", "in", "for", "with", "on", "our", "fast", "simple", "modern", "secure"
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long seed;
+    private final int pages;
+    private final int sectionsPerPage;
+    private final int textWords;
+    private final int tenants;
+    private final String[] mix;
+
+    /**
+     * @param seed seed of the corpus
+     * @param pages pages per site
+     * @param sectionsPerPage sections per page
+     * @param textWords words in each text block
+     * @param tenants number of distinct site name prefixes
+     * @param sectionMix section types with integer weights, e.g. {@code hero=1,text=3}
+     */
+    public SyntheticSiteFactory(long seed, int pages, int sectionsPerPage, int textWords, int tenants,
+                                Map<String, Integer> sectionMix) {
+        this.seed = seed;
+        this.pages = Math.max(1, pages);
+        this.sectionsPerPage = Math.max(1, sectionsPerPage);
+        this.textWords = Math.max(1, textWords);
+        this.tenants = Math.max(1, tenants);
+
+        List<String> weighted = new ArrayList<>();
+        sectionMix.forEach((type, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(type);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Section mix must contain at least one type with a positive weight");
+        }
+        this.mix = weighted.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the name of a site; the part before the first '-' is its tenant.
+     *
+     * @param index the site index
+     * @return the site name
+     */
+    public String siteName(int index) {
+        return "tenant" + (index % tenants) + "-site" + index;
+    }
+
+    /**
+     * Creates a site document.
+     *
+     * @param index the site index
+     * @return the site as generator JSON
+     */
+    public Map<String, Object> createSite(int index) {
+        Random random = new Random(seed * 31 + index);
+
+        List<Map<String, Object>> pageList = new ArrayList<>();
+        for (int p = 0; p < pages; p++) {
+            List<Map<String, Object>> sections = new ArrayList<>();
+            for (int s = 0; s < sectionsPerPage; s++) {
+                sections.add(createSection(mix[random.nextInt(mix.length)], random));
+            }
+
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("title", "Page " + p);
+            page.put("slug", p == 0 ? "index" : "page-" + p);
+            page.put("sections", sections);
+            pageList.add(page);
+        }
+
+        Map<String, Object> site = new LinkedHashMap<>();
+        site.put("siteName", siteName(index));
+        site.put("pages", pageList);
+        return site;
+    }
+
+    /**
+     * Creates a site document serialized as JSON.
+     *
+     * @param index the site index
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] createSiteJson(int index) {
+        try {
+            return objectMapper.writeValueAsBytes(createSite(index));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize synthetic site", e);
+        }
+    }
+
+    private Map<String, Object> createSection(String type, Random random) {
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("type", type);
+        section.put("heading", words(random, 4));
+
+        switch (type) {
+            case "skills":
+                List<String> items = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    items.add(words(random, 1));
+                }
+                section.put("items", items);
+                break;
+            case "form":
+                section.put("fields", List.of("name", "email", "message"));
+                break;
+            case "contact":
+                section.put("content", Map.of(
+                    "email", "contact@example.com",
+                    "phone", "+1 (555) 123-4567",
+                    "location", words(random, 2)));
+                break;
+            case "image":
+                section.put("content", Map.of(
+                    "src", "https://example.com/images/" + random.nextInt(1000) + ".jpg",
+                    "alt", words(random, 3)));
+                break;
+            default:
+                section.put("text", words(random, textWords));
+        }
+        return section;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
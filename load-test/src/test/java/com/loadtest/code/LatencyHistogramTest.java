@@ -0,0 +1,57 @@
+package com.loadtest.code;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the latency histogram.
+ * Tests percentile accuracy across magnitudes, merging and the .hgrm output.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesKeepThreeSignificantDigits() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordValue(value);
+        }
+        histogram.recordValue(5_000_000);
+
+        assertEquals(100_001, histogram.getTotalCount());
+        assertEquals(5_000_000, histogram.getMax());
+        assertWithinPrecision(50_000, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(99_000, histogram.getValueAtPercentile(99));
+        assertWithinPrecision(99_900, histogram.getValueAtPercentile(99.9));
+        assertEquals(5_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    void testAddAndOutput() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordValue(1_000);
+        second.recordValue(3_000);
+        first.add(second);
+
+        assertEquals(2, first.getTotalCount());
+        assertEquals(2_000, first.getMean(), 0.001);
+        assertWithinPrecision(3_000, first.getValueAtPercentile(99));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.outputPercentileDistribution(new PrintStream(bytes, true, StandardCharsets.UTF_8), 1000.0);
+        String output = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(output.startsWith("       Value     Percentile TotalCount 1/(1-Percentile)"), output);
+        assertTrue(output.contains("1.000 0.500000000000          1           2.00"), output);
+        assertTrue(output.contains("#[Max     =        3.000, Total count    =            2]"), output);
+    }
+
+    private void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 1000, "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,81 @@
+package com.loadtest.code;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for the open-loop driver against a local HTTP server.
+ * Tests the request rate, outcome counting and that a server stall is charged
+ * to every request that was due during it.
+ */
+class OpenLoopDriverTest {
+
+    @Test
+    void testStallIsChargedToRequestsDueDuringIt() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            int n = received.incrementAndGet();
+            try {
+                // One stall of 500 ms; a single server thread queues everything behind it
+                if (n == 50) {
+                    Thread.sleep(500);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int status = n % 10 == 0 ? 429 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+
+        try {
+            URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+            OpenLoopDriver driver = new OpenLoopDriver(HttpClient.newHttpClient(),
+                i -> HttpRequest.newBuilder(uri).GET().build(), 100, 1000);
+
+            OpenLoopDriver.Result result = driver.run(Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(5));
+
+            assertEquals(200, result.getSent());
+            assertEquals(result.getSent(), result.getSucceeded() + result.getRejected()
+                + result.getErrors() + result.getFailures() + result.getDropped());
+            assertTrue(result.getRejected() >= 15, "rejected " + result.getRejected());
+            assertEquals(0, result.getAbandoned());
+
+            // Every due request has an outcome latency; the successes-only histogram leaves out the 429s
+            assertEquals(result.getSent(), result.getAllOutcomes().getTotalCount());
+            assertEquals(result.getSucceeded(), result.getLatency().getTotalCount());
+
+            // Requests due during the stall wait for it, so well over 1% of requests see >= 200 ms
+            assertTrue(result.getLatency().getValueAtPercentile(99) >= 200_000,
+                "p99 " + result.getLatency().getValueAtPercentile(99));
+            assertTrue(result.getLatency().getMax() >= 400_000);
+            assertTrue(result.getThroughput() > 70 && result.getThroughput() <= 100, "throughput " + result.getThroughput());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testSyntheticSitesAreRepeatable() {
+        SyntheticSiteFactory factory = new SyntheticSiteFactory(7, 3, 4, 20, 2,
+            LoadTestApplication.parseMix("hero=1,text=2,skills"));
+
+        assertArrayEquals(factory.createSiteJson(5), factory.createSiteJson(5));
+        assertEquals("tenant1-site5", factory.siteName(5));
+        assertEquals(3, ((List<?>) factory.createSite(5).get("pages")).size());
+    }
+}
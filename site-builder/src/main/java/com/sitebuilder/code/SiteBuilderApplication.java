@@ -1,12 +1,19 @@
 package com.sitebuilder.code;
 
+import com.sitebuilder.code.cli.BuildCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class SiteBuilderApplication {
 
     public static void main(String[] args) {
+        // "build <sites>" runs a headless batch and exits instead of starting the server
+        if (args.length > 0 && BuildCommand.NAME.equals(args[0])) {
+            System.exit(BuildCommand.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         SpringApplication.run(SiteBuilderApplication.class, args);
     }
 
@@ -0,0 +1,118 @@
+package com.sitebuilder.code.cli;
+
+import com.sitebuilder.code.SiteBuilderApplication;
+import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.SiteBuildException;
+import com.sitebuilder.code.service.SiteBuildService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Headless batch mode: builds generated sites and exits.
+ * Runs the application with the {@code cli} profile, which turns off the web
+ * server and initializes beans lazily, so only the build service and what it
+ * depends on are created. Each argument is a site name in the configured input
+ * directory, a generated site directory (one containing {@code index.html}) or
+ * an input directory whose sites are all built; directories must share one
+ * input directory, which replaces {@code site.builder.input.path}.
+ * {@code --name=value} arguments override configuration as usual.
+ */
+public final class BuildCommand {
+
+    public static final String NAME = "build";
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE =
+        "Usage: java -jar site-builder.jar build [--property=value...] <site-name|site-directory|input-directory>...";
+
+    private BuildCommand() {
+    }
+
+    /**
+     * Builds every site named by the arguments.
+     *
+     * @param args site names, directories and configuration overrides
+     * @return the process exit code: 0 if every site was built, 1 if any failed, 2 for bad arguments
+     */
+    public static int run(String... args) {
+        List<String> options = new ArrayList<>();
+        Set<String> siteNames = new LinkedHashSet<>();
+        Path inputPath = null;
+        boolean allSites = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                options.add(arg);
+                continue;
+            }
+
+            Path path = Paths.get(arg).toAbsolutePath().normalize();
+            if (!Files.isDirectory(path)) {
+                siteNames.add(arg);
+                continue;
+            }
+
+            Path directoryInput;
+            if (Files.isRegularFile(path.resolve("index.html"))) {
+                directoryInput = path.getParent();
+                siteNames.add(path.getFileName().toString());
+            } else {
+                directoryInput = path;
+                allSites = true;
+            }
+            if (inputPath != null && !inputPath.equals(directoryInput)) {
+                System.err.println("Site directories must share one input directory: " + inputPath + ", " + directoryInput);
+                return EXIT_USAGE;
+            }
+            inputPath = directoryInput;
+        }
+
+        if (siteNames.isEmpty() && !allSites) {
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (inputPath != null) {
+            options.add("--site.builder.input.path=" + inputPath);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SiteBuilderApplication.class)
+                .profiles("cli")
+                .run(options.toArray(String[]::new))) {
+            SiteBuildService siteBuildService = context.getBean(SiteBuildService.class);
+
+            int failed = 0;
+            try {
+                if (allSites) {
+                    siteNames.addAll(Arrays.asList(siteBuildService.listAvailableSites()));
+                }
+            } catch (SiteBuildException e) {
+                System.err.println("Failed to list sites: " + e.getMessage());
+                failed++;
+            }
+
+            for (String siteName : siteNames) {
+                try {
+                    SiteBuildResponse response = siteBuildService.buildSite(siteName);
+                    System.out.printf("Built %s: %d files in %d ms -> %s%n", response.getSiteName(),
+                        response.getFileCount(), response.getBuildTime(), response.getBuildPath());
+                } catch (SiteBuildException e) {
+                    System.err.println("Failed to build " + siteName + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+            return failed == 0 ? EXIT_OK : EXIT_FAILED;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.sitebuilder.code.controller;
+
+import com.sitebuilder.code.service.BuildCacheService;
+import com.sitebuilder.code.service.SiteBuildException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for the reference build cache server.
+ * Builder nodes GET an optimized output by its content-hash key before
+ * optimizing a file and PUT it after a miss. Answers 404 to everything
+ * unless the node runs as a cache server.
+ */
+@RestController
+@RequestMapping("/cache")
+public class BuildCacheController {
+
+    private final BuildCacheService buildCacheService;
+
+    public BuildCacheController(BuildCacheService buildCacheService) {
+        this.buildCacheService = buildCacheService;
+    }
+
+    /**
+     * Gets a cache entry.
+     *
+     * @param key the entry key
+     * @return the entry content, or 404 on a miss
+     */
+    @RequestMapping(value = "/{key}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public ResponseEntity<?> getEntry(@PathVariable String key) {
+        if (!buildCacheService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            Path entry = buildCacheService.getEntry(key);
+            if (entry == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(entry));
+
+        } catch (SiteBuildException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Stores a cache entry.
+     *
+     * @param key the entry key
+     * @param request the HTTP request whose body is the entry content
+     * @return 201 once stored
+     */
+    @PutMapping("/{key}")
+    public ResponseEntity<?> putEntry(@PathVariable String key, HttpServletRequest request) {
+        if (!buildCacheService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            buildCacheService.putEntry(key, request.getInputStream());
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+
+        } catch (SiteBuildException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Failed to read cache entry: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets cache server counters.
+     *
+     * @return entries, bytes, hits, misses and stores
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(buildCacheService.getMetrics());
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        return error;
+    }
+}
@@ -0,0 +1,114 @@
+package com.sitebuilder.code.controller;
+
+import com.sitebuilder.code.dto.BuildJobResponse;
+import com.sitebuilder.code.service.BuildJobService;
+import com.sitebuilder.code.service.BuildPriority;
+import com.sitebuilder.code.service.SiteBuildException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the asynchronous build queue.
+ * Provides endpoints for submitting, polling and cancelling build jobs.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Allow CORS for frontend integration
+public class BuildJobController {
+    
+    private final BuildJobService buildJobService;
+    
+    public BuildJobController(BuildJobService buildJobService) {
+        this.buildJobService = buildJobService;
+    }
+    
+    /**
+     * Queues a build job.
+     * 
+     * @param siteName the name of the site to build
+     * @param priority the job priority (INTERACTIVE, NORMAL or BULK)
+     * @return the queued job
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestParam("siteName") String siteName,
+                                       @RequestParam(value = "priority", defaultValue = "NORMAL") String priority) {
+        try {
+            BuildPriority buildPriority = BuildPriority.valueOf(priority.toUpperCase());
+            BuildJobResponse response = buildJobService.submitJob(siteName, buildPriority);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Unknown priority: " + priority));
+        } catch (SiteBuildException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse("Job error: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Gets the progress of a build job.
+     * 
+     * @param jobId the id of the job
+     * @return the job state
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(buildJobService.getJob(jobId));
+            
+        } catch (SiteBuildException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Cancels a queued or running build job.
+     * 
+     * @param jobId the id of the job
+     * @return the job state after cancellation
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<?> cancelJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(buildJobService.cancelJob(jobId));
+            
+        } catch (SiteBuildException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Lists build jobs and the current queue depth.
+     * 
+     * @return known jobs with queue statistics
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> listJobs() {
+        List<BuildJobResponse> jobs = buildJobService.listJobs();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobs", jobs);
+        response.put("queueDepth", buildJobService.getQueueDepth());
+        response.put("activeJobs", buildJobService.getActiveCount());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        return error;
+    }
+}
@@ -1,14 +1,26 @@
 package com.sitebuilder.code.controller;
 
+import com.sitebuilder.code.dto.BuildJobResponse;
 import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.AdmissionRejectedException;
+import com.sitebuilder.code.service.AdmissionService;
+import com.sitebuilder.code.service.BuildJobService;
+import com.sitebuilder.code.service.BuildPriority;
 import com.sitebuilder.code.service.SiteBuildException;
 import com.sitebuilder.code.service.SiteBuildService;
+import com.sitebuilder.code.service.WarmupService;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for site building operations.
@@ -20,32 +32,76 @@ import java.util.Map;
 public class SiteBuildController {
     
     private final SiteBuildService siteBuildService;
+    private final BuildJobService buildJobService;
+    private final AdmissionService admissionService;
+    private final WarmupService warmupService;
+    private final ApplicationAvailability applicationAvailability;
     
-    public SiteBuildController(SiteBuildService siteBuildService) {
+    public SiteBuildController(SiteBuildService siteBuildService, BuildJobService buildJobService,
+                               AdmissionService admissionService, WarmupService warmupService,
+                               ApplicationAvailability applicationAvailability) {
         this.siteBuildService = siteBuildService;
+        this.buildJobService = buildJobService;
+        this.admissionService = admissionService;
+        this.warmupService = warmupService;
+        this.applicationAvailability = applicationAvailability;
     }
     
     /**
      * Builds a site from the generated output.
+     * The build runs on the build queue at interactive priority, so the servlet
+     * thread is released while the build is waiting or running. Requests beyond
+     * the admission limits are rejected with 429 and a Retry-After delay.
      * 
      * @param siteName the name of the site to build
      * @return response with build details
      */
     @GetMapping("/build")
-    public ResponseEntity<?> buildSite(@RequestParam("siteName") String siteName) {
+    public CompletableFuture<ResponseEntity<?>> buildSite(@RequestParam("siteName") String siteName) {
+        long start = System.nanoTime();
+        AdmissionService.Permit permit;
         try {
-            SiteBuildResponse response = siteBuildService.buildSite(siteName);
-            return ResponseEntity.ok(response);
+            permit = admissionService.acquire("build", siteName);
+        } catch (AdmissionRejectedException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
+        }
+        
+        try {
+            BuildJobResponse job = buildJobService.submitJob(siteName, BuildPriority.INTERACTIVE);
+            
+            // The permit is held until the build finishes, so it bounds queued and running builds
+            return buildJobService.awaitJob(job.getJobId())
+                .whenComplete((response, error) -> {
+                    permit.close();
+                    if (error == null) {
+                        warmupService.recordRequest(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                })
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(this::buildErrorResponse);
             
         } catch (SiteBuildException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(createErrorResponse("Build error: " + e.getMessage()));
+            permit.close();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse("Build error: " + e.getMessage())));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+            permit.close();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Unexpected error: " + e.getMessage())));
         }
     }
     
+    /**
+     * Gets admission control metrics: in-flight requests, queue depth and
+     * rejection counts per endpoint.
+     * 
+     * @return admission metrics keyed by endpoint
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionMetrics() {
+        return ResponseEntity.ok(admissionService.getMetrics());
+    }
+    
     /**
      * Lists all available sites for building.
      * 
@@ -92,19 +148,81 @@ public class SiteBuildController {
         }
     }
     
+    /**
+     * Gets the build report of the live version of a site: per-file sizes,
+     * optimizers and times, and regressions against the previous build.
+     *
+     * @param siteName the name of the site
+     * @return the build report
+     */
+    @GetMapping("/report/{siteName}")
+    public ResponseEntity<?> getBuildReport(@PathVariable String siteName) {
+        try {
+            Map<String, Object> report = siteBuildService.getBuildReport(siteName);
+            if (report == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("No build report for site '" + siteName + "'"));
+            }
+            return ResponseEntity.ok(report);
+
+        } catch (SiteBuildException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse("Report error: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Rolls a site back to its previously published build.
+     * 
+     * @param siteName the name of the site
+     * @return build status of the restored version
+     */
+    @PostMapping("/rollback/{siteName}")
+    public ResponseEntity<?> rollbackSite(@PathVariable String siteName) {
+        try {
+            SiteBuildResponse response = siteBuildService.rollbackSite(siteName);
+            return ResponseEntity.ok(response);
+            
+        } catch (SiteBuildException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse("Rollback error: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Gets startup warm-up metrics: duration, per-iteration times and the
+     * latency of the first build request.
+     * 
+     * @return warm-up metrics
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<Map<String, Object>> getWarmupMetrics() {
+        return ResponseEntity.ok(warmupService.getMetrics());
+    }
+    
     /**
      * Health check endpoint.
+     * Answers 503 until the service is ready for traffic, i.e. while the
+     * startup warm-up is still running and again during shutdown.
      * 
      * @return service status
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
+        boolean ready = applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        
         Map<String, String> status = new HashMap<>();
-        status.put("status", "UP");
+        status.put("status", ready ? "UP" : "OUT_OF_SERVICE");
         status.put("service", "site-builder");
         status.put("timestamp", String.valueOf(System.currentTimeMillis()));
         
-        return ResponseEntity.ok(status);
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(status);
     }
     
     /**
@@ -128,6 +246,23 @@ public class SiteBuildController {
         return ResponseEntity.ok(info);
     }
     
+    private ResponseEntity<?> buildErrorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        
+        if (cause instanceof SiteBuildException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse("Build error: " + cause.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(createErrorResponse("Unexpected error: " + cause.getMessage()));
+    }
+    
+    private ResponseEntity<?> tooManyRequests(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(createErrorResponse(e.getMessage()));
+    }
+    
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
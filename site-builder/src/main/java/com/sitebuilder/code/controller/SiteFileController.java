@@ -0,0 +1,55 @@
+package com.sitebuilder.code.controller;
+
+import com.sitebuilder.code.service.SiteFileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves built sites directly from the build directory, so previews and
+ * small deployments need no separate web server.
+ */
+@RestController
+public class SiteFileController {
+    
+    private static final String PREFIX = "/sites/";
+    
+    private final SiteFileService siteFileService;
+    
+    public SiteFileController(SiteFileService siteFileService) {
+        this.siteFileService = siteFileService;
+    }
+    
+    /**
+     * Serves a file of a published site.
+     * 
+     * @param siteName the name of the site
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @throws IOException if the file cannot be sent
+     */
+    @RequestMapping(value = {"/sites/{siteName}", "/sites/{siteName}/**"},
+                    method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveFile(@PathVariable String siteName, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        String sitePath = uri.substring(PREFIX.length());
+        int slash = sitePath.indexOf('/');
+        
+        if (slash < 0) {
+            // Relative links in the site only resolve below a trailing slash
+            response.sendRedirect(request.getRequestURI() + "/");
+            return;
+        }
+        
+        String path = UriUtils.decode(sitePath.substring(slash + 1), StandardCharsets.UTF_8);
+        siteFileService.serveFile(siteName, path, request, response);
+    }
+}
@@ -0,0 +1,158 @@
+package com.sitebuilder.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO for build job responses.
+ * Describes the state of a job in the build queue.
+ */
+public class BuildJobResponse {
+    
+    @JsonProperty("jobId")
+    private String jobId;
+    
+    @JsonProperty("siteName")
+    private String siteName;
+    
+    @JsonProperty("priority")
+    private String priority;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("submittedAt")
+    private long submittedAt;
+    
+    @JsonProperty("startedAt")
+    private long startedAt;
+    
+    @JsonProperty("finishedAt")
+    private long finishedAt;
+    
+    @JsonProperty("result")
+    private SiteBuildResponse result;
+    
+    @JsonProperty("error")
+    private String error;
+    
+    @JsonProperty("requests")
+    private int requests = 1;
+    
+    // Default constructor for Jackson
+    public BuildJobResponse() {}
+    
+    public BuildJobResponse(String jobId, String siteName, String priority, String status,
+                            long submittedAt, long startedAt, long finishedAt,
+                            SiteBuildResponse result, String error) {
+        this.jobId = jobId;
+        this.siteName = siteName;
+        this.priority = priority;
+        this.status = status;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.result = result;
+        this.error = error;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getSiteName() {
+        return siteName;
+    }
+    
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+    
+    public String getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public long getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public SiteBuildResponse getResult() {
+        return result;
+    }
+    
+    public void setResult(SiteBuildResponse result) {
+        this.result = result;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    /**
+     * Gets the number of build requests this job serves.
+     * Requests for a site that already has a job waiting join that job.
+     * 
+     * @return the number of requests
+     */
+    public int getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(int requests) {
+        this.requests = requests;
+    }
+    
+    @Override
+    public String toString() {
+        return "BuildJobResponse{" +
+                "jobId='" + jobId + '\'' +
+                ", siteName='" + siteName + '\'' +
+                ", priority='" + priority + '\'' +
+                ", status='" + status + '\'' +
+                ", submittedAt=" + submittedAt +
+                ", startedAt=" + startedAt +
+                ", finishedAt=" + finishedAt +
+                ", error='" + error + '\'' +
+                ", requests=" + requests +
+                '}';
+    }
+}
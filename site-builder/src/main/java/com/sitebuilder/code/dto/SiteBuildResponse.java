@@ -1,7 +1,10 @@
 package com.sitebuilder.code.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Map;
+
 /**
  * DTO for site build response.
  * Contains metadata about the built site.
@@ -26,6 +29,10 @@ public class SiteBuildResponse {
     @JsonProperty("fileCount")
     private int fileCount;
     
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty("optimizations")
+    private Map<String, Object> optimizations;
+    
     // Default constructor for Jackson
     public SiteBuildResponse() {}
     
@@ -86,6 +93,14 @@ public class SiteBuildResponse {
         this.fileCount = fileCount;
     }
     
+    public Map<String, Object> getOptimizations() {
+        return optimizations;
+    }
+    
+    public void setOptimizations(Map<String, Object> optimizations) {
+        this.optimizations = optimizations;
+    }
+    
     @Override
     public String toString() {
         return "SiteBuildResponse{" +
@@ -0,0 +1,19 @@
+package com.sitebuilder.code.service;
+
+/**
+ * Exception thrown when a request is rejected by admission control.
+ * Carries how long the client should wait before retrying.
+ */
+public class AdmissionRejectedException extends SiteBuildException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
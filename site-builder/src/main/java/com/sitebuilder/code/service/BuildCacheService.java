@@ -0,0 +1,44 @@
+package com.sitebuilder.code.service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Service interface for the reference build cache server.
+ * Stores optimized build outputs under content-hash keys so builder nodes
+ * can share work instead of each optimizing the same inputs.
+ */
+public interface BuildCacheService {
+
+    /**
+     * @return true when this node serves the build cache
+     */
+    boolean isEnabled();
+
+    /**
+     * Looks up a cache entry.
+     *
+     * @param key the entry key, a lower-case hex SHA-256
+     * @return the stored entry, or null when there is none
+     * @throws SiteBuildException if the key is malformed
+     */
+    Path getEntry(String key) throws SiteBuildException;
+
+    /**
+     * Stores a cache entry. Entries are immutable, so storing an existing key
+     * keeps the first entry.
+     *
+     * @param key the entry key, a lower-case hex SHA-256
+     * @param content the entry content
+     * @throws SiteBuildException if the key is malformed, the entry is too large or cannot be written
+     */
+    void putEntry(String key, InputStream content) throws SiteBuildException;
+
+    /**
+     * Gets cache server counters: entries, bytes, hits, misses and stores.
+     *
+     * @return the counters
+     */
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,40 @@
+package com.sitebuilder.code.service;
+
+/**
+ * Lets the owner of a build stop it before it goes live.
+ * The build checks {@link #isCancelled()} before every step and calls
+ * {@link #beginPublish()} right before it swaps the live site; once that
+ * returns true the build can no longer be cancelled, so a build reported as
+ * cancelled or timed out is never published.
+ */
+public interface BuildCancellation {
+
+    /**
+     * A build that is never cancelled.
+     */
+    BuildCancellation NONE = new BuildCancellation() {
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean beginPublish() {
+            return true;
+        }
+    };
+
+    /**
+     * Checks whether the build must stop.
+     *
+     * @return true if the build was cancelled or timed out
+     */
+    boolean isCancelled();
+
+    /**
+     * Marks the build as publishing unless it has been cancelled.
+     *
+     * @return true if the build may publish; false if it was cancelled first
+     */
+    boolean beginPublish();
+}
@@ -0,0 +1,95 @@
+package com.sitebuilder.code.service;
+
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * State shared by the stages of a single build.
+ */
+public class BuildContext {
+    
+    private final String siteName;
+    private final Path buildPath;
+    private final BuildCancellation cancellation;
+    private final Map<String, String> fingerprintedAssets = new LinkedHashMap<>();
+    private final Map<String, Object> stageReports = new LinkedHashMap<>();
+    private final Map<String, Long> stageTimes = new LinkedHashMap<>();
+    
+    public BuildContext(String siteName, Path buildPath) {
+        this(siteName, buildPath, BuildCancellation.NONE);
+    }
+    
+    public BuildContext(String siteName, Path buildPath, BuildCancellation cancellation) {
+        this.siteName = siteName;
+        this.buildPath = buildPath;
+        this.cancellation = cancellation;
+    }
+    
+    public String getSiteName() {
+        return siteName;
+    }
+    
+    /**
+     * Gets the root of the staged build.
+     * 
+     * @return the staging directory
+     */
+    public Path getBuildPath() {
+        return buildPath;
+    }
+    
+    public BuildCancellation getCancellation() {
+        return cancellation;
+    }
+    
+    /**
+     * Stops the build if it was cancelled or timed out.
+     * 
+     * @throws InterruptedIOException if the build must stop
+     */
+    public void checkCancelled() throws InterruptedIOException {
+        if (cancellation.isCancelled()) {
+            throw new InterruptedIOException("Build cancelled");
+        }
+    }
+    
+    /**
+     * Gets the fingerprinted assets of this build.
+     * 
+     * @return original relative path to fingerprinted relative path, using '/' separators
+     */
+    public Map<String, String> getFingerprintedAssets() {
+        return fingerprintedAssets;
+    }
+    
+    /**
+     * Records what a stage did, for the build response.
+     * 
+     * @param stageName the stage name
+     * @param report a JSON-serializable summary
+     */
+    public void addStageReport(String stageName, Object report) {
+        stageReports.put(stageName, report);
+    }
+    
+    public Map<String, Object> getStageReports() {
+        return Collections.unmodifiableMap(stageReports);
+    }
+    
+    /**
+     * Records how long a step of the build took, for the build report.
+     * 
+     * @param stageName the stage name
+     * @param millis the time taken in milliseconds
+     */
+    public void recordStageTime(String stageName, long millis) {
+        stageTimes.put(stageName, millis);
+    }
+    
+    public Map<String, Long> getStageTimes() {
+        return Collections.unmodifiableMap(stageTimes);
+    }
+}
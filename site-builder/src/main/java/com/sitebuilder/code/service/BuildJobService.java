@@ -0,0 +1,73 @@
+package com.sitebuilder.code.service;
+
+import com.sitebuilder.code.dto.BuildJobResponse;
+import com.sitebuilder.code.dto.SiteBuildResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service interface for the asynchronous build queue.
+ * Runs builds on a bounded worker pool ordered by priority.
+ */
+public interface BuildJobService {
+    
+    /**
+     * Queues a build of the given site.
+     * 
+     * @param siteName the name of the site to build
+     * @param priority the priority of the job
+     * @return the queued job
+     * @throws SiteBuildException if the job cannot be queued
+     */
+    BuildJobResponse submitJob(String siteName, BuildPriority priority) throws SiteBuildException;
+    
+    /**
+     * Returns a future that completes with the build result of a job.
+     * 
+     * @param jobId the id of the job
+     * @return future completing with the build result, or exceptionally if the job fails
+     * @throws SiteBuildException if the job does not exist
+     */
+    CompletableFuture<SiteBuildResponse> awaitJob(String jobId) throws SiteBuildException;
+    
+    /**
+     * Gets the current state of a job.
+     * 
+     * @param jobId the id of the job
+     * @return the job state
+     * @throws SiteBuildException if the job does not exist
+     */
+    BuildJobResponse getJob(String jobId) throws SiteBuildException;
+    
+    /**
+     * Cancels a queued or running job. A running build is stopped at its next
+     * step and discarded; a build that has started publishing completes.
+     * 
+     * @param jobId the id of the job
+     * @return the job state after cancellation
+     * @throws SiteBuildException if the job does not exist
+     */
+    BuildJobResponse cancelJob(String jobId) throws SiteBuildException;
+    
+    /**
+     * Lists queued, running and recently finished jobs.
+     * 
+     * @return known jobs, newest first
+     */
+    List<BuildJobResponse> listJobs();
+    
+    /**
+     * Gets the number of jobs waiting for a worker.
+     * 
+     * @return the queue depth
+     */
+    int getQueueDepth();
+    
+    /**
+     * Gets the number of jobs currently running.
+     * 
+     * @return the number of busy workers
+     */
+    int getActiveCount();
+}
@@ -0,0 +1,17 @@
+package com.sitebuilder.code.service;
+
+/**
+ * Lifecycle states of a queued build job.
+ */
+public enum BuildJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED,
+    TIMED_OUT;
+    
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
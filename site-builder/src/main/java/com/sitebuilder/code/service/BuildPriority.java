@@ -0,0 +1,17 @@
+package com.sitebuilder.code.service;
+
+/**
+ * Priority levels for queued build jobs.
+ * Jobs with a higher priority are started before any job with a lower one.
+ */
+public enum BuildPriority {
+    
+    /** Builds a user is actively waiting for. */
+    INTERACTIVE,
+    
+    /** Default priority for API and watch-triggered builds. */
+    NORMAL,
+    
+    /** Scheduled bulk builds such as nightly rebuilds. */
+    BULK
+}
@@ -0,0 +1,27 @@
+package com.sitebuilder.code.service;
+
+import java.io.IOException;
+
+/**
+ * A post-processing step of the build pipeline.
+ * Stages run in {@link org.springframework.core.annotation.Order} order on the
+ * staged build, after every file has been copied and minified and before the
+ * deployment files are written.
+ */
+public interface BuildStage {
+    
+    /**
+     * Gets the name used for this stage in build reports.
+     * 
+     * @return the stage name
+     */
+    String getName();
+    
+    /**
+     * Applies this stage to a staged build.
+     * 
+     * @param context the build being processed
+     * @throws IOException if the build files cannot be processed
+     */
+    void apply(BuildContext context) throws IOException;
+}
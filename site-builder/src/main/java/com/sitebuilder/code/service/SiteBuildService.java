@@ -2,6 +2,8 @@ package com.sitebuilder.code.service;
 
 import com.sitebuilder.code.dto.SiteBuildResponse;
 
+import java.util.Map;
+
 /**
  * Service interface for site building operations.
  * Handles packaging and optimization of generated sites.
@@ -15,7 +17,20 @@ public interface SiteBuildService {
      * @return response containing build metadata
      * @throws SiteBuildException if build fails
      */
-    SiteBuildResponse buildSite(String siteName) throws SiteBuildException;
+    default SiteBuildResponse buildSite(String siteName) throws SiteBuildException {
+        return buildSite(siteName, BuildCancellation.NONE);
+    }
+    
+    /**
+     * Builds a site from the generated output unless the build is cancelled
+     * before it is published.
+     * 
+     * @param siteName the name of the site to build
+     * @param cancellation checked before every step and claimed right before publishing
+     * @return response containing build metadata
+     * @throws SiteBuildException if build fails or is cancelled
+     */
+    SiteBuildResponse buildSite(String siteName, BuildCancellation cancellation) throws SiteBuildException;
     
     /**
      * Lists available sites for building.
@@ -33,4 +48,22 @@ public interface SiteBuildService {
      * @throws SiteBuildException if status check fails
      */
     SiteBuildResponse getBuildStatus(String siteName) throws SiteBuildException;
+    
+    /**
+     * Switches the live site back to the previously published build.
+     * 
+     * @param siteName the name of the site
+     * @return build status of the restored version
+     * @throws SiteBuildException if there is no earlier build to restore
+     */
+    SiteBuildResponse rollbackSite(String siteName) throws SiteBuildException;
+    
+    /**
+     * Gets the build report of the live version of a site.
+     * 
+     * @param siteName the name of the site
+     * @return the report with per-file sizes and times, or null if the live version has none
+     * @throws SiteBuildException if the report cannot be read
+     */
+    Map<String, Object> getBuildReport(String siteName) throws SiteBuildException;
 }
@@ -0,0 +1,26 @@
+package com.sitebuilder.code.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Service interface for serving the files of published sites over HTTP.
+ */
+public interface SiteFileService {
+    
+    /**
+     * Writes a file of the live version of a site to a response.
+     * Handles conditional and range requests and precompressed variants;
+     * unknown sites and files are answered with 404.
+     * 
+     * @param siteName the name of the site
+     * @param path the file path within the site, '/'-separated and URL-decoded
+     * @param request the HTTP request
+     * @param response the HTTP response to write
+     * @throws IOException if the file cannot be sent
+     */
+    void serveFile(String siteName, String path, HttpServletRequest request, HttpServletResponse response)
+        throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.sitebuilder.code.service;
+
+import java.util.Map;
+
+/**
+ * Service interface for the startup warm-up.
+ * When enabled, builds a synthetic generated site covering every section type a
+ * configured number of times before the service reports ready, so the first
+ * real requests run compiled code instead of the interpreter.
+ */
+public interface WarmupService {
+
+    /**
+     * Records the latency of a build request; only the first one after
+     * startup is kept.
+     *
+     * @param durationMs the request latency in milliseconds
+     */
+    void recordRequest(long durationMs);
+
+    /**
+     * Gets the warm-up duration, per-iteration times and the first request latency.
+     *
+     * @return warm-up metrics
+     */
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,237 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.AdmissionRejectedException;
+import com.sitebuilder.code.service.AdmissionService;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of admission control.
+ * Each endpoint has its own concurrency limit, a per-tenant limit within it and
+ * a small wait queue. A request that finds no free slot waits up to the queue
+ * timeout; when the queue is full or the wait times out it is rejected with a
+ * retry delay estimated from recent service times. Limits can be overridden per
+ * endpoint, e.g. {@code site.builder.admission.build.max-concurrent}.
+ */
+@Service
+public class AdmissionServiceImpl implements AdmissionService {
+
+    private static final String PREFIX = "site.builder.admission.";
+
+    // Weight of the newest sample in the moving average of service times
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+
+    private static final Permit UNLIMITED = () -> { };
+
+    private final Environment environment;
+
+    @Value("${site.builder.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.admission.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${site.builder.admission.max-concurrent-per-tenant:2}")
+    private int maxConcurrentPerTenant;
+
+    @Value("${site.builder.admission.queue-size:8}")
+    private int queueSize;
+
+    @Value("${site.builder.admission.queue-timeout-ms:200}")
+    private long queueTimeoutMs;
+
+    @Value("${site.builder.admission.tenant-delimiter:-}")
+    private String tenantDelimiter;
+
+    @Value("${site.builder.admission.max-retry-after-seconds:60}")
+    private long maxRetryAfterSeconds;
+
+    private final Map<String, EndpointLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionServiceImpl(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Permit acquire(String endpoint, String siteName) throws AdmissionRejectedException {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+        return limiters.computeIfAbsent(endpoint, EndpointLimiter::new).acquire(tenantOf(siteName));
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new TreeMap<>();
+        limiters.forEach((endpoint, limiter) -> metrics.put(endpoint, limiter.metrics()));
+        return metrics;
+    }
+
+    private String tenantOf(String siteName) {
+        if (StringUtils.isBlank(siteName)) {
+            return "";
+        }
+        int end = tenantDelimiter.isEmpty() ? -1 : siteName.indexOf(tenantDelimiter);
+        return end > 0 ? siteName.substring(0, end) : siteName;
+    }
+
+    private int endpointSetting(String endpoint, String name, int defaultValue) {
+        return Math.max(1, environment.getProperty(PREFIX + endpoint + "." + name, Integer.class, defaultValue));
+    }
+
+    /**
+     * Slots, waiters and counters of a single endpoint.
+     */
+    private final class EndpointLimiter {
+
+        private final String endpoint;
+        private final int limit;
+        private final int tenantLimit;
+        private final int queueLimit;
+        private final long queueTimeout;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Integer> tenantsInFlight = new HashMap<>();
+
+        private int inFlight;
+        private int waiting;
+        private long admitted;
+        private long rejectedQueueFull;
+        private long rejectedTimeout;
+        private double averageServiceMillis;
+
+        EndpointLimiter(String endpoint) {
+            this.endpoint = endpoint;
+            this.limit = endpointSetting(endpoint, "max-concurrent", maxConcurrent);
+            this.tenantLimit = endpointSetting(endpoint, "max-concurrent-per-tenant", maxConcurrentPerTenant);
+            this.queueLimit = Math.max(0, environment.getProperty(PREFIX + endpoint + ".queue-size", Integer.class, queueSize));
+            this.queueTimeout = environment.getProperty(PREFIX + endpoint + ".queue-timeout-ms", Long.class, queueTimeoutMs);
+        }
+
+        Permit acquire(String tenant) throws AdmissionRejectedException {
+            lock.lock();
+            try {
+                if (!hasSlot(tenant)) {
+                    if (waiting >= queueLimit) {
+                        rejectedQueueFull++;
+                        throw rejection("wait queue is full");
+                    }
+                    awaitSlot(tenant);
+                }
+
+                inFlight++;
+                tenantsInFlight.merge(tenant, 1, Integer::sum);
+                admitted++;
+                return new AdmittedPermit(this, tenant);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void awaitSlot(String tenant) throws AdmissionRejectedException {
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+                while (!hasSlot(tenant)) {
+                    if (remaining <= 0) {
+                        rejectedTimeout++;
+                        throw rejection("no slot freed within " + queueTimeout + " ms");
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedTimeout++;
+                throw rejection("interrupted while waiting for a slot");
+            } finally {
+                waiting--;
+            }
+        }
+
+        private boolean hasSlot(String tenant) {
+            return inFlight < limit && tenantsInFlight.getOrDefault(tenant, 0) < tenantLimit;
+        }
+
+        void release(String tenant, long startNanos) {
+            lock.lock();
+            try {
+                inFlight--;
+                tenantsInFlight.computeIfPresent(tenant, (key, count) -> count > 1 ? count - 1 : null);
+
+                double serviceMillis = (System.nanoTime() - startNanos) / 1_000_000.0;
+                averageServiceMillis = averageServiceMillis == 0 ? serviceMillis
+                    : averageServiceMillis + SERVICE_TIME_WEIGHT * (serviceMillis - averageServiceMillis);
+
+                // Waiters may be blocked on different tenants, so every one re-checks
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private AdmissionRejectedException rejection(String reason) {
+            // Time for the queue ahead of this caller to drain through the endpoint's slots
+            double expectedMillis = averageServiceMillis > 0
+                ? averageServiceMillis * (waiting + 1) / limit : 1000;
+            long retryAfter = Math.min(Math.max(1, (long) Math.ceil(expectedMillis / 1000)), maxRetryAfterSeconds);
+            return new AdmissionRejectedException(
+                "Too many concurrent " + endpoint + " requests: " + reason, retryAfter);
+        }
+
+        Map<String, Object> metrics() {
+            lock.lock();
+            try {
+                Map<String, Object> metrics = new HashMap<>();
+                metrics.put("inFlight", inFlight);
+                metrics.put("queueDepth", waiting);
+                metrics.put("tenantsInFlight", tenantsInFlight.size());
+                metrics.put("maxConcurrent", limit);
+                metrics.put("maxConcurrentPerTenant", tenantLimit);
+                metrics.put("queueSize", queueLimit);
+                metrics.put("admitted", admitted);
+                metrics.put("rejected", rejectedQueueFull + rejectedTimeout);
+                metrics.put("rejectedQueueFull", rejectedQueueFull);
+                metrics.put("rejectedTimeout", rejectedTimeout);
+                metrics.put("averageServiceMillis", Math.round(averageServiceMillis));
+                return metrics;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Permit of an admitted request; releasing it more than once has no effect.
+     */
+    private static final class AdmittedPermit implements Permit {
+
+        private final EndpointLimiter limiter;
+        private final String tenant;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        AdmittedPermit(EndpointLimiter limiter, String tenant) {
+            this.limiter = limiter;
+            this.tenant = tenant;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                limiter.release(tenant, startNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renames CSS and JavaScript assets to content-hashed file names and rewrites
+ * every reference to them in the built HTML, so the assets can be cached as immutable.
+ * HTML references are {@code href} and {@code src} attributes, quoted or not,
+ * and CSS ones are {@code @import} and {@code url(...)} in stylesheets and
+ * {@code <style>} blocks. A stylesheet is renamed after the stylesheets it
+ * imports, so its hash covers their new names.
+ */
+@Component
+@Order(40)
+public class AssetFingerprintStage implements BuildStage {
+
+    private static final Pattern ASSET_REFERENCE = HtmlAttributes.pattern("(?:href|src)");
+    private static final Pattern CSS_REFERENCE = Pattern.compile(
+        "(?:@import\\s+|url\\(\\s*)([\"']?)([^\"'()\\s;]+)\\1", Pattern.CASE_INSENSITIVE);
+
+    @Value("${site.builder.fingerprint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.fingerprint.hash-length:10}")
+    private int hashLength;
+
+    @Override
+    public String getName() {
+        return "fingerprint";
+    }
+
+    /**
+     * Gets the number of hex characters in fingerprints.
+     *
+     * @return the fingerprint length
+     */
+    public int getHashLength() {
+        return hashLength;
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        Map<String, String> renames = context.getFingerprintedAssets();
+
+        Map<String, Path> pending = new LinkedHashMap<>();
+        for (Path asset : BuildFiles.list(root, ".css", ".js")) {
+            pending.put(BuildFiles.relativePath(root, asset), asset);
+        }
+
+        // Stylesheets wait for the stylesheets they import; each round renames at least one asset
+        while (!pending.isEmpty()) {
+            boolean renamed = false;
+            for (Iterator<Map.Entry<String, Path>> assets = pending.entrySet().iterator(); assets.hasNext(); ) {
+                Map.Entry<String, Path> asset = assets.next();
+                if (!importsPending(asset.getKey(), asset.getValue(), pending)) {
+                    fingerprint(root, asset.getValue(), renames, false);
+                    assets.remove();
+                    renamed = true;
+                }
+            }
+            if (!renamed) {
+                // An import cycle cannot name every hash; its stylesheets keep their old names too
+                for (Path asset : pending.values()) {
+                    fingerprint(root, asset, renames, true);
+                }
+                pending.clear();
+            }
+        }
+
+        if (renames.isEmpty()) {
+            return;
+        }
+
+        int rewrittenPages = 0;
+        for (Path page : BuildFiles.list(root, ".html")) {
+            if (rewriteReferences(root, page, renames)) {
+                rewrittenPages++;
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("assets", renames);
+        report.put("pagesRewritten", rewrittenPages);
+        context.addStageReport(getName(), report);
+    }
+
+    private void fingerprint(Path root, Path asset, Map<String, String> renames, boolean keepOriginal)
+            throws IOException {
+        String assetPath = BuildFiles.relativePath(root, asset);
+        if (isStylesheet(asset)) {
+            String css = Files.readString(asset);
+            String rewritten = rewriteCssReferences(css, BuildFiles.parentPath(assetPath), renames);
+            if (!rewritten.equals(css)) {
+                Files.writeString(asset, rewritten);
+            }
+        }
+
+        String fileName = asset.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String hashedName = fileName.substring(0, dot) + "." + hash(asset) + fileName.substring(dot);
+
+        Path hashedAsset = asset.resolveSibling(hashedName);
+        if (keepOriginal) {
+            Files.copy(asset, hashedAsset, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.move(asset, hashedAsset, StandardCopyOption.REPLACE_EXISTING);
+        }
+        renames.put(assetPath, BuildFiles.relativePath(root, hashedAsset));
+    }
+
+    private static boolean importsPending(String assetPath, Path asset, Map<String, Path> pending) throws IOException {
+        if (!isStylesheet(asset)) {
+            return false;
+        }
+        String assetDir = BuildFiles.parentPath(assetPath);
+        Matcher reference = CSS_REFERENCE.matcher(Files.readString(asset));
+        while (reference.find()) {
+            String resolved = BuildFiles.resolveReference(assetDir, reference.group(2));
+            if (resolved != null && !resolved.equals(assetPath) && pending.containsKey(resolved)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStylesheet(Path asset) {
+        return asset.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".css");
+    }
+
+    private boolean rewriteReferences(Path root, Path page, Map<String, String> renames) throws IOException {
+        String html = Files.readString(page);
+        String pageDir = BuildFiles.parentPath(BuildFiles.relativePath(root, page));
+
+        // One pass over the page rewrites every href/src that points at a renamed asset
+        Matcher matcher = ASSET_REFERENCE.matcher(html);
+        StringBuilder result = new StringBuilder(html.length());
+        while (matcher.find()) {
+            // Only the value changes; its quotes, or lack of them, stay as they were
+            int group = matcher.group(1) != null ? 1 : matcher.group(2) != null ? 2 : 3;
+            String rewritten = rewriteUrl(pageDir, matcher.group(group), renames);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(
+                html.substring(matcher.start(), matcher.start(group)) + rewritten
+                    + html.substring(matcher.end(group), matcher.end())));
+        }
+        matcher.appendTail(result);
+
+        // Inline <style> blocks may import a stylesheet too
+        String rewritten = rewriteCssReferences(result.toString(), pageDir, renames);
+        if (!rewritten.equals(html)) {
+            Files.writeString(page, rewritten);
+            return true;
+        }
+        return false;
+    }
+
+    private static String rewriteCssReferences(String css, String baseDir, Map<String, String> renames) {
+        Matcher matcher = CSS_REFERENCE.matcher(css);
+        StringBuilder result = new StringBuilder(css.length());
+        while (matcher.find()) {
+            String rewritten = rewriteUrl(baseDir, matcher.group(2), renames);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(
+                css.substring(matcher.start(), matcher.start(2)) + rewritten
+                    + css.substring(matcher.end(2), matcher.end())));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String rewriteUrl(String pageDir, String url, Map<String, String> renames) {
+        String resolved = BuildFiles.resolveReference(pageDir, url);
+        String hashed = resolved != null ? renames.get(resolved) : null;
+        if (hashed == null) {
+            return url;
+        }
+
+        // Only the file name changes, so keep the URL's own directory prefix and query
+        int suffixStart = BuildFiles.indexOfQueryOrFragment(url);
+        String path = suffixStart >= 0 ? url.substring(0, suffixStart) : url;
+        String suffix = suffixStart >= 0 ? url.substring(suffixStart) : "";
+        String hashedName = hashed.substring(hashed.lastIndexOf('/') + 1);
+        return path.substring(0, path.lastIndexOf('/') + 1) + hashedName + suffix;
+    }
+
+    private String hash(Path file) throws IOException {
+        String digest = BuildFiles.sha256Hex(file);
+        return digest.substring(0, Math.min(Math.max(1, hashLength), digest.length()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildCacheService;
+import com.sitebuilder.code.service.SiteBuildException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Reference build cache server backed by a directory.
+ * Each entry is one file named after its key, sharded by the first two hex
+ * digits. Entries are written to a temporary file and moved into place, so
+ * readers never see a partial entry. There is no eviction; the directory can
+ * be cleared at any time since every entry can be recomputed.
+ */
+@Service
+public class BuildCacheServiceImpl implements BuildCacheService {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${site.builder.cache-server.enabled:false}")
+    private boolean enabled;
+
+    @Value("${site.builder.cache-server.path:build-cache}")
+    private String cachePath;
+
+    @Value("${site.builder.cache-server.max-entry-bytes:67108864}")
+    private long maxEntryBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Path getEntry(String key) throws SiteBuildException {
+        Path entry = entryPath(key);
+        if (!Files.isRegularFile(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    @Override
+    public void putEntry(String key, InputStream content) throws SiteBuildException {
+        Path entry = entryPath(key);
+        if (Files.isRegularFile(entry)) {
+            return;
+        }
+
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(Files.createDirectories(entry.getParent()), key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                copyBounded(content, out);
+            }
+
+            // Concurrent stores of one key carry the same content; the first one wins
+            Files.move(tempFile, entry, StandardCopyOption.ATOMIC_MOVE);
+            stores.incrementAndGet();
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently
+        } catch (IOException e) {
+            if (!Files.isRegularFile(entry)) {
+                throw new SiteBuildException("Failed to store cache entry " + key + ": " + e.getMessage(), e);
+            }
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // Left behind for the next cleanup of the cache directory
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("stores", stores.get());
+
+        long entries = 0;
+        long bytes = 0;
+        Path root = Paths.get(cachePath);
+        if (enabled && Files.isDirectory(root)) {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    if (!file.getFileName().toString().endsWith(".tmp")) {
+                        entries++;
+                        bytes += Files.size(file);
+                    }
+                }
+            } catch (IOException e) {
+                // Entries may be removed while counting; report what was seen
+            }
+        }
+        metrics.put("entries", entries);
+        metrics.put("bytes", bytes);
+        return metrics;
+    }
+
+    private Path entryPath(String key) throws SiteBuildException {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new SiteBuildException("Cache key must be a lower-case hex SHA-256");
+        }
+        return Paths.get(cachePath, key.substring(0, 2), key);
+    }
+
+    private void copyBounded(InputStream in, OutputStream out) throws IOException, SiteBuildException {
+        byte[] buffer = new byte[65536];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxEntryBytes) {
+                throw new SiteBuildException("Cache entry exceeds " + maxEntryBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.sitebuilder.code.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * File helpers shared by the build stages.
+ */
+final class BuildFiles {
+
+    private BuildFiles() {
+    }
+
+    /**
+     * Lists the regular files of a build with one of the given extensions.
+     *
+     * @param root the build root
+     * @param extensions lower-case extensions including the dot, e.g. ".html"
+     * @return matching files in a stable order
+     * @throws IOException if the tree cannot be walked
+     */
+    static List<Path> list(Path root, String... extensions) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(file -> hasExtension(file, extensions))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Gets the path of a file relative to the build root with '/' separators.
+     *
+     * @param root the build root
+     * @param file a file inside the build
+     * @return the relative path as used in URLs
+     */
+    static String relativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Gets the directory part of a build-relative path.
+     *
+     * @param relativePath a path with '/' separators
+     * @return the parent directory, or an empty string at the build root
+     */
+    static String parentPath(String relativePath) {
+        int slash = relativePath.lastIndexOf('/');
+        return slash >= 0 ? relativePath.substring(0, slash) : "";
+    }
+
+    /**
+     * Resolves a URL found in a page to a file path inside the build.
+     *
+     * @param pageDir the build-relative directory of the page
+     * @param url the href or src value
+     * @return the build-relative path, or null if the URL points outside the build
+     */
+    static String resolveReference(String pageDir, String url) {
+        if (url.isEmpty() || url.startsWith("//") || url.startsWith("#") || url.contains(":")) {
+            return null; // Absolute, protocol-relative or fragment-only URLs are not build files
+        }
+
+        int suffixStart = indexOfQueryOrFragment(url);
+        String path = suffixStart >= 0 ? url.substring(0, suffixStart) : url;
+        return normalize(path.startsWith("/") ? path.substring(1) : pageDir + "/" + path);
+    }
+
+    /**
+     * Builds the relative URL that leads from a directory to a file of the build.
+     *
+     * @param fromDir the build-relative directory the URL is used in
+     * @param path the build-relative path of the target file
+     * @return the relative URL, e.g. {@code ../assets/img/hero.png}
+     */
+    static String relativeUrl(String fromDir, String path) {
+        String[] from = fromDir.isEmpty() ? new String[0] : fromDir.split("/");
+        String[] to = path.split("/");
+
+        int common = 0;
+        while (common < from.length && common < to.length - 1 && from[common].equals(to[common])) {
+            common++;
+        }
+
+        StringBuilder url = new StringBuilder();
+        for (int i = common; i < from.length; i++) {
+            url.append("../");
+        }
+        for (int i = common; i < to.length; i++) {
+            url.append(to[i]).append(i < to.length - 1 ? "/" : "");
+        }
+        return url.toString();
+    }
+
+    /**
+     * Finds where the query string or fragment of a URL starts.
+     *
+     * @param url the URL
+     * @return the index of the first '?' or '#', or -1
+     */
+    static int indexOfQueryOrFragment(String url) {
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String path) {
+        Deque<String> segments = new ArrayDeque<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) {
+                    return null;
+                }
+                segments.removeLast();
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    /**
+     * Computes the SHA-256 of a file without reading it into memory.
+     *
+     * @param file the file to hash
+     * @return the lower-case hex digest
+     * @throws IOException if the file cannot be read
+     */
+    static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 of in-memory content.
+     *
+     * @param content the bytes to hash
+     * @return the lower-case hex digest
+     */
+    static String sha256Hex(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean hasExtension(Path file, String... extensions) {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : extensions) {
+            if (fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,383 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.dto.BuildJobResponse;
+import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.BuildCancellation;
+import com.sitebuilder.code.service.BuildJobService;
+import com.sitebuilder.code.service.BuildJobStatus;
+import com.sitebuilder.code.service.BuildPriority;
+import com.sitebuilder.code.service.SiteBuildException;
+import com.sitebuilder.code.service.SiteBuildService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of the build job queue.
+ * Jobs wait in a priority queue and run on a fixed pool of workers, so a burst
+ * of build requests never ties up servlet threads or runs unbounded builds in parallel.
+ * Builds are single-flight per site: a request for a site that already has a
+ * job waiting joins that job, and a job submitted while its site is being built
+ * is held back until that build ends. Every request during a build is therefore
+ * served by at most one follow-up build, which sees all changes made before it
+ * starts, while different sites still build in parallel.
+ */
+@Service
+public class BuildJobServiceImpl implements BuildJobService {
+
+    private final SiteBuildService siteBuildService;
+
+    @Value("${site.builder.queue.workers:2}")
+    private int workers;
+
+    @Value("${site.builder.queue.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${site.builder.queue.history-size:200}")
+    private int historySize;
+
+    private final Map<String, BuildJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<BuildJob> finishedJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Per site: the job building it and the one job waiting to build it next, guarded by siteLock
+    private final Object siteLock = new Object();
+    private final Map<String, BuildJob> runningBySite = new HashMap<>();
+    private final Map<String, BuildJob> waitingBySite = new HashMap<>();
+    private int deferredJobs;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService timeoutScheduler;
+
+    public BuildJobServiceImpl(SiteBuildService siteBuildService) {
+        this.siteBuildService = siteBuildService;
+    }
+
+    @PostConstruct
+    public void start() {
+        int poolSize = Math.max(1, workers);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(64, Comparator.comparing(runnable -> (BuildJob) runnable)),
+            namedThreads("build-worker"));
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("build-timeout"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+    }
+
+    @Override
+    public BuildJobResponse submitJob(String siteName, BuildPriority priority) throws SiteBuildException {
+        if (StringUtils.isBlank(siteName)) {
+            throw new SiteBuildException("Site name cannot be blank");
+        }
+
+        BuildPriority jobPriority = priority != null ? priority : BuildPriority.NORMAL;
+
+        synchronized (siteLock) {
+            BuildJob waiting = waitingBySite.get(siteName);
+            if (waiting != null) {
+                waiting.requests.incrementAndGet();
+                if (jobPriority.compareTo(waiting.priority) < 0) {
+                    promote(waiting, jobPriority);
+                }
+                return waiting.toResponse();
+            }
+
+            BuildJob job = new BuildJob(UUID.randomUUID().toString(), siteName, jobPriority,
+                sequence.incrementAndGet());
+            jobs.put(job.id, job);
+            waitingBySite.put(siteName, job);
+
+            if (runningBySite.containsKey(siteName)) {
+                // Queued once the running build of this site ends, so the two never overlap
+                job.deferred = true;
+                deferredJobs++;
+                return job.toResponse();
+            }
+
+            try {
+                executor.execute(job);
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                waitingBySite.remove(siteName, job);
+                throw new SiteBuildException("Build queue is shut down", e);
+            }
+            return job.toResponse();
+        }
+    }
+
+    @Override
+    public CompletableFuture<SiteBuildResponse> awaitJob(String jobId) throws SiteBuildException {
+        return findJob(jobId).future.copy();
+    }
+
+    @Override
+    public BuildJobResponse getJob(String jobId) throws SiteBuildException {
+        return findJob(jobId).toResponse();
+    }
+
+    @Override
+    public BuildJobResponse cancelJob(String jobId) throws SiteBuildException {
+        BuildJob job = findJob(jobId);
+
+        if (cancelWaiting(job)) {
+            finish(job, new SiteBuildException("Build cancelled before it started"));
+        } else if (job.stopRunning(BuildJobStatus.CANCELLED)) {
+            job.interruptWorker();
+            finish(job, new SiteBuildException("Build cancelled"));
+        }
+
+        return job.toResponse();
+    }
+
+    @Override
+    public List<BuildJobResponse> listJobs() {
+        List<BuildJob> snapshot = new ArrayList<>(jobs.values());
+        snapshot.sort(Comparator.comparingLong((BuildJob job) -> job.sequenceNumber).reversed());
+
+        List<BuildJobResponse> responses = new ArrayList<>(snapshot.size());
+        for (BuildJob job : snapshot) {
+            responses.add(job.toResponse());
+        }
+        return responses;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        synchronized (siteLock) {
+            return executor.getQueue().size() + deferredJobs;
+        }
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    private BuildJob findJob(String jobId) throws SiteBuildException {
+        BuildJob job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null) {
+            throw new SiteBuildException("Build job '" + jobId + "' not found");
+        }
+        return job;
+    }
+
+    private void promote(BuildJob job, BuildPriority priority) {
+        // The queue orders by priority, so the job is taken out before its priority changes
+        if (job.deferred) {
+            job.priority = priority;
+        } else if (executor.remove(job)) {
+            job.priority = priority;
+            executor.execute(job);
+        }
+    }
+
+    private boolean cancelWaiting(BuildJob job) {
+        synchronized (siteLock) {
+            if (!job.status.compareAndSet(BuildJobStatus.QUEUED, BuildJobStatus.CANCELLED)) {
+                return false;
+            }
+            waitingBySite.remove(job.siteName, job);
+            if (job.deferred) {
+                job.deferred = false;
+                deferredJobs--;
+            } else {
+                executor.remove(job);
+            }
+            return true;
+        }
+    }
+
+    private void runJob(BuildJob job) {
+        synchronized (siteLock) {
+            if (!job.status.compareAndSet(BuildJobStatus.QUEUED, BuildJobStatus.RUNNING)) {
+                return; // Cancelled while waiting in the queue
+            }
+            // Requests from now on wait for the follow-up build
+            waitingBySite.remove(job.siteName, job);
+            runningBySite.put(job.siteName, job);
+            // Set before anyone can see the job running, so a cancel always reaches this thread
+            job.setWorker(Thread.currentThread());
+        }
+
+        job.startedAt = System.currentTimeMillis();
+        ScheduledFuture<?> timeout = timeoutSeconds > 0
+            ? timeoutScheduler.schedule(() -> timeOut(job), timeoutSeconds, TimeUnit.SECONDS)
+            : null;
+
+        try {
+            job.result = siteBuildService.buildSite(job.siteName, job);
+            if (job.status.compareAndSet(BuildJobStatus.RUNNING, BuildJobStatus.SUCCEEDED)) {
+                finish(job, null);
+            }
+        } catch (Exception e) {
+            if (job.status.compareAndSet(BuildJobStatus.RUNNING, BuildJobStatus.FAILED)) {
+                finish(job, e);
+            }
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            job.setWorker(null);
+            // Do not leak a cancellation interrupt into the next job on this worker
+            Thread.interrupted();
+            // Only now, after a cancelled or timed out build has really stopped
+            startFollowUp(job);
+        }
+    }
+
+    private void startFollowUp(BuildJob job) {
+        BuildJob next;
+        synchronized (siteLock) {
+            runningBySite.remove(job.siteName, job);
+            next = waitingBySite.get(job.siteName);
+            if (next == null || !next.deferred) {
+                return;
+            }
+            next.deferred = false;
+            deferredJobs--;
+            try {
+                executor.execute(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                waitingBySite.remove(job.siteName, next);
+                next.status.set(BuildJobStatus.CANCELLED);
+            }
+        }
+        finish(next, new SiteBuildException("Build queue is shut down"));
+    }
+
+    private void timeOut(BuildJob job) {
+        if (job.stopRunning(BuildJobStatus.TIMED_OUT)) {
+            job.interruptWorker();
+            finish(job, new SiteBuildException("Build timed out after " + timeoutSeconds + " seconds"));
+        }
+    }
+
+    private void finish(BuildJob job, Exception error) {
+        job.finishedAt = System.currentTimeMillis();
+        if (error == null) {
+            job.future.complete(job.result);
+        } else {
+            job.error = error.getMessage();
+            job.future.completeExceptionally(error);
+        }
+
+        // Keep a bounded history of finished jobs for polling
+        finishedJobs.add(job);
+        while (finishedJobs.size() > Math.max(0, historySize)) {
+            BuildJob evicted = finishedJobs.poll();
+            if (evicted != null) {
+                jobs.remove(evicted.id);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        return new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + "-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * A queued build. Ordered by priority, then by submission order.
+     * A running build can be cancelled or time out until it starts publishing.
+     */
+    private final class BuildJob implements Runnable, Comparable<BuildJob>, BuildCancellation {
+
+        private final String id;
+        private final String siteName;
+        private final long sequenceNumber;
+        private final long submittedAt = System.currentTimeMillis();
+        private final AtomicReference<BuildJobStatus> status = new AtomicReference<>(BuildJobStatus.QUEUED);
+        private final CompletableFuture<SiteBuildResponse> future = new CompletableFuture<>();
+        private final AtomicInteger requests = new AtomicInteger(1);
+
+        // Changed only under siteLock and while the job is not in the executor queue
+        private volatile BuildPriority priority;
+        private boolean deferred;
+
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile SiteBuildResponse result;
+        private volatile String error;
+        private Thread worker;
+        private boolean publishing;
+
+        private BuildJob(String id, String siteName, BuildPriority priority, long sequenceNumber) {
+            this.id = id;
+            this.siteName = siteName;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            runJob(this);
+        }
+
+        @Override
+        public int compareTo(BuildJob other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return status.get() != BuildJobStatus.RUNNING;
+        }
+
+        @Override
+        public synchronized boolean beginPublish() {
+            publishing = status.get() == BuildJobStatus.RUNNING;
+            return publishing;
+        }
+
+        private synchronized boolean stopRunning(BuildJobStatus stopped) {
+            return !publishing && status.compareAndSet(BuildJobStatus.RUNNING, stopped);
+        }
+
+        private synchronized void setWorker(Thread worker) {
+            this.worker = worker;
+        }
+
+        private synchronized void interruptWorker() {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        private BuildJobResponse toResponse() {
+            BuildJobStatus current = status.get();
+            BuildJobResponse response = new BuildJobResponse(id, siteName, priority.name(), current.name(),
+                submittedAt, startedAt, finishedAt,
+                current == BuildJobStatus.SUCCEEDED ? result : null, error);
+            response.setRequests(requests.get());
+            return response;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.SiteBuildException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Blue/green publisher for built sites.
+ * Builds are written to a private staging directory and published by atomically
+ * swapping the {@code build/<siteName>} symlink to the new version, so readers
+ * always see either the old or the new site in full. Old versions are removed
+ * by a low-priority background cleaner; the newest ones are kept for rollback.
+ */
+@Component
+public class BuildPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(BuildPublisher.class);
+
+    private static final String STAGING_DIR = ".staging";
+    private static final String VERSIONS_DIR = ".versions";
+
+    @Value("${site.builder.build.path:build}")
+    private String buildPath;
+
+    @Value("${site.builder.publish.keep-versions:3}")
+    private int keepVersions;
+
+    private final AtomicInteger versionSequence = new AtomicInteger();
+
+    private final ExecutorService cleaner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "build-cleaner");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        cleaner.shutdown();
+    }
+
+    /**
+     * Creates an empty staging directory for a new build of a site.
+     *
+     * @param siteName the name of the site
+     * @return the staging directory
+     * @throws IOException if the directory cannot be created
+     */
+    public Path createStagingDirectory(String siteName) throws IOException {
+        String versionId = String.format("%013d-%03d", System.currentTimeMillis(),
+            versionSequence.getAndIncrement() % 1000);
+        Path stagingPath = Paths.get(buildPath, STAGING_DIR, siteName, versionId);
+        Files.createDirectories(stagingPath);
+        return stagingPath;
+    }
+
+    /**
+     * Publishes a staged build as the live version of a site.
+     *
+     * @param siteName the name of the site
+     * @param stagingPath the staging directory created by {@link #createStagingDirectory}
+     * @return the live path of the site
+     * @throws IOException if the build cannot be published
+     */
+    public Path publish(String siteName, Path stagingPath) throws IOException {
+        Path versionsPath = versionsPath(siteName);
+        Files.createDirectories(versionsPath);
+
+        // Same file system, so this is a rename and never a copy
+        Path versionPath = versionsPath.resolve(stagingPath.getFileName());
+        Files.move(stagingPath, versionPath, StandardCopyOption.ATOMIC_MOVE);
+
+        Path livePath = livePath(siteName);
+        retireLegacyDirectory(siteName, livePath);
+        swapLink(siteName, livePath, versionPath.getFileName().toString());
+
+        scheduleCleanup(siteName);
+        return livePath;
+    }
+
+    /**
+     * Discards a staged build that will not be published.
+     *
+     * @param stagingPath the staging directory to remove
+     */
+    public void discard(Path stagingPath) {
+        cleaner.execute(() -> deleteQuietly(stagingPath));
+    }
+
+    /**
+     * Points the live site back at the version published before the current one.
+     *
+     * @param siteName the name of the site
+     * @return the id of the version that is now live
+     * @throws SiteBuildException if there is no earlier version to roll back to
+     */
+    public String rollback(String siteName) throws SiteBuildException {
+        try {
+            String current = currentVersion(siteName);
+            List<String> versions = listVersions(siteName);
+
+            String previous = null;
+            for (String version : versions) {
+                if (current == null || version.compareTo(current) < 0) {
+                    previous = version;
+                    break;
+                }
+            }
+
+            if (previous == null) {
+                throw new SiteBuildException("No earlier version of site '" + siteName + "' to roll back to");
+            }
+
+            swapLink(siteName, livePath(siteName), previous);
+            return previous;
+
+        } catch (IOException e) {
+            throw new SiteBuildException("Failed to roll back site: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the id of the live version of a site.
+     *
+     * @param siteName the name of the site
+     * @return the live version id, or null if the site is not published as a version
+     * @throws IOException if the live link cannot be read
+     */
+    public String currentVersion(String siteName) throws IOException {
+        Path livePath = livePath(siteName);
+        if (!Files.isSymbolicLink(livePath)) {
+            return null;
+        }
+        return Files.readSymbolicLink(livePath).getFileName().toString();
+    }
+
+    /**
+     * Lists the kept versions of a site, newest first.
+     *
+     * @param siteName the name of the site
+     * @return version ids, newest first
+     * @throws IOException if the versions cannot be listed
+     */
+    public List<String> listVersions(String siteName) throws IOException {
+        Path versionsPath = versionsPath(siteName);
+        List<String> versions = new ArrayList<>();
+        if (!Files.isDirectory(versionsPath)) {
+            return versions;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(versionsPath, Files::isDirectory)) {
+            for (Path path : stream) {
+                versions.add(path.getFileName().toString());
+            }
+        }
+
+        versions.sort(Collections.reverseOrder());
+        return versions;
+    }
+
+    /**
+     * Gets the directory of a published version of a site.
+     *
+     * @param siteName the name of the site
+     * @param versionId the version id
+     * @return the version directory
+     */
+    public Path versionPath(String siteName, String versionId) {
+        return versionsPath(siteName).resolve(versionId);
+    }
+
+    private void swapLink(String siteName, Path livePath, String versionId) throws IOException {
+        // Relative target, so the build directory can be moved or mounted elsewhere
+        Path target = Paths.get(VERSIONS_DIR, siteName, versionId);
+        Path tempLink = livePath.resolveSibling("." + siteName + ".publish-" + versionId);
+
+        Files.deleteIfExists(tempLink);
+        Files.createSymbolicLink(tempLink, target);
+        try {
+            // rename(2) replaces the old link in a single step
+            Files.move(tempLink, livePath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempLink);
+            throw e;
+        }
+    }
+
+    private void retireLegacyDirectory(String siteName, Path livePath) throws IOException {
+        // Builds published before versioning are plain directories; keep them as the oldest version
+        if (Files.isDirectory(livePath, LinkOption.NOFOLLOW_LINKS)) {
+            Path legacyPath = versionsPath(siteName).resolve(String.format("%013d-legacy", 0));
+            Files.move(livePath, legacyPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void scheduleCleanup(String siteName) {
+        cleaner.execute(() -> {
+            try {
+                String current = currentVersion(siteName);
+                List<String> versions = listVersions(siteName);
+                int kept = 0;
+
+                for (String version : versions) {
+                    if (version.equals(current) || kept < Math.max(1, keepVersions)) {
+                        kept++;
+                        continue;
+                    }
+                    deleteQuietly(versionsPath(siteName).resolve(version));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to clean up old versions of site '{}': {}", siteName, e.getMessage());
+            }
+        });
+    }
+
+    private Path livePath(String siteName) {
+        return Paths.get(buildPath, siteName);
+    }
+
+    private Path versionsPath(String siteName) {
+        return Paths.get(buildPath, VERSIONS_DIR, siteName);
+    }
+
+    private void deleteQuietly(Path directory) {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete {}: {}", directory, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.sitebuilder.code.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitebuilder.code.service.BuildContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a profile of every published build and compares it with the previous one.
+ * The report lists each file with its input, optimized and published size, the
+ * optimizer used and the time it took, plus the slowest and largest files and
+ * the time of every build stage. Reports are kept per version under
+ * {@code build/.reports/<siteName>/<versionId>.json}, outside the published
+ * site; files whose published size or optimize time grew past the thresholds
+ * since the previous live version are flagged as regressions, as are the total
+ * size and the build time.
+ */
+@Component
+public class BuildReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BuildReporter.class);
+
+    private static final String REPORTS_DIR = ".reports";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${site.builder.build.path:build}")
+    private String buildPath;
+
+    @Value("${site.builder.report.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.report.top-n:10}")
+    private int topN;
+
+    @Value("${site.builder.report.keep:20}")
+    private int keepReports;
+
+    @Value("${site.builder.report.size-regression-percent:10}")
+    private double sizeRegressionPercent;
+
+    @Value("${site.builder.report.size-regression-min-bytes:1024}")
+    private long sizeRegressionMinBytes;
+
+    @Value("${site.builder.report.time-regression-percent:50}")
+    private double timeRegressionPercent;
+
+    @Value("${site.builder.report.time-regression-min-ms:5}")
+    private double timeRegressionMinMs;
+
+    public BuildReporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the report of a published build.
+     *
+     * @param context the build
+     * @param versionId the published version
+     * @param versionPath the directory of the published version
+     * @param files optimize results by relative path, using '/' separators
+     * @param previousVersion the version that was live before, or null
+     * @param buildTimeMs the build time in milliseconds
+     * @return the report without the per-file list, or null if reports are disabled
+     * @throws IOException if the report cannot be written
+     */
+    public Map<String, Object> write(BuildContext context, String versionId, Path versionPath,
+                                     Map<String, FileOptimizer.Result> files, String previousVersion,
+                                     long buildTimeMs) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        long inputBytes = 0;
+        long optimizedBytes = 0;
+        long outputBytes = 0;
+        long nanos = 0;
+
+        for (Map.Entry<String, FileOptimizer.Result> file : files.entrySet()) {
+            FileOptimizer.Result result = file.getValue();
+            // Later stages rewrite files in place and fingerprinting renames them
+            String publishedPath = context.getFingerprintedAssets().getOrDefault(file.getKey(), file.getKey());
+            Path published = versionPath.resolve(publishedPath);
+            long size = Files.isRegularFile(published) ? Files.size(published) : result.getOutputBytes();
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("path", file.getKey());
+            entry.put("optimizer", result.getOptimizer());
+            entry.put("inputBytes", result.getInputBytes());
+            entry.put("optimizedBytes", result.getOutputBytes());
+            entry.put("outputBytes", size);
+            entry.put("ratio", ratio(size, result.getInputBytes()));
+            entry.put("optimizeMs", millis(result.getNanos()));
+            entries.add(entry);
+
+            inputBytes += result.getInputBytes();
+            optimizedBytes += result.getOutputBytes();
+            outputBytes += size;
+            nanos += result.getNanos();
+        }
+        entries.sort(Comparator.comparing(entry -> (String) entry.get("path")));
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("files", entries.size());
+        totals.put("inputBytes", inputBytes);
+        totals.put("optimizedBytes", optimizedBytes);
+        totals.put("outputBytes", outputBytes);
+        totals.put("ratio", ratio(outputBytes, inputBytes));
+        totals.put("optimizeMs", millis(nanos));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("siteName", context.getSiteName());
+        report.put("version", versionId);
+        report.put("previousVersion", previousVersion);
+        report.put("createdAt", Instant.now().toString());
+        report.put("buildTimeMs", buildTimeMs);
+        report.put("totals", totals);
+        report.put("stageTimesMs", context.getStageTimes());
+        report.put("slowest", top(entries, "optimizeMs"));
+        report.put("largest", top(entries, "outputBytes"));
+
+        Map<String, Object> previous = previousVersion == null ? null : read(context.getSiteName(), previousVersion);
+        report.put("regressions", previous == null ? Collections.emptyList() : compare(previous, report, entries));
+        report.put("files", entries);
+
+        Path reportsPath = reportsPath(context.getSiteName());
+        Files.createDirectories(reportsPath);
+        Path reportFile = reportsPath.resolve(versionId + ".json");
+        Path tempFile = reportsPath.resolve("." + versionId + ".json.tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), report);
+        Files.move(tempFile, reportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        prune(reportsPath);
+
+        Map<String, Object> summary = new LinkedHashMap<>(report);
+        summary.remove("files");
+        summary.put("reportPath", reportFile.toString());
+        return summary;
+    }
+
+    /**
+     * Reads the report of a version.
+     *
+     * @param siteName the name of the site
+     * @param versionId the version
+     * @return the report, or null if there is none
+     * @throws IOException if the report cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read(String siteName, String versionId) throws IOException {
+        Path reportFile = reportsPath(siteName).resolve(versionId + ".json");
+        if (!Files.isRegularFile(reportFile)) {
+            return null;
+        }
+        return objectMapper.readValue(reportFile.toFile(), Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> compare(Map<String, Object> previous, Map<String, Object> report,
+                                              List<Map<String, Object>> entries) {
+        Map<String, Map<String, Object>> previousFiles = new HashMap<>();
+        for (Map<String, Object> entry : (List<Map<String, Object>>) previous.getOrDefault("files", List.of())) {
+            previousFiles.put((String) entry.get("path"), entry);
+        }
+
+        List<Map<String, Object>> regressions = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            Map<String, Object> before = previousFiles.get(entry.get("path"));
+            if (before == null) {
+                continue;
+            }
+            checkSize(regressions, (String) entry.get("path"), "outputBytes", before.get("outputBytes"), entry.get("outputBytes"));
+            checkTime(regressions, (String) entry.get("path"), "optimizeMs", before.get("optimizeMs"), entry.get("optimizeMs"));
+        }
+
+        Map<String, Object> previousTotals = (Map<String, Object>) previous.getOrDefault("totals", Map.of());
+        Map<String, Object> totals = (Map<String, Object>) report.get("totals");
+        checkSize(regressions, null, "totalOutputBytes", previousTotals.get("outputBytes"), totals.get("outputBytes"));
+        checkTime(regressions, null, "buildTimeMs", previous.get("buildTimeMs"), report.get("buildTimeMs"));
+
+        for (Map<String, Object> regression : regressions) {
+            log.warn("Build regression in site '{}': {} {} grew from {} to {} ({}%)", report.get("siteName"),
+                regression.getOrDefault("path", "(build)"), regression.get("metric"),
+                regression.get("previous"), regression.get("current"), regression.get("changePercent"));
+        }
+        return regressions;
+    }
+
+    private void checkSize(List<Map<String, Object>> regressions, String path, String metric, Object before, Object after) {
+        if (before instanceof Number && after instanceof Number) {
+            long previous = ((Number) before).longValue();
+            long current = ((Number) after).longValue();
+            if (previous > 0 && current - previous >= sizeRegressionMinBytes
+                && (current - previous) * 100.0 >= previous * sizeRegressionPercent) {
+                regressions.add(regression(path, metric, previous, current, previous, current));
+            }
+        }
+    }
+
+    private void checkTime(List<Map<String, Object>> regressions, String path, String metric, Object before, Object after) {
+        // Times are noisy, so small absolute increases are ignored however large in percent
+        if (before instanceof Number && after instanceof Number) {
+            double previous = ((Number) before).doubleValue();
+            double current = ((Number) after).doubleValue();
+            if (previous > 0 && current - previous >= timeRegressionMinMs
+                && (current - previous) * 100.0 >= previous * timeRegressionPercent) {
+                regressions.add(regression(path, metric, before, after, previous, current));
+            }
+        }
+    }
+
+    private static Map<String, Object> regression(String path, String metric, Object before, Object after,
+                                                  double previous, double current) {
+        Map<String, Object> regression = new LinkedHashMap<>();
+        if (path != null) {
+            regression.put("path", path);
+        }
+        regression.put("metric", metric);
+        regression.put("previous", before);
+        regression.put("current", after);
+        regression.put("changePercent", Math.round((current - previous) * 1000.0 / previous) / 10.0);
+        return regression;
+    }
+
+    private List<Map<String, Object>> top(List<Map<String, Object>> entries, String key) {
+        List<Map<String, Object>> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingDouble((Map<String, Object> entry) -> ((Number) entry.get(key)).doubleValue())
+            .reversed());
+        return sorted.subList(0, Math.min(Math.max(0, topN), sorted.size()));
+    }
+
+    private void prune(Path reportsPath) throws IOException {
+        List<Path> reports = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(reportsPath, "*.json")) {
+            for (Path report : stream) {
+                reports.add(report);
+            }
+        }
+
+        // Version ids sort by time, so the oldest reports come last
+        reports.sort(Comparator.comparing((Path report) -> report.getFileName().toString()).reversed());
+        for (int i = Math.max(1, keepReports); i < reports.size(); i++) {
+            Files.deleteIfExists(reports.get(i));
+        }
+    }
+
+    private Path reportsPath(String siteName) {
+        return Paths.get(buildPath, REPORTS_DIR, siteName);
+    }
+
+    private static double ratio(long outputBytes, long inputBytes) {
+        return inputBytes == 0 ? 1.0 : Math.round(outputBytes * 1000.0 / inputBytes) / 1000.0;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inlines the CSS rules a page actually uses, plus the {@code @font-face} rules,
+ * into a {@code <style>} block and loads the full stylesheet without blocking
+ * rendering. Relative {@code url(...)} values are rewritten from the
+ * stylesheet's directory to the page's, so images and fonts still load. A page
+ * is only changed when its used rules fit in the configured size budget.
+ */
+@Component
+@Order(30)
+public class CriticalCssStage implements BuildStage {
+
+    private static final Pattern LINK_TAG = Pattern.compile("<link\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REL_ATTRIBUTE = HtmlAttributes.pattern("rel");
+    private static final Pattern MEDIA_ATTRIBUTE = HtmlAttributes.pattern("media");
+    private static final Pattern HREF_ATTRIBUTE = HtmlAttributes.pattern("href");
+    private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*([\"']?)([^\"')]*)\\1\\s*\\)", Pattern.CASE_INSENSITIVE);
+
+    @Value("${site.builder.critical-css.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.critical-css.max-bytes:14336}")
+    private int maxInlineBytes;
+
+    @Override
+    public String getName() {
+        return "criticalCss";
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        Map<String, CssStylesheet> stylesheets = new HashMap<>();
+        Map<String, Object> pages = new LinkedHashMap<>();
+
+        for (Path page : BuildFiles.list(root, ".html")) {
+            String pagePath = BuildFiles.relativePath(root, page);
+            String pageDir = BuildFiles.parentPath(pagePath);
+            String html = Files.readString(page);
+            SelectorUsage usage = SelectorUsage.scan(html);
+
+            Matcher link = LINK_TAG.matcher(html);
+            StringBuilder result = new StringBuilder(html.length());
+            int inlinedBytes = 0;
+            long deferredBytes = 0;
+
+            while (link.find()) {
+                String tag = link.group();
+                String stylesheetPath = stylesheetPath(tag, pageDir);
+                Path stylesheetFile = stylesheetPath != null ? root.resolve(stylesheetPath) : null;
+
+                if (stylesheetFile == null || !Files.isRegularFile(stylesheetFile)) {
+                    link.appendReplacement(result, Matcher.quoteReplacement(tag));
+                    continue;
+                }
+
+                CssStylesheet stylesheet = stylesheets.get(stylesheetPath);
+                if (stylesheet == null) {
+                    stylesheet = CssStylesheet.parse(Files.readString(stylesheetFile));
+                    stylesheets.put(stylesheetPath, stylesheet);
+                }
+
+                // Fonts are only downloaded once a kept rule uses them, so their declarations cost a few bytes
+                String critical = stylesheet.filter(usage::matchesAny, CriticalCssStage::isFontFace).toCss(true);
+                critical = rebaseUrls(critical, BuildFiles.parentPath(stylesheetPath), pageDir);
+                int criticalBytes = critical.getBytes(StandardCharsets.UTF_8).length;
+
+                if (critical.isEmpty() || inlinedBytes + criticalBytes > maxInlineBytes) {
+                    link.appendReplacement(result, Matcher.quoteReplacement(tag));
+                    continue;
+                }
+
+                inlinedBytes += criticalBytes;
+                deferredBytes += Files.size(stylesheetFile);
+                link.appendReplacement(result, Matcher.quoteReplacement(inlineAndDefer(tag, critical)));
+            }
+            link.appendTail(result);
+
+            if (inlinedBytes > 0) {
+                Files.writeString(page, result.toString());
+
+                // Inlined bytes are added to the page and deferred ones still load, so nothing is "saved"
+                Map<String, Object> report = new HashMap<>();
+                report.put("inlinedBytes", inlinedBytes);
+                report.put("deferredBytes", deferredBytes);
+                pages.put(pagePath, report);
+            }
+        }
+
+        if (!pages.isEmpty()) {
+            context.addStageReport(getName(), pages);
+        }
+    }
+
+    private static String stylesheetPath(String linkTag, String pageDir) {
+        String rel = HtmlAttributes.value(linkTag, REL_ATTRIBUTE);
+        String media = HtmlAttributes.value(linkTag, MEDIA_ATTRIBUTE);
+        String href = HtmlAttributes.value(linkTag, HREF_ATTRIBUTE);
+
+        if (rel == null || href == null || !rel.toLowerCase(Locale.ROOT).matches("(.*\\s)?stylesheet(\\s.*)?")) {
+            return null;
+        }
+        if (media != null && !media.equalsIgnoreCase("all") && !media.equalsIgnoreCase("screen")) {
+            return null;
+        }
+        return BuildFiles.resolveReference(pageDir, href);
+    }
+
+    private static boolean isFontFace(String atRule) {
+        return atRule.toLowerCase(Locale.ROOT).startsWith("@font-face");
+    }
+
+    private static String rebaseUrls(String css, String stylesheetDir, String pageDir) {
+        if (stylesheetDir.equals(pageDir)) {
+            return css;
+        }
+
+        Matcher url = CSS_URL.matcher(css);
+        StringBuilder result = new StringBuilder(css.length());
+        while (url.find()) {
+            String value = url.group(2).trim();
+            // Root-relative URLs mean the same from any page; data and absolute URLs are not build files
+            String resolved = value.startsWith("/") ? null : BuildFiles.resolveReference(stylesheetDir, value);
+            if (resolved == null) {
+                url.appendReplacement(result, Matcher.quoteReplacement(url.group()));
+                continue;
+            }
+
+            int suffixStart = BuildFiles.indexOfQueryOrFragment(value);
+            String suffix = suffixStart >= 0 ? value.substring(suffixStart) : "";
+            String quote = url.group(1);
+            url.appendReplacement(result, Matcher.quoteReplacement(
+                "url(" + quote + BuildFiles.relativeUrl(pageDir, resolved) + suffix + quote + ")"));
+        }
+        url.appendTail(result);
+        return result.toString();
+    }
+
+    private static String inlineAndDefer(String linkTag, String critical) {
+        // The full stylesheet arrives as a preload and is applied once loaded
+        String href = HtmlAttributes.value(linkTag, HREF_ATTRIBUTE);
+        String preload = "<link rel=\"preload\" href=\"" + href + "\" as=\"style\""
+            + " onload=\"this.onload=null;this.rel='stylesheet'\">";
+        return "<style>" + critical + "</style>" + preload + "<noscript>" + linkTag + "</noscript>";
+    }
+}
@@ -0,0 +1,265 @@
+package com.sitebuilder.code.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Minimal CSS rule parser used by the CSS build stages.
+ * Splits a stylesheet into style rules, grouping at-rules such as
+ * {@code @media} with their nested rules, and opaque at-rules. Declarations
+ * are kept as raw text; only selectors are ever inspected.
+ */
+final class CssStylesheet {
+
+    private final List<Rule> rules;
+
+    private CssStylesheet(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Parses a stylesheet.
+     *
+     * @param css the stylesheet text
+     * @return the parsed stylesheet
+     */
+    static CssStylesheet parse(String css) {
+        Parser parser = new Parser(css);
+        return new CssStylesheet(parser.parseRules(false));
+    }
+
+    List<Rule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Keeps only the style rules whose selector list passes the filter.
+     * Grouping at-rules are kept when any nested rule is kept; other
+     * at-rules are kept or dropped as a whole by {@code atRuleFilter}.
+     *
+     * @param selectorFilter decides whether a selector list is used
+     * @param atRuleFilter decides from its prelude whether an opaque at-rule such as {@code @font-face} is kept
+     * @return a new stylesheet with the remaining rules
+     */
+    CssStylesheet filter(Predicate<String> selectorFilter, Predicate<String> atRuleFilter) {
+        return new CssStylesheet(filter(rules, selectorFilter, atRuleFilter));
+    }
+
+    /**
+     * Serializes the stylesheet.
+     *
+     * @param compact whether to drop comments in front of rules
+     * @return the stylesheet text
+     */
+    String toCss(boolean compact) {
+        StringBuilder css = new StringBuilder();
+        for (Rule rule : rules) {
+            rule.appendTo(css, compact);
+        }
+        return css.toString();
+    }
+
+    private static List<Rule> filter(List<Rule> rules, Predicate<String> selectorFilter, Predicate<String> atRuleFilter) {
+        List<Rule> kept = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (rule.children != null) {
+                List<Rule> children = filter(rule.children, selectorFilter, atRuleFilter);
+                if (!children.isEmpty()) {
+                    kept.add(new Rule(rule.prelude, null, children));
+                }
+            } else if (rule.isStyleRule()) {
+                if (selectorFilter.test(rule.getSelectorText())) {
+                    kept.add(rule);
+                }
+            } else if (atRuleFilter.test(rule.getSelectorText())) {
+                kept.add(rule);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * A style rule, grouping at-rule or opaque at-rule.
+     */
+    static final class Rule {
+
+        private final String prelude;
+        private final String body;
+        private final List<Rule> children;
+
+        private Rule(String prelude, String body, List<Rule> children) {
+            this.prelude = prelude;
+            this.body = body;
+            this.children = children;
+        }
+
+        boolean isStyleRule() {
+            return children == null && body != null && !getSelectorText().startsWith("@");
+        }
+
+        /**
+         * Gets the selector list or at-rule prelude without comments.
+         *
+         * @return the trimmed prelude
+         */
+        String getSelectorText() {
+            return stripComments(prelude).trim();
+        }
+
+        private void appendTo(StringBuilder css, boolean compact) {
+            css.append(compact ? getSelectorText() : prelude);
+            if (children != null) {
+                css.append('{');
+                for (Rule child : children) {
+                    child.appendTo(css, compact);
+                }
+                css.append('}');
+            } else if (body != null) {
+                css.append('{').append(body).append('}');
+            } else {
+                css.append(';');
+            }
+        }
+    }
+
+    private static String stripComments(String text) {
+        int start = text.indexOf("/*");
+        if (start < 0) {
+            return text;
+        }
+
+        StringBuilder stripped = new StringBuilder(text.length());
+        int position = 0;
+        while (start >= 0) {
+            stripped.append(text, position, start);
+            int end = text.indexOf("*/", start + 2);
+            position = end < 0 ? text.length() : end + 2;
+            start = text.indexOf("/*", position);
+        }
+        stripped.append(text, position, text.length());
+        return stripped.toString();
+    }
+
+    private static final class Parser {
+
+        private final String css;
+        private int position;
+
+        Parser(String css) {
+            this.css = css;
+        }
+
+        List<Rule> parseRules(boolean nested) {
+            List<Rule> rules = new ArrayList<>();
+
+            while (position < css.length()) {
+                int preludeStart = position;
+                char terminator = scanUntil("{;}");
+                String prelude = css.substring(preludeStart, position);
+
+                if (terminator == 0) {
+                    break; // Trailing whitespace or comments
+                }
+                position++;
+
+                if (terminator == '}') {
+                    if (nested) {
+                        return rules;
+                    }
+                    continue; // Stray closing brace at the top level
+                }
+
+                if (terminator == ';') {
+                    if (!stripComments(prelude).isBlank()) {
+                        rules.add(new Rule(prelude, null, null));
+                    }
+                    continue;
+                }
+
+                if (isGroupingAtRule(prelude)) {
+                    rules.add(new Rule(prelude, null, parseRules(true)));
+                } else {
+                    int bodyStart = position;
+                    skipBlock();
+                    rules.add(new Rule(prelude, css.substring(bodyStart, Math.max(bodyStart, position - 1)), null));
+                }
+            }
+
+            return rules;
+        }
+
+        /**
+         * Advances to the next unquoted, uncommented terminator at nesting depth zero.
+         */
+        private char scanUntil(String terminators) {
+            int parentheses = 0;
+            while (position < css.length()) {
+                char c = css.charAt(position);
+                if (c == '/' && css.startsWith("/*", position)) {
+                    skipComment();
+                    continue;
+                }
+                if (c == '"' || c == '\'') {
+                    skipString(c);
+                    continue;
+                }
+                if (c == '\\') {
+                    position += 2;
+                    continue;
+                }
+                if (c == '(') {
+                    parentheses++;
+                } else if (c == ')' && parentheses > 0) {
+                    parentheses--;
+                } else if (parentheses == 0 && terminators.indexOf(c) >= 0) {
+                    return c;
+                }
+                position++;
+            }
+            position = css.length();
+            return 0;
+        }
+
+        private void skipBlock() {
+            int depth = 1;
+            while (position < css.length() && depth > 0) {
+                char terminator = scanUntil("{}");
+                if (terminator == 0) {
+                    return;
+                }
+                depth += terminator == '{' ? 1 : -1;
+                position++;
+            }
+        }
+
+        private void skipComment() {
+            int end = css.indexOf("*/", position + 2);
+            position = end < 0 ? css.length() : end + 2;
+        }
+
+        private void skipString(char quote) {
+            position++;
+            while (position < css.length()) {
+                char c = css.charAt(position);
+                if (c == '\\') {
+                    position += 2;
+                    continue;
+                }
+                position++;
+                if (c == quote || c == '\n') {
+                    return;
+                }
+            }
+        }
+
+        private static boolean isGroupingAtRule(String prelude) {
+            String name = stripComments(prelude).trim().toLowerCase(Locale.ROOT);
+            return name.startsWith("@media") || name.startsWith("@supports")
+                || name.startsWith("@container") || name.startsWith("@layer")
+                || name.startsWith("@document");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sitebuilder.code.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the two kinds of work in a build or a site generation.
+ * Blocking file I/O runs on the I/O executor: one virtual thread per task when
+ * {@code spring.threads.virtual.enabled} is set and the JVM supports virtual
+ * threads, a bounded platform pool otherwise. CPU-bound work such as template
+ * rendering, minifying and image encoding always runs on a fixed pool sized to
+ * the processor count, so any number of I/O tasks can wait on it without
+ * oversubscribing the CPU.
+ * <p>
+ * The site-builder and site-generator are separate builds with no shared
+ * module, so each has a copy of this class. The copies are identical except
+ * for their package and the two constants below; change both together.
+ */
+@Component
+public class ExecutionPools {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionPools.class);
+
+    // The only lines that differ between the two copies of this class
+    private static final String PROPERTY_PREFIX = "site.builder.execution.";
+    private static final String THREAD_PREFIX = "build";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${" + PROPERTY_PREFIX + "io-threads:32}")
+    private int ioThreads;
+
+    @Value("${" + PROPERTY_PREFIX + "cpu-threads:0}")
+    private int cpuThreads;
+
+    private ExecutorService ioExecutor;
+    private ExecutorService cpuExecutor;
+    private boolean usingVirtualThreads;
+
+    @PostConstruct
+    public void start() {
+        ioExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        usingVirtualThreads = ioExecutor != null;
+        if (ioExecutor == null) {
+            ioExecutor = Executors.newFixedThreadPool(Math.max(1, ioThreads), namedThreads(THREAD_PREFIX + "-io"));
+        }
+
+        int cpuPoolSize = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
+        cpuExecutor = Executors.newFixedThreadPool(cpuPoolSize, namedThreads(THREAD_PREFIX + "-cpu"));
+        log.info("Execution mode: {} I/O threads, {} CPU threads",
+            usingVirtualThreads ? "virtual" : "platform", cpuPoolSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ioExecutor.shutdownNow();
+        cpuExecutor.shutdownNow();
+    }
+
+    public ExecutorService getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public ExecutorService getCpuExecutor() {
+        return cpuExecutor;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return usingVirtualThreads;
+    }
+
+    /**
+     * Runs a CPU-bound task on the CPU pool and waits for its result.
+     *
+     * @param task the task to run
+     * @return the task's result
+     * @throws IOException if the task fails or the caller is interrupted while waiting
+     */
+    public <T> T callOnCpu(Callable<T> task) throws IOException {
+        return await(cpuExecutor.submit(task), List.of());
+    }
+
+    /**
+     * Runs tasks on an executor and waits for all of them. If one fails or the
+     * caller is interrupted, the remaining tasks are cancelled.
+     *
+     * @param executor the executor to run on
+     * @param tasks the tasks to run
+     * @return the results in task order
+     * @throws IOException if a task fails or the caller is interrupted while waiting
+     */
+    public <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(await(future, futures));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future, List<? extends Future<?>> siblings) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            siblings.forEach(sibling -> sibling.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + THREAD_PREFIX + " tasks");
+        } catch (ExecutionException e) {
+            siblings.forEach(sibling -> sibling.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively so the service still compiles and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads requested but not supported by Java {}; using platform threads",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
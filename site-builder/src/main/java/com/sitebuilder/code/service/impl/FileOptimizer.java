@@ -0,0 +1,213 @@
+package com.sitebuilder.code.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Copies a single file into a build and minifies it based on its type.
+ * Files at or above the large-file threshold go through the
+ * {@link StreamingMinifier} instead of being read into memory. Reading and
+ * writing happen on the calling thread; minifying runs on the CPU pool.
+ * When a {@link RemoteBuildCache} is configured, in-memory results of files of
+ * at least {@code min-text-bytes} are looked up by content hash first and stored
+ * there after a miss. Every call reports what it did to the file, for the
+ * build report.
+ */
+@Component
+public class FileOptimizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACE_BETWEEN_TAGS = Pattern.compile(">\\s+<");
+    private static final Pattern SEMICOLON_BEFORE_BRACE = Pattern.compile(";\\s*}");
+    private static final Pattern SPACE_AROUND_OPEN_BRACE = Pattern.compile("\\s*\\{\\s*");
+    private static final Pattern SPACE_AROUND_CLOSE_BRACE = Pattern.compile("\\s*}\\s*");
+
+    // Part of every cache key; bump whenever minified output changes for the same input
+    private static final String MINIFIER_VERSION = "1";
+
+    /**
+     * How the remote build cache took part in optimizing a file.
+     */
+    public enum CacheOutcome {
+        NOT_CACHED, HIT, MISS
+    }
+
+    /**
+     * What optimizing a single file did.
+     */
+    public static final class Result {
+
+        private final CacheOutcome cacheOutcome;
+        private final String optimizer;
+        private final long inputBytes;
+        private final long outputBytes;
+        private final long nanos;
+
+        Result(CacheOutcome cacheOutcome, String optimizer, long inputBytes, long outputBytes, long nanos) {
+            this.cacheOutcome = cacheOutcome;
+            this.optimizer = optimizer;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.nanos = nanos;
+        }
+
+        public CacheOutcome getCacheOutcome() {
+            return cacheOutcome;
+        }
+
+        /**
+         * Gets the optimizer that produced the file.
+         *
+         * @return {@code copy}, {@code minify-<syntax>}, {@code stream-minify-<syntax>} or {@code remote-cache-<syntax>}
+         */
+        public String getOptimizer() {
+            return optimizer;
+        }
+
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        /**
+         * Gets the wall time spent on the file, including reading, writing and
+         * waiting for the CPU pool.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    private final StreamingMinifier streamingMinifier;
+    private final ExecutionPools executionPools;
+    private final RemoteBuildCache remoteBuildCache;
+
+    @Value("${site.builder.optimize.large-file-threshold:8388608}")
+    private long largeFileThreshold;
+
+    @Value("${site.builder.remote-cache.min-text-bytes:65536}")
+    private long minCachedTextBytes;
+
+    public FileOptimizer(StreamingMinifier streamingMinifier, ExecutionPools executionPools,
+                         RemoteBuildCache remoteBuildCache) {
+        this.streamingMinifier = streamingMinifier;
+        this.executionPools = executionPools;
+        this.remoteBuildCache = remoteBuildCache;
+    }
+
+    /**
+     * Writes an optimized copy of a file.
+     *
+     * @param source the file to optimize
+     * @param target the file to write
+     * @return how the file was optimized, its sizes and the time taken
+     * @throws IOException if the file cannot be read or written
+     */
+    public Result optimize(Path source, Path target) throws IOException {
+        long start = System.nanoTime();
+        MinifySyntax syntax = MinifySyntax.forFileName(source.getFileName().toString());
+        long size = Files.size(source);
+
+        if (syntax == null) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            return result(CacheOutcome.NOT_CACHED, "copy", size, size, start);
+        }
+
+        String syntaxName = syntax.name().toLowerCase(Locale.ROOT);
+        if (size >= largeFileThreshold) {
+            executionPools.callOnCpu(() -> {
+                streamingMinifier.minify(source, target, syntax);
+                return null;
+            });
+            return result(CacheOutcome.NOT_CACHED, "stream-minify-" + syntaxName, size, Files.size(target), start);
+        } else if (remoteBuildCache.isEnabled() && size >= minCachedTextBytes) {
+            // Smaller files minify faster than a cache round trip
+            CacheOutcome outcome = optimizeThroughCache(source, target, syntax);
+            String optimizer = (outcome == CacheOutcome.HIT ? "remote-cache-" : "minify-") + syntaxName;
+            return result(outcome, optimizer, size, Files.size(target), start);
+        } else {
+            String content = Files.readString(source);
+            byte[] minified = executionPools.callOnCpu(() -> minify(content, syntax)).getBytes(StandardCharsets.UTF_8);
+            Files.write(target, minified);
+            return result(CacheOutcome.NOT_CACHED, "minify-" + syntaxName, size, minified.length, start);
+        }
+    }
+
+    private static Result result(CacheOutcome outcome, String optimizer, long inputBytes, long outputBytes, long start) {
+        return new Result(outcome, optimizer, inputBytes, outputBytes, System.nanoTime() - start);
+    }
+
+    private CacheOutcome optimizeThroughCache(Path source, Path target, MinifySyntax syntax) throws IOException {
+        byte[] raw = Files.readAllBytes(source);
+        String key = BuildFiles.sha256Hex((MINIFIER_VERSION + "|" + syntax + "|" + BuildFiles.sha256Hex(raw))
+            .getBytes(StandardCharsets.UTF_8));
+
+        byte[] cached = remoteBuildCache.get(key);
+        if (cached != null) {
+            Files.write(target, cached);
+            return CacheOutcome.HIT;
+        }
+
+        // Decoded strictly, so malformed input fails as it does with Files.readString
+        String content = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(raw)).toString();
+        byte[] minified = executionPools.callOnCpu(() -> minify(content, syntax)).getBytes(StandardCharsets.UTF_8);
+        Files.write(target, minified);
+        remoteBuildCache.put(key, minified);
+        return CacheOutcome.MISS;
+    }
+
+    /**
+     * Minifies content held in memory.
+     *
+     * @param content the content to minify
+     * @param syntax the syntax of the content
+     * @return the minified content
+     */
+    public static String minify(String content, MinifySyntax syntax) {
+        switch (syntax) {
+            case HTML:
+                return minifyHtml(content);
+            case CSS:
+                return minifyCss(content);
+            default:
+                return minifyJs(content);
+        }
+    }
+
+    public static String minifyHtml(String content) {
+        // Basic HTML optimization
+        content = WHITESPACE.matcher(content).replaceAll(" "); // Collapse whitespace
+        content = SPACE_BETWEEN_TAGS.matcher(content).replaceAll("><"); // Remove whitespace between tags
+        return content;
+    }
+
+    public static String minifyCss(String content) {
+        // Basic CSS optimization
+        content = WHITESPACE.matcher(content).replaceAll(" "); // Collapse whitespace
+        content = SEMICOLON_BEFORE_BRACE.matcher(content).replaceAll("}"); // Remove semicolon before closing brace
+        content = SPACE_AROUND_OPEN_BRACE.matcher(content).replaceAll("{"); // Remove spaces around opening brace
+        content = SPACE_AROUND_CLOSE_BRACE.matcher(content).replaceAll("}"); // Remove spaces around closing brace
+        return content;
+    }
+
+    public static String minifyJs(String content) {
+        // Basic JS optimization
+        content = WHITESPACE.matcher(content).replaceAll(" "); // Collapse whitespace
+        content = SEMICOLON_BEFORE_BRACE.matcher(content).replaceAll("}"); // Remove semicolon before closing brace
+        return content;
+    }
+}
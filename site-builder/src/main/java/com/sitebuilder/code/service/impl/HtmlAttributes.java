@@ -0,0 +1,44 @@
+package com.sitebuilder.code.service.impl;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads attributes from single HTML tags found by the build stages.
+ */
+final class HtmlAttributes {
+
+    private HtmlAttributes() {
+    }
+
+    /**
+     * Compiles a pattern for a double-quoted, single-quoted or unquoted attribute.
+     *
+     * @param name the attribute name
+     * @return a case-insensitive pattern for use with {@link #value}
+     */
+    static Pattern pattern(String name) {
+        return Pattern.compile("\\s" + name + "\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))",
+            Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Gets the value of an attribute in a tag.
+     *
+     * @param tag the complete tag text
+     * @param attributePattern a pattern created by {@link #pattern}
+     * @return the attribute value, or null if the tag does not have the attribute
+     */
+    static String value(String tag, Pattern attributePattern) {
+        Matcher matcher = attributePattern.matcher(tag);
+        if (!matcher.find()) {
+            return null;
+        }
+        for (int group = 1; group <= 3; group++) {
+            if (matcher.group(group) != null) {
+                return matcher.group(group);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,745 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Re-encodes local PNG and JPEG images without metadata, writes smaller width
+ * variants next to them and adds {@code srcset}, {@code width} and {@code height}
+ * to the {@code <img>} tags that use them.
+ * Images are encoded on the shared CPU pool, and encoded
+ * results are cached by content hash so unchanged images are not re-encoded
+ * on the next build. With a {@link RemoteBuildCache}, entries missing locally
+ * are fetched from it and newly encoded ones are pushed to it as zip archives.
+ * After each build the local cache is pruned to its size and age limits,
+ * least recently used entries first.
+ */
+@Component
+@Order(10)
+public class ImageOptimizationStage implements BuildStage {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageOptimizationStage.class);
+
+    private static final Pattern IMG_TAG = Pattern.compile("<img\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SRC_ATTRIBUTE = HtmlAttributes.pattern("src");
+    private static final Pattern SRCSET_ATTRIBUTE = HtmlAttributes.pattern("srcset");
+    private static final Pattern WIDTH_ATTRIBUTE = HtmlAttributes.pattern("width");
+    private static final Pattern HEIGHT_ATTRIBUTE = HtmlAttributes.pattern("height");
+
+    private static final String CACHE_DIR = ".cache";
+    private static final String MANIFEST = "image.properties";
+    private static final String ORIGINAL = "original";
+
+    @Value("${site.builder.build.path:build}")
+    private String buildPath;
+
+    @Value("${site.builder.images.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.images.quality:0.82}")
+    private float quality;
+
+    @Value("${site.builder.images.widths:480,960,1600}")
+    private int[] widths;
+
+    @Value("${site.builder.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${site.builder.images.cache-max-bytes:1073741824}")
+    private long cacheMaxBytes;
+
+    @Value("${site.builder.images.cache-max-age-days:30}")
+    private int cacheMaxAgeDays;
+
+    // Builds read and write entries under the read lock; pruning takes the write lock
+    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+    // Size and last use of each local entry, read from disk by the first prune and kept current by builds after it
+    private final Map<String, CacheEntry> cacheIndex = new ConcurrentHashMap<>();
+    private final AtomicLong cacheBytes = new AtomicLong();
+    private volatile boolean cacheIndexed;
+
+    private final ExecutionPools executionPools;
+    private final RemoteBuildCache remoteBuildCache;
+
+    public ImageOptimizationStage(ExecutionPools executionPools, RemoteBuildCache remoteBuildCache) {
+        this.executionPools = executionPools;
+        this.remoteBuildCache = remoteBuildCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        widths = Arrays.stream(widths).filter(width -> width > 0).distinct().sorted().toArray();
+    }
+
+    @Override
+    public String getName() {
+        return "images";
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        List<Path> images = BuildFiles.list(root, ".png", ".jpg", ".jpeg");
+        if (images.isEmpty()) {
+            return;
+        }
+
+        List<Callable<OptimizedImage>> tasks = new ArrayList<>();
+        for (Path image : images) {
+            tasks.add(() -> optimize(root, image));
+        }
+
+        Map<String, OptimizedImage> optimized = new HashMap<>();
+        // Cache reads and writes run on the I/O executor; encoding is handed to the CPU pool
+        for (OptimizedImage image : executionPools.invokeAll(executionPools.getIoExecutor(), tasks)) {
+            if (image != null) {
+                optimized.put(image.path, image);
+            }
+        }
+        int prunedEntries = pruneCache();
+
+        if (optimized.isEmpty()) {
+            return;
+        }
+
+        int rewrittenPages = 0;
+        for (Path page : BuildFiles.list(root, ".html")) {
+            if (rewriteImageTags(root, page, optimized)) {
+                rewrittenPages++;
+            }
+        }
+
+        long originalBytes = 0;
+        long optimizedBytes = 0;
+        int variants = 0;
+        int cacheHits = 0;
+        int remoteCacheHits = 0;
+        for (OptimizedImage image : optimized.values()) {
+            originalBytes += image.originalBytes;
+            optimizedBytes += image.optimizedBytes;
+            variants += image.variantWidths.length;
+            cacheHits += image.cached ? 1 : 0;
+            remoteCacheHits += image.fetched ? 1 : 0;
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("images", optimized.size());
+        report.put("variants", variants);
+        report.put("cacheHits", cacheHits);
+        report.put("remoteCacheHits", remoteCacheHits);
+        report.put("cacheEntriesPruned", prunedEntries);
+        report.put("originalBytes", originalBytes);
+        report.put("optimizedBytes", optimizedBytes);
+        report.put("bytesSaved", originalBytes - optimizedBytes);
+        report.put("pagesRewritten", rewrittenPages);
+        context.addStageReport(getName(), report);
+    }
+
+    /**
+     * Replaces one image in the build with its optimized version and writes its variants.
+     *
+     * @return the optimized image, or null if the image cannot be decoded
+     */
+    private OptimizedImage optimize(Path root, Path image) throws IOException {
+        cacheLock.readLock().lock();
+        try {
+            return optimizeLocked(root, image);
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    private OptimizedImage optimizeLocked(Path root, Path image) throws IOException {
+        byte[] source = Files.readAllBytes(image);
+        String extension = extension(image);
+        String settings = quality + "|" + Arrays.toString(widths) + "|" + maxPixels;
+        String cacheKey = BuildFiles.sha256Hex((BuildFiles.sha256Hex(source) + "|" + settings)
+            .getBytes(StandardCharsets.UTF_8));
+
+        Path cacheEntry = Paths.get(buildPath, CACHE_DIR, "images", cacheKey);
+        boolean cached = isComplete(cacheEntry);
+        boolean fetched = false;
+        if (!cached) {
+            // Entries appear by atomic move, so one that is there but incomplete was damaged: rebuild it
+            if (Files.exists(cacheEntry) && !isComplete(cacheEntry)) {
+                deleteRecursively(cacheEntry);
+                forget(cacheKey);
+            }
+            String remoteKey = BuildFiles.sha256Hex(("images|" + cacheKey).getBytes(StandardCharsets.UTF_8));
+            fetched = fetchIntoCache(remoteKey, cacheEntry);
+            if (!fetched) {
+                executionPools.callOnCpu(() -> {
+                    encodeIntoCache(source, extension, cacheEntry);
+                    return null;
+                });
+                pushFromCache(remoteKey, cacheEntry);
+            }
+        }
+        recordUse(cacheKey, cacheEntry);
+
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(cacheEntry.resolve(MANIFEST))) {
+            manifest.load(in);
+        }
+        if (!Boolean.parseBoolean(manifest.getProperty("optimized"))) {
+            return null;
+        }
+
+        Path optimizedFile = cacheEntry.resolve(ORIGINAL);
+        Files.copy(optimizedFile, image, StandardCopyOption.REPLACE_EXISTING);
+
+        String variantList = manifest.getProperty("variants", "");
+        int[] variantWidths = variantList.isEmpty() ? new int[0]
+            : Arrays.stream(variantList.split(",")).mapToInt(Integer::parseInt).toArray();
+        for (int width : variantWidths) {
+            Files.copy(cacheEntry.resolve(String.valueOf(width)), image.resolveSibling(variantName(image, width)),
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return new OptimizedImage(BuildFiles.relativePath(root, image),
+            Integer.parseInt(manifest.getProperty("width")), Integer.parseInt(manifest.getProperty("height")),
+            variantWidths, source.length, Files.size(optimizedFile), cached, fetched);
+    }
+
+    /**
+     * Unpacks an entry from the remote cache into the local one. The entry only
+     * becomes visible once its manifest parses and every file it names is
+     * present; an archive that does not pass is a miss and the image is encoded.
+     *
+     * @return true if the entry was found and is now in the local cache
+     */
+    private boolean fetchIntoCache(String remoteKey, Path cacheEntry) throws IOException {
+        if (!remoteBuildCache.isEnabled()) {
+            return false;
+        }
+        byte[] archive = remoteBuildCache.get(remoteKey);
+        if (archive == null) {
+            return false;
+        }
+
+        Path tempEntry = Files.createTempDirectory(Files.createDirectories(cacheEntry.getParent()), "fetching-");
+        try {
+            if (!unpack(archive, tempEntry) || !isComplete(tempEntry)) {
+                log.warn("Ignoring malformed remote cache entry {}", remoteKey);
+                return false;
+            }
+            return moveIntoCache(tempEntry, cacheEntry);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable remote cache entry {}: {}", remoteKey, e.getMessage());
+            return false;
+        } finally {
+            deleteRecursively(tempEntry);
+        }
+    }
+
+    private static boolean unpack(byte[] archive, Path tempEntry) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                // Only the flat files this stage writes; a repeated name is not an archive it wrote either
+                String name = entry.getName();
+                boolean known = name.equals(MANIFEST) || name.equals(ORIGINAL) || name.matches("[1-9][0-9]{0,5}");
+                if (!known || Files.exists(tempEntry.resolve(name))) {
+                    return false;
+                }
+                Files.copy(in, tempEntry.resolve(name));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a cache entry is complete: its manifest parses and, for an
+     * optimized image, the optimized original and every listed variant exist.
+     */
+    private static boolean isComplete(Path entry) {
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(entry.resolve(MANIFEST))) {
+            manifest.load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+        if (!Boolean.parseBoolean(manifest.getProperty("optimized"))) {
+            return "false".equals(manifest.getProperty("optimized"));
+        }
+
+        try {
+            if (Integer.parseInt(manifest.getProperty("width", "")) <= 0
+                    || Integer.parseInt(manifest.getProperty("height", "")) <= 0
+                    || !Files.isRegularFile(entry.resolve(ORIGINAL))) {
+                return false;
+            }
+            String variantList = manifest.getProperty("variants", "");
+            for (String width : variantList.isEmpty() ? new String[0] : variantList.split(",")) {
+                if (Integer.parseInt(width) <= 0 || !Files.isRegularFile(entry.resolve(width))) {
+                    return false;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Publishes a fully written entry under its cache key.
+     *
+     * @return true if the key now holds a complete entry, this one or one another build moved first
+     */
+    private static boolean moveIntoCache(Path tempEntry, Path cacheEntry) {
+        try {
+            Files.move(tempEntry, cacheEntry, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            // Losing the race to a concurrent build leaves its complete entry; anything else is a failure
+            if (isComplete(cacheEntry)) {
+                log.debug("Image cache entry {} was created concurrently", cacheEntry.getFileName());
+                return true;
+            }
+            log.warn("Failed to store image cache entry {}: {}", cacheEntry.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records that a complete entry was just used: touches its directory, whose
+     * modification time is its last use across restarts, and adds it to the
+     * index if it is new there.
+     */
+    private void recordUse(String cacheKey, Path cacheEntry) throws IOException {
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(cacheEntry, FileTime.fromMillis(now));
+        if (!cacheIndexed) {
+            // The first prune reads every entry from disk, this one included
+            return;
+        }
+
+        CacheEntry indexed = cacheIndex.get(cacheKey);
+        if (indexed != null) {
+            indexed.lastUsed = now;
+            return;
+        }
+        CacheEntry added = new CacheEntry(directorySize(cacheEntry), now);
+        if (cacheIndex.putIfAbsent(cacheKey, added) == null) {
+            cacheBytes.addAndGet(added.bytes);
+        } else {
+            cacheIndex.get(cacheKey).lastUsed = now;
+        }
+    }
+
+    private void forget(String cacheKey) {
+        CacheEntry removed = cacheIndex.remove(cacheKey);
+        if (removed != null) {
+            cacheBytes.addAndGet(-removed.bytes);
+        }
+    }
+
+    /**
+     * Removes entries unused for longer than the maximum age, then the least
+     * recently used ones until the cache fits in its size limit. Skipped while
+     * another build is using the cache; the next build prunes instead.
+     * <p>
+     * Only the first prune walks the cache directory; after it, sizes and last
+     * uses come from the index builds keep current, so a build that leaves the
+     * cache within its limits costs no file system access here.
+     *
+     * @return the number of entries removed
+     */
+    private int pruneCache() throws IOException {
+        Path cacheRoot = Paths.get(buildPath, CACHE_DIR, "images");
+        if (!Files.isDirectory(cacheRoot) || !cacheLock.writeLock().tryLock()) {
+            return 0;
+        }
+
+        try {
+            int removed = cacheIndexed ? 0 : indexCache(cacheRoot);
+            long expiredBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cacheMaxAgeDays);
+            boolean overBudget = cacheMaxBytes > 0 && cacheBytes.get() > cacheMaxBytes;
+            boolean anyExpired = cacheMaxAgeDays > 0
+                && cacheIndex.values().stream().anyMatch(entry -> entry.lastUsed < expiredBefore);
+            if (!overBudget && !anyExpired) {
+                return removed;
+            }
+
+            // Least recently used first
+            List<Map.Entry<String, CacheEntry>> entries = new ArrayList<>(cacheIndex.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (Map.Entry<String, CacheEntry> entry : entries) {
+                boolean expired = cacheMaxAgeDays > 0 && entry.getValue().lastUsed < expiredBefore;
+                overBudget = cacheMaxBytes > 0 && cacheBytes.get() > cacheMaxBytes;
+                if (!expired && !overBudget) {
+                    break;
+                }
+                deleteRecursively(cacheRoot.resolve(entry.getKey()));
+                forget(entry.getKey());
+                removed++;
+            }
+            return removed;
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the size and last use of every entry on disk into the index,
+     * deleting the temp directories of crashed builds on the way.
+     *
+     * @return the number of leftover directories removed
+     */
+    private int indexCache(Path cacheRoot) throws IOException {
+        cacheIndex.clear();
+        cacheBytes.set(0);
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheRoot)) {
+            for (Path entry : stream) {
+                String cacheKey = entry.getFileName().toString();
+                // No build is running, so temp directories are leftovers of a crash
+                if (!cacheKey.matches("[0-9a-f]{64}")) {
+                    deleteRecursively(entry);
+                    removed++;
+                    continue;
+                }
+                CacheEntry indexed = new CacheEntry(directorySize(entry), Files.getLastModifiedTime(entry).toMillis());
+                cacheIndex.put(cacheKey, indexed);
+                cacheBytes.addAndGet(indexed.bytes);
+            }
+        }
+        cacheIndexed = true;
+        return removed;
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            long bytes = 0;
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                bytes += Files.size(file);
+            }
+            return bytes;
+        }
+    }
+
+    private void pushFromCache(String remoteKey, Path cacheEntry) throws IOException {
+        if (!remoteBuildCache.isEnabled()) {
+            return;
+        }
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(archive);
+             Stream<Path> files = Files.list(cacheEntry)) {
+            // Encoded images are already compressed
+            out.setLevel(0);
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                out.putNextEntry(new ZipEntry(file.getFileName().toString()));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        remoteBuildCache.put(remoteKey, archive.toByteArray());
+    }
+
+    private void encodeIntoCache(byte[] source, String extension, Path cacheEntry) throws IOException {
+        Path tempEntry = Files.createTempDirectory(Files.createDirectories(cacheEntry.getParent()), "encoding-");
+        try {
+            Properties manifest = new Properties();
+            BufferedImage decoded = decode(source);
+
+            if (decoded == null) {
+                manifest.setProperty("optimized", "false");
+            } else {
+                boolean jpeg = !extension.equals("png");
+
+                // Always the re-encode, even when larger: the source bytes may carry EXIF and GPS metadata
+                Files.write(tempEntry.resolve(ORIGINAL), encode(decoded, jpeg));
+
+                List<String> variants = new ArrayList<>();
+                for (int width : widths) {
+                    if (width >= decoded.getWidth()) {
+                        break;
+                    }
+                    Files.write(tempEntry.resolve(String.valueOf(width)), encode(scale(decoded, width, jpeg), jpeg));
+                    variants.add(String.valueOf(width));
+                }
+
+                manifest.setProperty("optimized", "true");
+                manifest.setProperty("width", String.valueOf(decoded.getWidth()));
+                manifest.setProperty("height", String.valueOf(decoded.getHeight()));
+                manifest.setProperty("variants", String.join(",", variants));
+            }
+
+            try (OutputStream out = Files.newOutputStream(tempEntry.resolve(MANIFEST))) {
+                manifest.store(out, null);
+            }
+
+            // Concurrent builds may encode the same image; the first complete entry wins
+            if (!moveIntoCache(tempEntry, cacheEntry)) {
+                throw new IOException("Image cache entry " + cacheEntry.getFileName() + " could not be stored");
+            }
+        } finally {
+            deleteRecursively(tempEntry);
+        }
+    }
+
+    private BufferedImage decode(byte[] source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Check the header before decoding so huge images cannot exhaust the heap
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("Skipping image that cannot be decoded: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] encode(BufferedImage image, boolean jpeg) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!jpeg) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(Math.max(0f, Math.min(1f, quality)));
+            writer.setOutput(imageOut);
+            // Writing without metadata drops EXIF, ICC profiles and comments
+            writer.write(null, new IIOImage(withoutAlpha(image), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage scale(BufferedImage image, int targetWidth, boolean jpeg) {
+        int targetHeight = Math.max(1, Math.round(image.getHeight() * (float) targetWidth / image.getWidth()));
+        int type = jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = image;
+
+        // Halve in steps so large reductions do not skip source pixels
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, type);
+        } while (width != targetWidth);
+
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, int type) {
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static BufferedImage withoutAlpha(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        return draw(image, image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    }
+
+    private boolean rewriteImageTags(Path root, Path page, Map<String, OptimizedImage> optimized) throws IOException {
+        String html = Files.readString(page);
+        String pageDir = BuildFiles.parentPath(BuildFiles.relativePath(root, page));
+
+        Matcher tag = IMG_TAG.matcher(html);
+        StringBuilder result = new StringBuilder(html.length());
+        boolean changed = false;
+
+        while (tag.find()) {
+            String imgTag = tag.group();
+            String src = HtmlAttributes.value(imgTag, SRC_ATTRIBUTE);
+            String resolved = src != null ? BuildFiles.resolveReference(pageDir, src) : null;
+            OptimizedImage image = resolved != null ? optimized.get(resolved) : null;
+
+            String rewritten = image != null ? addResponsiveAttributes(imgTag, src, image) : imgTag;
+            changed |= !rewritten.equals(imgTag);
+            tag.appendReplacement(result, Matcher.quoteReplacement(rewritten));
+        }
+        tag.appendTail(result);
+
+        if (changed) {
+            Files.writeString(page, result.toString());
+        }
+        return changed;
+    }
+
+    private static String addResponsiveAttributes(String imgTag, String src, OptimizedImage image) {
+        StringBuilder attributes = new StringBuilder();
+
+        // Explicit dimensions let the browser reserve space before the image loads
+        if (HtmlAttributes.value(imgTag, WIDTH_ATTRIBUTE) == null
+                && HtmlAttributes.value(imgTag, HEIGHT_ATTRIBUTE) == null) {
+            attributes.append(" width=\"").append(image.width).append("\" height=\"").append(image.height).append('"');
+        }
+
+        if (image.variantWidths.length > 0 && HtmlAttributes.value(imgTag, SRCSET_ATTRIBUTE) == null) {
+            int suffixStart = BuildFiles.indexOfQueryOrFragment(src);
+            String path = suffixStart >= 0 ? src.substring(0, suffixStart) : src;
+            String directory = path.substring(0, path.lastIndexOf('/') + 1);
+            String fileName = path.substring(path.lastIndexOf('/') + 1);
+
+            String srcset = Stream.concat(
+                    Arrays.stream(image.variantWidths)
+                        .mapToObj(width -> directory + variantName(fileName, width) + " " + width + "w"),
+                    Stream.of(src + " " + image.width + "w"))
+                .collect(Collectors.joining(", "));
+            attributes.append(" srcset=\"").append(srcset).append('"')
+                .append(" sizes=\"(max-width: ").append(image.width).append("px) 100vw, ")
+                .append(image.width).append("px\"");
+        }
+
+        if (attributes.length() == 0) {
+            return imgTag;
+        }
+
+        int end = imgTag.endsWith("/>") ? imgTag.length() - 2 : imgTag.length() - 1;
+        while (end > 0 && Character.isWhitespace(imgTag.charAt(end - 1))) {
+            end--;
+        }
+        return imgTag.substring(0, end) + attributes + imgTag.substring(end);
+    }
+
+    private static String variantName(Path image, int width) {
+        return variantName(image.getFileName().toString(), width);
+    }
+
+    private static String variantName(String fileName, int width) {
+        int dot = fileName.lastIndexOf('.');
+        return fileName.substring(0, dot) + "-" + width + "w" + fileName.substring(dot);
+    }
+
+    private static String extension(Path file) {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return fileName.substring(fileName.lastIndexOf('.') + 1);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final long bytes;
+        private volatile long lastUsed;
+
+        private CacheEntry(long bytes, long lastUsed) {
+            this.bytes = bytes;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class OptimizedImage {
+
+        private final String path;
+        private final int width;
+        private final int height;
+        private final int[] variantWidths;
+        private final long originalBytes;
+        private final long optimizedBytes;
+        private final boolean cached;
+        private final boolean fetched;
+
+        private OptimizedImage(String path, int width, int height, int[] variantWidths,
+                               long originalBytes, long optimizedBytes, boolean cached, boolean fetched) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.variantWidths = variantWidths;
+            this.originalBytes = originalBytes;
+            this.optimizedBytes = optimizedBytes;
+            this.cached = cached;
+            this.fetched = fetched;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.sitebuilder.code.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes a UTF-8 file without holding it in memory. The file is mapped in
+ * fixed-size windows and decoded into one fixed-size buffer that is handed to a
+ * consumer chunk by chunk; a multi-byte sequence split across two windows is
+ * re-read from the next one.
+ * <p>
+ * The site-builder and site-generator are separate builds with no shared
+ * module, so each has a copy of this class. The copies are identical except
+ * for their package; change both together.
+ */
+final class MappedTextDecoder {
+
+    /**
+     * Receives decoded text one chunk at a time.
+     */
+    interface ChunkConsumer {
+
+        /**
+         * Consumes a chunk; the buffer is reused once this returns.
+         *
+         * @param chunk the decoded characters
+         * @throws IOException if the chunk cannot be written
+         */
+        void accept(CharBuffer chunk) throws IOException;
+    }
+
+    private MappedTextDecoder() {
+    }
+
+    /**
+     * Decodes a whole file as UTF-8, rejecting malformed input.
+     *
+     * @param in the file to read from its start
+     * @param bufferSize the size of the character buffer passed to the consumer
+     * @param mapWindowBytes the number of bytes mapped at a time
+     * @param consumer receives the decoded text
+     * @throws IOException if reading or decoding fails, or the consumer fails
+     */
+    static void decode(FileChannel in, int bufferSize, long mapWindowBytes, ChunkConsumer consumer)
+            throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer chars = CharBuffer.allocate(bufferSize);
+
+        long size = in.size();
+        long position = 0;
+
+        while (position < size) {
+            long length = Math.min(mapWindowBytes, size - position);
+            boolean lastWindow = position + length == size;
+            MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            CoderResult result;
+            do {
+                result = decoder.decode(window, chars, lastWindow);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                drain(chars, consumer);
+            } while (result.isOverflow());
+
+            if (lastWindow) {
+                break;
+            }
+            // A multi-byte sequence split across windows is re-read from the next window
+            position += length - window.remaining();
+        }
+
+        if (size == 0) {
+            decoder.decode(ByteBuffer.allocate(0), chars, true);
+        }
+        CoderResult result;
+        do {
+            result = decoder.flush(chars);
+            drain(chars, consumer);
+        } while (result.isOverflow());
+    }
+
+    private static void drain(CharBuffer chars, ChunkConsumer consumer) throws IOException {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            consumer.accept(chars);
+        }
+        chars.clear();
+    }
+}
@@ -0,0 +1,31 @@
+package com.sitebuilder.code.service.impl;
+
+import java.util.Locale;
+
+/**
+ * File syntaxes the builder knows how to minify.
+ */
+public enum MinifySyntax {
+    HTML,
+    CSS,
+    JS;
+    
+    /**
+     * Determines the syntax of a file from its name.
+     * 
+     * @param fileName the file name
+     * @return the syntax, or null if the file is copied unchanged
+     */
+    public static MinifySyntax forFileName(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        
+        if (lowerCaseName.endsWith(".html")) {
+            return HTML;
+        } else if (lowerCaseName.endsWith(".css")) {
+            return CSS;
+        } else if (lowerCaseName.endsWith(".js")) {
+            return JS;
+        }
+        return null;
+    }
+}
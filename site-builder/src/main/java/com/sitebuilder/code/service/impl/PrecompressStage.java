@@ -0,0 +1,92 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a {@code .gz} sibling at maximum compression for every text file of a
+ * build, so the built-in file server and static hosts can send compressed bytes
+ * without compressing on each request. Runs last, once file contents are final.
+ */
+@Component
+@Order(60)
+public class PrecompressStage implements BuildStage {
+
+    private static final String[] COMPRESSIBLE = {
+        ".html", ".css", ".js", ".json", ".svg", ".xml", ".txt", ".bin"
+    };
+
+    @Value("${site.builder.precompress.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.precompress.min-bytes:1024}")
+    private long minBytes;
+
+    @Override
+    public String getName() {
+        return "precompress";
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        int compressedFiles = 0;
+        long originalBytes = 0;
+        long compressedBytes = 0;
+
+        for (Path file : BuildFiles.list(root, COMPRESSIBLE)) {
+            long size = Files.size(file);
+            if (size < minBytes) {
+                continue;
+            }
+
+            Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+            try (OutputStream out = new MaxCompressionGzipStream(Files.newOutputStream(compressed))) {
+                Files.copy(file, out);
+            }
+
+            // Variants that barely shrink cost a disk read without saving transfer time
+            long compressedSize = Files.size(compressed);
+            if (compressedSize > size * 9 / 10) {
+                Files.delete(compressed);
+                continue;
+            }
+
+            compressedFiles++;
+            originalBytes += size;
+            compressedBytes += compressedSize;
+        }
+
+        if (compressedFiles > 0) {
+            Map<String, Object> report = new HashMap<>();
+            report.put("files", compressedFiles);
+            report.put("originalBytes", originalBytes);
+            report.put("compressedBytes", compressedBytes);
+            context.addStageReport(getName(), report);
+        }
+    }
+
+    private static final class MaxCompressionGzipStream extends GZIPOutputStream {
+
+        MaxCompressionGzipStream(OutputStream out) throws IOException {
+            super(out, 65536);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes CSS rules that cannot match anything in the site's HTML.
+ * Selector usage is collected from all pages in parallel and merged into one
+ * set; rules whose element, class or id parts never occur are dropped.
+ * At-rules such as {@code @font-face} and {@code @keyframes} are always kept.
+ */
+@Component
+@Order(20)
+public class PurgeCssStage implements BuildStage {
+
+    @Value("${site.builder.purge-css.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.purge-css.safelist:}")
+    private String[] safelist;
+
+    @Override
+    public String getName() {
+        return "purgeCss";
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        List<Path> pages = BuildFiles.list(root, ".html");
+        if (pages.isEmpty()) {
+            return; // Without pages every rule would look unused
+        }
+
+        SelectorUsage usage = scanPages(pages);
+        for (String token : safelist) {
+            usage.addSafelisted(token.trim());
+        }
+
+        Map<String, Object> stylesheets = new LinkedHashMap<>();
+        long totalRemoved = 0;
+
+        for (Path stylesheetFile : BuildFiles.list(root, ".css")) {
+            String css = Files.readString(stylesheetFile);
+            String purged = CssStylesheet.parse(css).filter(usage::matchesAny, atRule -> true).toCss(false);
+
+            long originalBytes = css.getBytes(StandardCharsets.UTF_8).length;
+            long purgedBytes = purged.getBytes(StandardCharsets.UTF_8).length;
+            if (purgedBytes >= originalBytes) {
+                continue;
+            }
+
+            Files.writeString(stylesheetFile, purged);
+            totalRemoved += originalBytes - purgedBytes;
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("originalBytes", originalBytes);
+            report.put("purgedBytes", purgedBytes);
+            report.put("bytesRemoved", originalBytes - purgedBytes);
+            stylesheets.put(BuildFiles.relativePath(root, stylesheetFile), report);
+        }
+
+        if (!stylesheets.isEmpty()) {
+            Map<String, Object> report = new HashMap<>();
+            report.put("stylesheets", stylesheets);
+            report.put("bytesRemoved", totalRemoved);
+            report.put("selectorsInUse", usage.size());
+            context.addStageReport(getName(), report);
+        }
+    }
+
+    private static SelectorUsage scanPages(List<Path> pages) throws IOException {
+        try {
+            // Each worker scans into its own usage; partial results are merged at the end
+            return pages.parallelStream().collect(
+                SelectorUsage::new,
+                (usage, page) -> usage.addDocument(readPage(page)),
+                SelectorUsage::merge);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String readPage(Path page) {
+        try {
+            return Files.readString(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
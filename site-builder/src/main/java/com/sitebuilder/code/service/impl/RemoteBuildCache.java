@@ -0,0 +1,133 @@
+package com.sitebuilder.code.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Client of a remote build cache server.
+ * Every failure is treated as a miss so builds never depend on the cache; after
+ * a connection or server error the cache is skipped for the backoff period
+ * instead of costing every file of the build a timeout.
+ */
+@Component
+public class RemoteBuildCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteBuildCache.class);
+
+    private final RestClient.Builder restClientBuilder;
+
+    @Value("${site.builder.remote-cache.url:}")
+    private String url;
+
+    @Value("${site.builder.remote-cache.push:true}")
+    private boolean push;
+
+    @Value("${site.builder.remote-cache.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${site.builder.remote-cache.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    private RestClient restClient;
+    private volatile long unavailableUntil;
+
+    public RemoteBuildCache(RestClient.Builder restClientBuilder) {
+        this.restClientBuilder = restClientBuilder;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(timeoutMs))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        restClient = restClientBuilder
+            .baseUrl(StringUtils.removeEnd(url, "/"))
+            .requestFactory(requestFactory)
+            .build();
+        log.info("Using remote build cache at {}", url);
+    }
+
+    /**
+     * @return true when a remote cache server is configured
+     */
+    public boolean isEnabled() {
+        return StringUtils.isNotBlank(url);
+    }
+
+    /**
+     * Fetches an entry.
+     *
+     * @param key the entry key
+     * @return the entry content, or null on a miss or when the server is unavailable
+     */
+    public byte[] get(String key) {
+        if (!isAvailable()) {
+            return null;
+        }
+
+        try {
+            return restClient.get()
+                .uri("/cache/{key}", key)
+                .retrieve()
+                .body(byte[].class);
+        } catch (HttpClientErrorException e) {
+            // 404 is a plain miss; other client errors concern this entry only
+            return null;
+        } catch (RestClientException e) {
+            markUnavailable(e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry unless pushing is disabled or the server is unavailable.
+     *
+     * @param key the entry key
+     * @param content the entry content
+     */
+    public void put(String key, byte[] content) {
+        if (!push || !isAvailable()) {
+            return;
+        }
+
+        try {
+            restClient.put()
+                .uri("/cache/{key}", key)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(content)
+                .retrieve()
+                .toBodilessEntity();
+        } catch (HttpClientErrorException e) {
+            log.debug("Remote build cache refused entry {}: {}", key, e.getMessage());
+        } catch (RestClientException e) {
+            markUnavailable(e);
+        }
+    }
+
+    private boolean isAvailable() {
+        return isEnabled() && System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    private void markUnavailable(RestClientException e) {
+        unavailableUntil = System.currentTimeMillis() + backoffSeconds * 1000;
+        log.warn("Remote build cache unavailable, building without it for {} s: {}", backoffSeconds, e.getMessage());
+    }
+}
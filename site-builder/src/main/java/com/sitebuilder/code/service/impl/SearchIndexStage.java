@@ -0,0 +1,244 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a prebuilt search index for the site's pages together with a small
+ * JavaScript runtime that loads it and answers queries in the browser.
+ * Runs after fingerprinting so the index points at the final page URLs and
+ * the runtime keeps a stable name that pages can reference.
+ */
+@Component
+@Order(50)
+public class SearchIndexStage implements BuildStage {
+
+    static final String INDEX_FILE = "search-index.bin";
+    static final String RUNTIME_FILE = "search.js";
+
+    private static final Pattern TITLE = Pattern.compile("<title[^>]*>(.*?)</title>",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern HEADING = Pattern.compile("<h1[^>]*>(.*?)</h1>",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern NON_TEXT_ELEMENT = Pattern.compile(
+        "<(script|style|noscript|template)\\b[^>]*>.*?</\\1\\s*>|<!--.*?-->", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&(#?[a-zA-Z0-9]+);");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final String RUNTIME = """
+        // Site search runtime: SiteSearch.load('/search-index.bin').then(index => index.search('query'))
+        (function (global) {
+          'use strict';
+          var decoder = new TextDecoder();
+
+          function tokenize(text) {
+            return text.toLowerCase().split(/[^\\p{L}\\p{Nd}]+/u).filter(function (token) {
+              return token.length >= 2 && token.length <= 32;
+            });
+          }
+
+          function Index(buffer, baseUrl) {
+            var bytes = new Uint8Array(buffer);
+            var pos = 0;
+            function varint() {
+              var value = 0, shift = 0, b;
+              do { b = bytes[pos++]; value |= (b & 0x7f) << shift; shift += 7; } while (b & 0x80);
+              return value >>> 0;
+            }
+            function string() {
+              var length = varint();
+              var value = decoder.decode(bytes.subarray(pos, pos + length));
+              pos += length;
+              return value;
+            }
+
+            if (decoder.decode(bytes.subarray(0, 4)) !== 'SIDX' || bytes[4] !== 1) {
+              throw new Error('Unsupported search index');
+            }
+            pos = 5;
+            var docCount = varint(), termCount = varint(), i;
+
+            this.docs = new Array(docCount);
+            for (i = 0; i < docCount; i++) {
+              this.docs[i] = { url: new URL(string(), baseUrl).href, title: string() };
+            }
+
+            this.terms = new Array(termCount);
+            this.offsets = new Uint32Array(termCount + 1);
+            var previous = '', offset = 0;
+            for (i = 0; i < termCount; i++) {
+              var term = previous.slice(0, varint()) + string();
+              varint(); // Document frequency
+              this.terms[i] = previous = term;
+              this.offsets[i] = offset;
+              offset += varint();
+            }
+            this.offsets[termCount] = offset;
+            this.postingsStart = pos;
+            this.bytes = bytes;
+          }
+
+          Index.prototype.lowerBound = function (term) {
+            var low = 0, high = this.terms.length;
+            while (low < high) {
+              var mid = (low + high) >>> 1;
+              if (this.terms[mid] < term) { low = mid + 1; } else { high = mid; }
+            }
+            return low;
+          };
+
+          Index.prototype.postings = function (termIndex) {
+            var bytes = this.bytes, pos = this.postingsStart + this.offsets[termIndex];
+            var end = this.postingsStart + this.offsets[termIndex + 1], ids = [], id = 0;
+            while (pos < end) {
+              var value = 0, shift = 0, b;
+              do { b = bytes[pos++]; value |= (b & 0x7f) << shift; shift += 7; } while (b & 0x80);
+              id += value >>> 0;
+              ids.push(id);
+            }
+            return ids;
+          };
+
+          Index.prototype.match = function (token, prefix) {
+            var i = this.lowerBound(token);
+            if (!prefix) {
+              return this.terms[i] === token ? this.postings(i) : [];
+            }
+            var seen = {}, ids = [];
+            for (var n = 0; i < this.terms.length && this.terms[i].startsWith(token) && n < 100; i++, n++) {
+              this.postings(i).forEach(function (id) {
+                if (!seen[id]) { seen[id] = true; ids.push(id); }
+              });
+            }
+            return ids.sort(function (a, b) { return a - b; });
+          };
+
+          Index.prototype.search = function (query, limit) {
+            var tokens = tokenize(query), result = null;
+            for (var t = 0; t < tokens.length && (!result || result.length); t++) {
+              // The last word may still be being typed, so it matches as a prefix
+              var ids = this.match(tokens[t], t === tokens.length - 1);
+              var matched = new Set(ids);
+              result = result ? result.filter(function (id) { return matched.has(id); }) : ids;
+            }
+            var docs = this.docs;
+            return (result || []).slice(0, limit || 20).map(function (id) { return docs[id]; });
+          };
+
+          global.SiteSearch = {
+            load: function (url) {
+              var indexUrl = new URL(url, global.location.href);
+              return fetch(indexUrl).then(function (response) {
+                if (!response.ok) { throw new Error('Search index not found: ' + response.status); }
+                return response.arrayBuffer();
+              }).then(function (buffer) { return new Index(buffer, indexUrl); });
+            },
+            Index: Index
+          };
+        })(this);
+        """;
+
+    @Value("${site.builder.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.search.max-buffered-postings:1000000}")
+    private int maxBufferedPostings;
+
+    @Override
+    public String getName() {
+        return "search";
+    }
+
+    @Override
+    public void apply(BuildContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = context.getBuildPath();
+        List<Path> pages = BuildFiles.list(root, ".html");
+        if (pages.isEmpty()) {
+            return;
+        }
+
+        Path indexFile = root.resolve(INDEX_FILE);
+        try (SearchIndexWriter writer = new SearchIndexWriter(maxBufferedPostings)) {
+            // Pages are read one at a time; only the postings buffer is held in memory
+            for (Path page : pages) {
+                String html = Files.readString(page);
+                String url = BuildFiles.relativePath(root, page);
+                writer.addDocument(url, title(html, url), text(html));
+            }
+            writer.finish(indexFile);
+
+            Files.writeString(root.resolve(RUNTIME_FILE), RUNTIME);
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("documents", writer.getDocumentCount());
+            report.put("terms", writer.getTermCount());
+            report.put("postings", writer.getTotalPostings());
+            report.put("spillRuns", writer.getRunCount());
+            report.put("indexBytes", Files.size(indexFile));
+            context.addStageReport(getName(), report);
+        }
+    }
+
+    private static String title(String html, String url) {
+        Matcher title = TITLE.matcher(html);
+        if (title.find() && !text(title.group(1)).isEmpty()) {
+            return text(title.group(1));
+        }
+        Matcher heading = HEADING.matcher(html);
+        if (heading.find() && !text(heading.group(1)).isEmpty()) {
+            return text(heading.group(1));
+        }
+        return url;
+    }
+
+    private static String text(String html) {
+        String text = NON_TEXT_ELEMENT.matcher(html).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll(" ");
+        text = ENTITY.matcher(text).replaceAll(entity -> Matcher.quoteReplacement(decodeEntity(entity.group(1))));
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+            case "amp":
+                return "&";
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "quot":
+                return "\"";
+            case "apos":
+            case "#39":
+                return "'";
+            default:
+                if (entity.startsWith("#")) {
+                    try {
+                        int codePoint = entity.startsWith("#x") || entity.startsWith("#X")
+                            ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+                        return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : " ";
+                    } catch (NumberFormatException e) {
+                        return " ";
+                    }
+                }
+                return " ";
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.sitebuilder.code.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds a compact inverted index over page text in a streaming pass.
+ * Postings are buffered in memory only up to a fixed count; beyond that the
+ * sorted buffer is spilled to a run file, and all runs are merged into the
+ * final index, so memory stays bounded however many pages a site has.
+ *
+ * <p>Index layout (all integers are unsigned LEB128 varints, strings are
+ * a varint byte length followed by UTF-8):
+ * <pre>
+ * "SIDX" version docCount termCount
+ * docCount x (url title)
+ * termCount x (sharedPrefixChars suffix docFreq postingsBytes)
+ * postings: per term, ascending document ids as deltas from the previous id
+ * </pre>
+ * Terms are sorted and front-coded against the previous term; the shared
+ * prefix is counted in UTF-16 units so the JavaScript runtime can slice strings directly.
+ */
+final class SearchIndexWriter implements Closeable {
+
+    static final int VERSION = 1;
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 32;
+
+    private final int maxBufferedPostings;
+    private final Path workDirectory;
+    private final DataOutputStream documents;
+    private final List<Path> runs = new ArrayList<>();
+    private final Map<String, Postings> buffer = new HashMap<>();
+
+    private int documentCount;
+    private int bufferedPostings;
+    private long totalPostings;
+    private int termCount;
+
+    SearchIndexWriter(int maxBufferedPostings) throws IOException {
+        this.maxBufferedPostings = Math.max(1, maxBufferedPostings);
+        this.workDirectory = Files.createTempDirectory("search-index");
+        this.documents = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(workDirectory.resolve("documents"))));
+    }
+
+    /**
+     * Adds one document. Documents receive ascending ids in the order they are added.
+     *
+     * @param url the document URL relative to the index
+     * @param title the document title
+     * @param text the plain text to index
+     * @throws IOException if a run file cannot be written
+     */
+    void addDocument(String url, String title, CharSequence text) throws IOException {
+        int documentId = documentCount++;
+        writeString(documents, url);
+        writeString(documents, title);
+
+        for (String token : tokenize(text)) {
+            buffer.computeIfAbsent(token, key -> new Postings()).add(documentId);
+            bufferedPostings++;
+        }
+
+        if (bufferedPostings >= maxBufferedPostings) {
+            spill();
+        }
+    }
+
+    /**
+     * Merges all runs and writes the finished index.
+     *
+     * @param target the index file to write
+     * @throws IOException if the index cannot be written
+     */
+    void finish(Path target) throws IOException {
+        spill();
+        documents.close();
+
+        Path dictionaryFile = workDirectory.resolve("dictionary");
+        Path postingsFile = workDirectory.resolve("postings");
+        try (DataOutputStream dictionary = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dictionaryFile)));
+             OutputStream postings = new BufferedOutputStream(Files.newOutputStream(postingsFile))) {
+            merge(dictionary, postings);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            out.write("SIDX".getBytes(StandardCharsets.US_ASCII));
+            out.write(VERSION);
+            writeVarint(out, documentCount);
+            writeVarint(out, termCount);
+            Files.copy(workDirectory.resolve("documents"), out);
+            Files.copy(dictionaryFile, out);
+            Files.copy(postingsFile, out);
+        }
+    }
+
+    int getDocumentCount() {
+        return documentCount;
+    }
+
+    int getTermCount() {
+        return termCount;
+    }
+
+    long getTotalPostings() {
+        return totalPostings;
+    }
+
+    int getRunCount() {
+        return runs.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        documents.close();
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case letter/digit tokens, each reported once.
+     * Must match the tokenizer of the JavaScript runtime.
+     *
+     * @param text the text to split
+     * @return the distinct tokens
+     */
+    static Set<String> tokenize(CharSequence text) {
+        Set<String> tokens = new HashSet<>();
+        StringBuilder token = new StringBuilder();
+        int i = 0;
+        while (i <= text.length()) {
+            int codePoint = i < text.length() ? Character.codePointAt(text, i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(codePoint);
+            } else if (token.length() > 0) {
+                String value = token.toString().toLowerCase(Locale.ROOT);
+                if (value.length() >= MIN_TOKEN_LENGTH && value.length() <= MAX_TOKEN_LENGTH) {
+                    tokens.add(value);
+                }
+                token.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return tokens;
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        Path run = workDirectory.resolve("run-" + runs.size());
+        String[] terms = buffer.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (String term : terms) {
+                Postings postings = buffer.get(term);
+                out.writeUTF(term);
+                writeVarint(out, postings.size);
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    writeVarint(out, postings.documentIds[i] - previous);
+                    previous = postings.documentIds[i];
+                }
+            }
+        }
+
+        runs.add(run);
+        buffer.clear();
+        bufferedPostings = 0;
+    }
+
+    private void merge(DataOutputStream dictionary, OutputStream postings) throws IOException {
+        // Runs hold ascending document ranges, so equal terms are concatenated in run order
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(
+            Comparator.comparing((RunReader reader) -> reader.term).thenComparingInt(reader -> reader.index));
+        List<RunReader> readers = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(i, runs.get(i));
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+
+            ByteArrayOutputStream termPostings = new ByteArrayOutputStream();
+            String previousTerm = "";
+
+            while (!queue.isEmpty()) {
+                String term = queue.peek().term;
+                termPostings.reset();
+                int documentFrequency = 0;
+                int previousId = 0;
+
+                while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                    RunReader reader = queue.poll();
+                    int id = 0;
+                    for (int i = 0; i < reader.count; i++) {
+                        id += readVarint(reader.in);
+                        writeVarint(termPostings, id - previousId);
+                        previousId = id;
+                    }
+                    documentFrequency += reader.count;
+                    if (reader.next()) {
+                        queue.add(reader);
+                    }
+                }
+
+                int shared = sharedPrefix(previousTerm, term);
+                writeVarint(dictionary, shared);
+                writeString(dictionary, term.substring(shared));
+                writeVarint(dictionary, documentFrequency);
+                writeVarint(dictionary, termPostings.size());
+                termPostings.writeTo(postings);
+
+                previousTerm = term;
+                termCount++;
+                totalPostings += documentFrequency;
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private static int sharedPrefix(String previous, String term) {
+        int shared = 0;
+        int limit = Math.min(previous.length(), term.length());
+        while (shared < limit && previous.charAt(shared) == term.charAt(shared)) {
+            shared++;
+        }
+        // Never split a surrogate pair, the suffix must be valid UTF-8
+        if (shared > 0 && Character.isHighSurrogate(term.charAt(shared - 1))) {
+            shared--;
+        }
+        return shared;
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static final class Postings {
+
+        private int[] documentIds = new int[4];
+        private int size;
+
+        void add(int documentId) {
+            if (size == documentIds.length) {
+                documentIds = Arrays.copyOf(documentIds, size * 2);
+            }
+            documentIds[size++] = documentId;
+        }
+    }
+
+    private static final class RunReader {
+
+        private final int index;
+        private final DataInputStream in;
+        private String term;
+        private int count;
+
+        RunReader(int index, Path run) throws IOException {
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        boolean next() throws IOException {
+            try {
+                term = in.readUTF();
+            } catch (EOFException e) {
+                return false;
+            }
+            count = readVarint(in);
+            return true;
+        }
+    }
+}
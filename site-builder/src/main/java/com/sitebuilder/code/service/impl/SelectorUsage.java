@@ -0,0 +1,212 @@
+package com.sitebuilder.code.service.impl;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The element names, classes and ids that occur in HTML.
+ * Used to decide whether a CSS selector can match anything. The check is
+ * conservative: attribute selectors, pseudo-classes and combinators are
+ * assumed to match, so a rule is only treated as unused when one of its
+ * element, class or id parts never occurs.
+ */
+final class SelectorUsage {
+
+    private static final Pattern START_TAG = Pattern.compile("<([a-zA-Z][a-zA-Z0-9-]*)([^>]*)>");
+    private static final Pattern CLASS_ATTRIBUTE = attributePattern("class");
+    private static final Pattern ID_ATTRIBUTE = attributePattern("id");
+
+    private final Set<String> elements = new HashSet<>();
+    private final Set<String> classes = new HashSet<>();
+    private final Set<String> ids = new HashSet<>();
+
+    /**
+     * Collects the selectors used by an HTML document.
+     *
+     * @param html the document
+     * @return the selectors used
+     */
+    static SelectorUsage scan(CharSequence html) {
+        return new SelectorUsage().addDocument(html);
+    }
+
+    /**
+     * Adds the selectors used by another HTML document to this usage.
+     *
+     * @param html the document
+     * @return this usage
+     */
+    SelectorUsage addDocument(CharSequence html) {
+        Matcher tag = START_TAG.matcher(html);
+
+        while (tag.find()) {
+            elements.add(tag.group(1).toLowerCase(Locale.ROOT));
+            String attributes = tag.group(2);
+            if (attributes.isEmpty()) {
+                continue;
+            }
+
+            Matcher classAttribute = CLASS_ATTRIBUTE.matcher(attributes);
+            while (classAttribute.find()) {
+                for (String className : attributeValue(classAttribute).trim().split("\\s+")) {
+                    if (!className.isEmpty()) {
+                        classes.add(className);
+                    }
+                }
+            }
+
+            Matcher idAttribute = ID_ATTRIBUTE.matcher(attributes);
+            while (idAttribute.find()) {
+                ids.add(attributeValue(idAttribute).trim());
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds every selector of another usage to this one.
+     *
+     * @param other the usage to merge
+     * @return this usage
+     */
+    SelectorUsage merge(SelectorUsage other) {
+        elements.addAll(other.elements);
+        classes.addAll(other.classes);
+        ids.addAll(other.ids);
+        return this;
+    }
+
+    /**
+     * Marks a class, id ({@code #id}) or element name as always used.
+     *
+     * @param token the selector token
+     */
+    void addSafelisted(String token) {
+        if (token.startsWith(".")) {
+            classes.add(token.substring(1));
+        } else if (token.startsWith("#")) {
+            ids.add(token.substring(1));
+        } else if (!token.isEmpty()) {
+            classes.add(token);
+            elements.add(token.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    int size() {
+        return elements.size() + classes.size() + ids.size();
+    }
+
+    /**
+     * Checks whether any selector in a comma-separated list can match.
+     *
+     * @param selectorList the selector list of a rule
+     * @return true if the rule may apply to the scanned HTML
+     */
+    boolean matchesAny(String selectorList) {
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < selectorList.length(); i++) {
+            char c = selectorList.charAt(i);
+            if (c == '(' || c == '[') {
+                depth++;
+            } else if ((c == ')' || c == ']') && depth > 0) {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                if (matches(selectorList.substring(start, i))) {
+                    return true;
+                }
+                start = i + 1;
+            }
+        }
+        return matches(selectorList.substring(start));
+    }
+
+    private boolean matches(String selector) {
+        int i = 0;
+        int length = selector.length();
+
+        while (i < length) {
+            char c = selector.charAt(i);
+
+            if (c == '.' || c == '#') {
+                StringBuilder name = new StringBuilder();
+                i = readIdentifier(selector, i + 1, name);
+                Set<String> names = c == '.' ? classes : ids;
+                if (!names.contains(name.toString())) {
+                    return false;
+                }
+            } else if (c == '[') {
+                i = skipBalanced(selector, i, '[', ']');
+            } else if (c == ':') {
+                while (i < length && selector.charAt(i) == ':') {
+                    i++;
+                }
+                i = readIdentifier(selector, i, new StringBuilder());
+                if (i < length && selector.charAt(i) == '(') {
+                    i = skipBalanced(selector, i, '(', ')');
+                }
+            } else if (isIdentifierStart(c)) {
+                StringBuilder name = new StringBuilder();
+                i = readIdentifier(selector, i, name);
+                if (!elements.contains(name.toString().toLowerCase(Locale.ROOT))) {
+                    return false;
+                }
+            } else {
+                i++; // Whitespace, combinators and '*'
+            }
+        }
+
+        return true;
+    }
+
+    private static int readIdentifier(String selector, int i, StringBuilder name) {
+        while (i < selector.length()) {
+            char c = selector.charAt(i);
+            if (c == '\\' && i + 1 < selector.length()) {
+                name.append(selector.charAt(i + 1));
+                i += 2;
+            } else if (isIdentifierStart(c) || Character.isDigit(c)) {
+                name.append(c);
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int skipBalanced(String selector, int i, char open, char close) {
+        int depth = 0;
+        while (i < selector.length()) {
+            char c = selector.charAt(i++);
+            if (c == open) {
+                depth++;
+            } else if (c == close && --depth == 0) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '-' || c == '_' || c > 0x7F;
+    }
+
+    private static Pattern attributePattern(String name) {
+        return Pattern.compile("(?:^|\\s)" + name + "\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))",
+            Pattern.CASE_INSENSITIVE);
+    }
+
+    private static String attributeValue(Matcher matcher) {
+        for (int group = 1; group <= 3; group++) {
+            if (matcher.group(group) != null) {
+                return matcher.group(group);
+            }
+        }
+        return "";
+    }
+}
@@ -1,17 +1,27 @@
 package com.sitebuilder.code.service.impl;
 
 import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.BuildCancellation;
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildStage;
 import com.sitebuilder.code.service.SiteBuildException;
 import com.sitebuilder.code.service.SiteBuildService;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of site build service.
@@ -20,49 +30,89 @@ import java.util.List;
 @Service
 public class SiteBuildServiceImpl implements SiteBuildService {
     
+    private static final Logger log = LoggerFactory.getLogger(SiteBuildServiceImpl.class);
+    
     @Value("${site.builder.input.path:output}")
     private String inputPath;
     
     @Value("${site.builder.build.path:build}")
     private String buildPath;
     
+    @Value("${site.builder.fingerprint.hash-length:10}")
+    private int fingerprintLength;
+    
+    private final BuildPublisher buildPublisher;
+    private final BuildReporter buildReporter;
+    private final FileOptimizer fileOptimizer;
+    private final RemoteBuildCache remoteBuildCache;
+    private final ExecutionPools executionPools;
+    private final List<BuildStage> buildStages;
+    
+    public SiteBuildServiceImpl(BuildPublisher buildPublisher, BuildReporter buildReporter,
+                                FileOptimizer fileOptimizer, RemoteBuildCache remoteBuildCache,
+                                ExecutionPools executionPools, List<BuildStage> buildStages) {
+        this.buildPublisher = buildPublisher;
+        this.buildReporter = buildReporter;
+        this.fileOptimizer = fileOptimizer;
+        this.remoteBuildCache = remoteBuildCache;
+        this.executionPools = executionPools;
+        this.buildStages = buildStages;
+    }
+    
     @Override
-    public SiteBuildResponse buildSite(String siteName) throws SiteBuildException {
+    public SiteBuildResponse buildSite(String siteName, BuildCancellation cancellation) throws SiteBuildException {
         if (StringUtils.isBlank(siteName)) {
             throw new SiteBuildException("Site name cannot be blank");
         }
         
         long startTime = System.currentTimeMillis();
         
+        // Validate input site exists
+        Path inputSitePath = Paths.get(inputPath, siteName);
+        if (!Files.exists(inputSitePath)) {
+            throw new SiteBuildException("Site '" + siteName + "' not found in input directory");
+        }
+        
+        Path stagingPath = null;
+        boolean published = false;
+        
         try {
-            // Validate input site exists
-            Path inputSitePath = Paths.get(inputPath, siteName);
-            if (!Files.exists(inputSitePath)) {
-                throw new SiteBuildException("Site '" + siteName + "' not found in input directory");
-            }
+            // Build into a staging directory; the live site stays untouched until publish
+            stagingPath = buildPublisher.createStagingDirectory(siteName);
             
-            // Create build directory
-            Path buildSitePath = createBuildDirectory(siteName);
+            BuildContext context = new BuildContext(siteName, stagingPath, cancellation);
+            Map<String, FileOptimizer.Result> files = buildInto(inputSitePath, context);
             
-            // Copy and optimize files
-            int fileCount = copyAndOptimizeFiles(inputSitePath, buildSitePath);
+            // A build cancelled up to here is discarded; from here on it can no longer be cancelled
+            if (!cancellation.beginPublish()) {
+                throw new InterruptedIOException("Build cancelled");
+            }
             
-            // Generate deployment files
-            generateDeploymentFiles(buildSitePath, siteName);
+            // Atomically swap the live site to the new build
+            String previousVersion = buildPublisher.currentVersion(siteName);
+            Path buildSitePath = buildPublisher.publish(siteName, stagingPath);
+            published = true;
             
             long buildTime = System.currentTimeMillis() - startTime;
+            writeReport(context, stagingPath.getFileName().toString(), files, previousVersion, buildTime);
             
-            return new SiteBuildResponse(
+            SiteBuildResponse response = new SiteBuildResponse(
                 siteName,
                 buildSitePath.toString(),
                 "SUCCESS",
                 "Site built successfully",
                 buildTime,
-                fileCount
+                files.size()
             );
+            response.setOptimizations(context.getStageReports());
+            return response;
             
         } catch (IOException e) {
             throw new SiteBuildException("Failed to build site: " + e.getMessage(), e);
+        } finally {
+            if (stagingPath != null && !published) {
+                buildPublisher.discard(stagingPath);
+            }
         }
     }
     
@@ -108,8 +158,8 @@ public class SiteBuildServiceImpl implements SiteBuildService {
                 );
             }
             
-            // Count files in build directory
-            int fileCount = countFiles(buildSitePath);
+            // Count files in the published version the live path points to
+            int fileCount = countFiles(buildSitePath.toRealPath());
             
             return new SiteBuildResponse(
                 siteName,
@@ -125,37 +175,114 @@ public class SiteBuildServiceImpl implements SiteBuildService {
         }
     }
     
-    private Path createBuildDirectory(String siteName) throws IOException {
+    @Override
+    public SiteBuildResponse rollbackSite(String siteName) throws SiteBuildException {
+        if (StringUtils.isBlank(siteName)) {
+            throw new SiteBuildException("Site name cannot be blank");
+        }
+        
+        String version = buildPublisher.rollback(siteName);
         Path buildSitePath = Paths.get(buildPath, siteName);
         
-        // Remove existing build if it exists
-        if (Files.exists(buildSitePath)) {
-            deleteDirectory(buildSitePath);
+        try {
+            return new SiteBuildResponse(
+                siteName,
+                buildSitePath.toString(),
+                "ROLLED_BACK",
+                "Site rolled back to version " + version,
+                0,
+                countFiles(buildSitePath.toRealPath())
+            );
+            
+        } catch (IOException e) {
+            throw new SiteBuildException("Failed to read rolled back site: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, Object> getBuildReport(String siteName) throws SiteBuildException {
+        if (StringUtils.isBlank(siteName)) {
+            throw new SiteBuildException("Site name cannot be blank");
         }
         
-        Files.createDirectories(buildSitePath);
-        return buildSitePath;
+        try {
+            String version = buildPublisher.currentVersion(siteName);
+            return version == null ? null : buildReporter.read(siteName, version);
+            
+        } catch (IOException e) {
+            throw new SiteBuildException("Failed to read build report: " + e.getMessage(), e);
+        }
     }
     
-    private int copyAndOptimizeFiles(Path sourcePath, Path targetPath) throws IOException {
-        final int[] fileCount = {0};
+    /**
+     * Runs the build pipeline from a generated site into the context's build
+     * directory without publishing it. The time of each step is recorded in
+     * the context.
+     * 
+     * @param inputSitePath the generated site
+     * @param context the build, whose build path receives the output
+     * @return the optimize result of every copied file by relative path
+     * @throws IOException if the site cannot be built
+     */
+    Map<String, FileOptimizer.Result> buildInto(Path inputSitePath, BuildContext context) throws IOException {
+        // Copy and optimize files
+        long start = System.nanoTime();
+        Map<String, FileOptimizer.Result> files = copyAndOptimizeFiles(inputSitePath, context.getBuildPath(), context);
+        start = recordStageTime(context, "optimize", start);
+        
+        // Run the post-processing stages over the staged build
+        for (BuildStage stage : buildStages) {
+            context.checkCancelled();
+            stage.apply(context);
+            start = recordStageTime(context, stage.getName(), start);
+        }
+        
+        // Generate deployment files
+        context.checkCancelled();
+        generateDeploymentFiles(context.getBuildPath(), context.getSiteName(), context);
+        recordStageTime(context, "deploymentFiles", start);
+        return files;
+    }
+    
+    private static long recordStageTime(BuildContext context, String stageName, long start) {
+        long now = System.nanoTime();
+        context.recordStageTime(stageName, TimeUnit.NANOSECONDS.toMillis(now - start));
+        return now;
+    }
+    
+    private void writeReport(BuildContext context, String versionId, Map<String, FileOptimizer.Result> files,
+                             String previousVersion, long buildTime) {
+        try {
+            Path versionPath = buildPublisher.versionPath(context.getSiteName(), versionId);
+            Map<String, Object> summary = buildReporter.write(context, versionId, versionPath, files,
+                previousVersion, buildTime);
+            if (summary != null) {
+                context.addStageReport("buildReport", summary);
+            }
+        } catch (IOException e) {
+            // The site is already live; a missing report only loses the comparison
+            log.warn("Failed to write build report for site '{}': {}", context.getSiteName(), e.getMessage());
+        }
+    }
+    
+    private Map<String, FileOptimizer.Result> copyAndOptimizeFiles(Path sourcePath, Path targetPath,
+                                                                   BuildContext context) throws IOException {
+        List<String> paths = new ArrayList<>();
+        List<Callable<FileOptimizer.Result>> copies = new ArrayList<>();
         
         Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Path relativePath = sourcePath.relativize(file);
-                Path targetFile = targetPath.resolve(relativePath);
-                
-                // Create parent directories
-                Files.createDirectories(targetFile.getParent());
-                
-                // Copy file
-                Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
-                
-                // Optimize based on file type
-                optimizeFile(targetFile);
+                // Stop early when a queued job is cancelled or times out
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Build interrupted");
+                }
+                context.checkCancelled();
                 
-                fileCount[0]++;
+                Path targetFile = targetPath.resolve(sourcePath.relativize(file));
+                // Copy file, optimizing based on file type
+                paths.add(BuildFiles.relativePath(sourcePath, file));
+                copies.add(() -> fileOptimizer.optimize(file, targetFile));
                 return FileVisitResult.CONTINUE;
             }
             
@@ -168,65 +295,45 @@ public class SiteBuildServiceImpl implements SiteBuildService {
             }
         });
         
-        return fileCount[0];
-    }
-    
-    private void optimizeFile(Path file) throws IOException {
-        String fileName = file.getFileName().toString().toLowerCase();
+        // Files are copied concurrently on the I/O executor; minifying is handed to the CPU pool
+        List<FileOptimizer.Result> results = executionPools.invokeAll(executionPools.getIoExecutor(), copies);
         
-        if (fileName.endsWith(".html")) {
-            optimizeHtmlFile(file);
-        } else if (fileName.endsWith(".css")) {
-            optimizeCssFile(file);
-        } else if (fileName.endsWith(".js")) {
-            optimizeJsFile(file);
+        Map<String, FileOptimizer.Result> files = new LinkedHashMap<>();
+        int hits = 0;
+        int misses = 0;
+        for (int i = 0; i < results.size(); i++) {
+            FileOptimizer.Result result = results.get(i);
+            files.put(paths.get(i), result);
+            if (result.getCacheOutcome() == FileOptimizer.CacheOutcome.HIT) {
+                hits++;
+            } else if (result.getCacheOutcome() == FileOptimizer.CacheOutcome.MISS) {
+                misses++;
+            }
         }
-    }
-    
-    private void optimizeHtmlFile(Path file) throws IOException {
-        String content = Files.readString(file);
-        
-        // Basic HTML optimization
-        content = content.replaceAll("\\s+", " "); // Collapse whitespace
-        content = content.replaceAll(">\\s+<", "><"); // Remove whitespace between tags
         
-        Files.writeString(file, content);
-    }
-    
-    private void optimizeCssFile(Path file) throws IOException {
-        String content = Files.readString(file);
-        
-        // Basic CSS optimization
-        content = content.replaceAll("\\s+", " "); // Collapse whitespace
-        content = content.replaceAll(";\\s*}", "}"); // Remove semicolon before closing brace
-        content = content.replaceAll("\\s*{\\s*", "{"); // Remove spaces around opening brace
-        content = content.replaceAll("\\s*}\\s*", "}"); // Remove spaces around closing brace
-        
-        Files.writeString(file, content);
+        if (remoteBuildCache.isEnabled()) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("hits", hits);
+            report.put("misses", misses);
+            context.addStageReport("remoteCache", report);
+        }
+        return files;
     }
     
-    private void optimizeJsFile(Path file) throws IOException {
-        String content = Files.readString(file);
+    private void generateDeploymentFiles(Path buildPath, String siteName, BuildContext context) throws IOException {
+        boolean fingerprinted = !context.getFingerprintedAssets().isEmpty();
         
-        // Basic JS optimization
-        content = content.replaceAll("\\s+", " "); // Collapse whitespace
-        content = content.replaceAll(";\\s*}", "}"); // Remove semicolon before closing brace
-        
-        Files.writeString(file, content);
-    }
-    
-    private void generateDeploymentFiles(Path buildPath, String siteName) throws IOException {
         // Generate .htaccess for Apache servers
-        generateHtaccess(buildPath);
+        generateHtaccess(buildPath, fingerprinted);
         
         // Generate netlify.toml for Netlify deployment
-        generateNetlifyConfig(buildPath, siteName);
+        generateNetlifyConfig(buildPath, siteName, context.getFingerprintedAssets());
         
         // Generate README for deployment instructions
         generateDeploymentReadme(buildPath, siteName);
     }
     
-    private void generateHtaccess(Path buildPath) throws IOException {
+    private void generateHtaccess(Path buildPath, boolean fingerprinted) throws IOException {
         String htaccessContent = """
             # Apache configuration for static site
             RewriteEngine On
@@ -262,10 +369,23 @@ public class SiteBuildServiceImpl implements SiteBuildService {
             </IfModule>
             """;
         
+        if (fingerprinted) {
+            // Fingerprinted file names change with their content, so they never need revalidation
+            htaccessContent += String.format("""
+                
+                # Cache fingerprinted assets forever
+                <IfModule mod_headers.c>
+                    <FilesMatch "\\.[0-9a-f]{%d}\\.(css|js)$">
+                        Header set Cache-Control "public, max-age=31536000, immutable"
+                    </FilesMatch>
+                </IfModule>
+                """, fingerprintLength);
+        }
+        
         Files.writeString(buildPath.resolve(".htaccess"), htaccessContent);
     }
     
-    private void generateNetlifyConfig(Path buildPath, String siteName) throws IOException {
+    private void generateNetlifyConfig(Path buildPath, String siteName, Map<String, String> fingerprintedAssets) throws IOException {
         String netlifyContent = """
             [build]
               publish = "."
@@ -279,7 +399,18 @@ public class SiteBuildServiceImpl implements SiteBuildService {
               NODE_VERSION = "18"
             """;
         
-        Files.writeString(buildPath.resolve("netlify.toml"), netlifyContent);
+        StringBuilder headers = new StringBuilder();
+        for (String asset : fingerprintedAssets.values()) {
+            headers.append(String.format("""
+                
+                [[headers]]
+                  for = "/%s"
+                  [headers.values]
+                    Cache-Control = "public, max-age=31536000, immutable"
+                """, asset));
+        }
+        
+        Files.writeString(buildPath.resolve("netlify.toml"), netlifyContent + headers);
     }
     
     private void generateDeploymentReadme(Path buildPath, String siteName) throws IOException {
@@ -335,20 +466,4 @@ public class SiteBuildServiceImpl implements SiteBuildService {
         });
         return count[0];
     }
-    
-    private void deleteDirectory(Path directory) throws IOException {
-        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.delete(file);
-                return FileVisitResult.CONTINUE;
-            }
-            
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                Files.delete(dir);
-                return FileVisitResult.CONTINUE;
-            }
-        });
-    }
 }
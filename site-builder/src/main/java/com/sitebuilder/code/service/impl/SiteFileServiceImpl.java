@@ -0,0 +1,344 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.SiteFileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files of published sites from {@code build/<siteName>}.
+ * The site symlink is resolved on every request, so a newly published version
+ * is served as soon as it is swapped in. Small files are kept in a bounded LRU
+ * cache; larger files are sent with Tomcat's sendfile when the connector
+ * supports it and with {@link FileChannel#transferTo} otherwise. Precompressed
+ * {@code .br}/{@code .gz} siblings are chosen from {@code Accept-Encoding}.
+ */
+@Service
+public class SiteFileServiceImpl implements SiteFileService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String INDEX_FILE = "index.html";
+    private static final int MAX_ETAGS = 10_000;
+
+    private final Map<String, CachedFile> hotFiles = new LinkedHashMap<>(64, 0.75f, true);
+    private long hotFileBytes;
+
+    private final Map<String, CachedFile> etags = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+            return size() > MAX_ETAGS;
+        }
+    };
+
+    private final Pattern fingerprintedName;
+
+    @Value("${site.builder.build.path:build}")
+    private String buildPath;
+
+    @Value("${site.builder.serve.enabled:true}")
+    private boolean enabled;
+
+    @Value("${site.builder.serve.cache-max-bytes:33554432}")
+    private long cacheMaxBytes;
+
+    @Value("${site.builder.serve.cache-max-file-bytes:65536}")
+    private long cacheMaxFileBytes;
+
+    public SiteFileServiceImpl(@Value("${site.builder.fingerprint.hash-length:10}") int hashLength) {
+        this.fingerprintedName = Pattern.compile("\\.[0-9a-f]{" + hashLength + "}\\.(css|js)$");
+    }
+
+    @Override
+    public void serveFile(String siteName, String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = enabled ? resolveFile(siteName, path) : null;
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String fileName = file.getFileName().toString();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+
+        // Ranges always refer to the identity encoding, so only full responses are precompressed
+        String encoding = rangeHeader == null ? chooseEncoding(file, request.getHeader(HttpHeaders.ACCEPT_ENCODING)) : null;
+        Path served = encoding == null ? file : file.resolveSibling(fileName + (encoding.equals("br") ? ".br" : ".gz"));
+
+        BasicFileAttributes attributes = Files.readAttributes(served, BasicFileAttributes.class);
+        long length = attributes.size();
+        CachedFile cached = length <= cacheMaxFileBytes ? hotFile(served, attributes) : null;
+        String etag = cached != null ? cached.etag : etag(served, attributes);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, fingerprintedName.matcher(fileName).find()
+            ? "public, max-age=31536000, immutable" : "no-cache");
+        response.setContentType(contentType(fileName));
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] range = parseRange(rangeHeader, length);
+            if (range != null && range.length == 0) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLength(0);
+                return;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (cached != null) {
+            response.getOutputStream().write(cached.content, (int) start, (int) count);
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector copies the file to the socket in the kernel after this method returns
+            request.setAttribute(SENDFILE_FILENAME, served.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            transfer(served, start, count, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Maps a request path to a regular file inside the live version of a site.
+     *
+     * @return the real path of the file, or null if it must not be served
+     */
+    private Path resolveFile(String siteName, String path) throws IOException {
+        if (siteName.isEmpty() || siteName.startsWith(".") || siteName.contains("/") || siteName.contains("\\")) {
+            return null;
+        }
+
+        for (String segment : path.split("/")) {
+            // Dotfiles such as .htaccess and '..' segments are never served
+            if (segment.startsWith(".") || segment.contains("\\")) {
+                return null;
+            }
+        }
+
+        try {
+            Path live = Paths.get(buildPath, siteName).toRealPath();
+            Path file = live.resolve(path);
+            if (path.isEmpty() || path.endsWith("/") || Files.isDirectory(file)) {
+                file = file.resolve(INDEX_FILE);
+            }
+
+            file = file.toRealPath();
+            return file.startsWith(live) && Files.isRegularFile(file) ? file : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String chooseEncoding(Path file, String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        boolean brotli = false;
+        boolean gzip = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = tokens.length > 1 && tokens[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            if (!refused) {
+                brotli |= name.equals("br");
+                gzip |= name.equals("gzip");
+            }
+        }
+
+        String fileName = file.getFileName().toString();
+        if (brotli && Files.isRegularFile(file.resolveSibling(fileName + ".br"))) {
+            return "br";
+        }
+        if (gzip && Files.isRegularFile(file.resolveSibling(fileName + ".gz"))) {
+            return "gzip";
+        }
+        return null;
+    }
+
+    /**
+     * Parses a single byte range.
+     *
+     * @return the inclusive start and end, an empty array if the range cannot be
+     *         satisfied, or null if the header should be ignored
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null; // Multiple ranges are answered with the whole file
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                return suffix == 0 || length == 0 ? new long[0] : new long[] {Math.max(0, length - suffix), length - 1};
+            }
+
+            long start = Long.parseLong(spec.substring(0, dash));
+            long end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+            if (end < start) {
+                return null;
+            }
+            return start >= length ? new long[0] : new long[] {start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentType(String fileName) {
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean text = mediaType.getType().equals("text") || mediaType.getSubtype().endsWith("javascript")
+            || mediaType.getSubtype().endsWith("json") || mediaType.getSubtype().endsWith("xml");
+        return text ? mediaType + ";charset=UTF-8" : mediaType.toString();
+    }
+
+    private CachedFile hotFile(Path file, BasicFileAttributes attributes) throws IOException {
+        String key = file.toString();
+        synchronized (hotFiles) {
+            CachedFile cached = hotFiles.get(key);
+            if (cached != null && cached.matches(attributes)) {
+                return cached;
+            }
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        CachedFile loaded = new CachedFile(attributes, content, etagOf(BuildFiles.sha256Hex(content)));
+
+        synchronized (hotFiles) {
+            CachedFile previous = hotFiles.put(key, loaded);
+            hotFileBytes += content.length - (previous != null ? previous.content.length : 0);
+
+            var eldest = hotFiles.values().iterator();
+            while (hotFileBytes > cacheMaxBytes && eldest.hasNext()) {
+                hotFileBytes -= eldest.next().content.length;
+                eldest.remove();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Gets a strong ETag from the file's content hash. Hashes are remembered by
+     * path, size and modification time, so each large file is read only once.
+     */
+    private String etag(Path file, BasicFileAttributes attributes) throws IOException {
+        String key = file.toString();
+        synchronized (etags) {
+            CachedFile known = etags.get(key);
+            if (known != null && known.matches(attributes)) {
+                return known.etag;
+            }
+        }
+
+        String etag = etagOf(BuildFiles.sha256Hex(file));
+
+        synchronized (etags) {
+            etags.put(key, new CachedFile(attributes, null, etag));
+        }
+        return etag;
+    }
+
+    private static void transfer(Path file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new IOException("File changed while it was being sent: " + file);
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static String etagOf(String sha256Hex) {
+        return "\"" + sha256Hex.substring(0, 32) + "\"";
+    }
+
+    private static final class CachedFile {
+
+        private final long size;
+        private final long lastModified;
+        private final byte[] content;
+        private final String etag;
+
+        private CachedFile(BasicFileAttributes attributes, byte[] content, String etag) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.content = content;
+            this.etag = etag;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildJobService;
+import com.sitebuilder.code.service.BuildPriority;
+import com.sitebuilder.code.service.SiteBuildException;
+import com.sitebuilder.code.service.SiteBuildService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Opt-in watch mode for the builder.
+ * Watches the generator output directory and rebuilds a site after its files
+ * stop changing for the configured debounce interval. Rebuilds go through the
+ * build queue at normal priority.
+ */
+@Component
+public class SiteWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteWatcher.class);
+
+    private final SiteBuildService siteBuildService;
+    private final BuildJobService buildJobService;
+
+    @Value("${site.builder.input.path:output}")
+    private String inputPath;
+
+    @Value("${site.builder.watch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${site.builder.watch.debounce-ms:500}")
+    private long debounceMillis;
+
+    private final Map<String, ScheduledFuture<?>> pendingDebounces = new ConcurrentHashMap<>();
+    private final Map<String, RebuildState> rebuildStates = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Path inputDir;
+    private Thread watchThread;
+    private ScheduledExecutorService debounceScheduler;
+
+    public SiteWatcher(SiteBuildService siteBuildService, BuildJobService buildJobService) {
+        this.siteBuildService = siteBuildService;
+        this.buildJobService = buildJobService;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        inputDir = Paths.get(inputPath).toAbsolutePath().normalize();
+        Files.createDirectories(inputDir);
+
+        watchService = inputDir.getFileSystem().newWatchService();
+        registerTree(inputDir);
+
+        debounceScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("site-watch-debounce"));
+
+        watchThread = new Thread(this::watchLoop, "site-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        log.info("Watching {} for site changes (debounce {} ms)", inputDir, debounceMillis);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService == null) {
+            return;
+        }
+
+        watchThread.interrupt();
+        watchService.close();
+        debounceScheduler.shutdownNow();
+    }
+
+    /**
+     * Returns whether watch mode is active.
+     *
+     * @return true if the input directory is being watched
+     */
+    public boolean isWatching() {
+        return watchService != null;
+    }
+
+    private void watchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    // Events were lost, so every site may be stale
+                    rebuildAllSites();
+                    continue;
+                }
+
+                Path changed = dir.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        registerTree(changed);
+                    } catch (IOException e) {
+                        log.warn("Failed to watch new directory {}: {}", changed, e.getMessage());
+                    }
+                }
+
+                String siteName = siteNameOf(changed);
+                if (siteName != null) {
+                    debounce(siteName);
+                }
+            }
+
+            key.reset();
+        }
+    }
+
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private String siteNameOf(Path changed) {
+        Path relativePath = inputDir.relativize(changed);
+        if (relativePath.getNameCount() == 0 || relativePath.toString().isEmpty()) {
+            return null;
+        }
+        return relativePath.getName(0).toString();
+    }
+
+    private void rebuildAllSites() {
+        try {
+            for (String siteName : siteBuildService.listAvailableSites()) {
+                debounce(siteName);
+            }
+        } catch (SiteBuildException e) {
+            log.warn("Failed to list sites after watch overflow: {}", e.getMessage());
+        }
+    }
+
+    private void debounce(String siteName) {
+        // Each new event pushes the rebuild back, so a burst of writes yields one build
+        pendingDebounces.compute(siteName, (name, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return debounceScheduler.schedule(() -> {
+                pendingDebounces.remove(name);
+                requestRebuild(name);
+            }, debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void requestRebuild(String siteName) {
+        RebuildState state = rebuildStates.computeIfAbsent(siteName, name -> new RebuildState());
+        synchronized (state) {
+            if (state.running) {
+                // Collapse any number of requests during a build into one follow-up
+                state.followUp = true;
+                return;
+            }
+            state.running = true;
+        }
+
+        submitRebuild(siteName, state);
+    }
+
+    private void submitRebuild(String siteName, RebuildState state) {
+        if (!Files.isDirectory(inputDir.resolve(siteName))) {
+            finishRebuild(siteName, state);
+            return;
+        }
+
+        try {
+            String jobId = buildJobService.submitJob(siteName, BuildPriority.NORMAL).getJobId();
+            buildJobService.awaitJob(jobId).whenComplete((response, error) -> {
+                if (error == null) {
+                    log.info("Rebuilt site '{}' after change ({} files, {} ms)",
+                        siteName, response.getFileCount(), response.getBuildTime());
+                } else {
+                    log.warn("Watch rebuild of site '{}' failed: {}", siteName, error.getMessage());
+                }
+                finishRebuild(siteName, state);
+            });
+        } catch (SiteBuildException e) {
+            log.warn("Failed to queue rebuild of site '{}': {}", siteName, e.getMessage());
+            finishRebuild(siteName, state);
+        }
+    }
+
+    private void finishRebuild(String siteName, RebuildState state) {
+        synchronized (state) {
+            if (!state.followUp) {
+                state.running = false;
+                return;
+            }
+            state.followUp = false;
+        }
+        submitRebuild(siteName, state);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        return new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + "-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static final class RebuildState {
+        private boolean running;
+        private boolean followUp;
+    }
+}
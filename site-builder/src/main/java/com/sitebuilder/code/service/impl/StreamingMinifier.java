@@ -0,0 +1,347 @@
+package com.sitebuilder.code.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Minifier for files too large to hold in memory.
+ * Decodes the input window by window with {@link MappedTextDecoder} into a
+ * fixed-size buffer and runs a character state machine that produces the
+ * same output as the regex minifiers in {@link FileOptimizer}. Memory use per file
+ * is bounded by the buffer sizes regardless of the input size.
+ */
+@Component
+public class StreamingMinifier {
+
+    @Value("${site.builder.optimize.buffer-size:65536}")
+    private int bufferSize = 65536;
+
+    @Value("${site.builder.optimize.map-window-bytes:67108864}")
+    private long mapWindowBytes = 64L * 1024 * 1024;
+
+    /**
+     * Minifies a file into a target file.
+     *
+     * @param source the file to read
+     * @param target the file to write; replaced atomically when complete
+     * @param syntax the syntax of the file
+     * @throws IOException if reading, decoding or writing fails
+     */
+    public void minify(Path source, Path target, MinifySyntax syntax) throws IOException {
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            EncodingSink sink = new EncodingSink(out, bufferSize);
+            MinifyMachine machine = createMachine(syntax, sink);
+            MappedTextDecoder.decode(in, bufferSize, mapWindowBytes, chunk -> {
+                while (chunk.hasRemaining()) {
+                    machine.accept(chunk.get());
+                }
+            });
+            machine.finish();
+            sink.close();
+
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static MinifyMachine createMachine(MinifySyntax syntax, EncodingSink sink) {
+        switch (syntax) {
+            case HTML:
+                return new HtmlMachine(sink);
+            case CSS:
+                return new CssMachine(sink);
+            default:
+                return new JsMachine(sink);
+        }
+    }
+
+    /**
+     * Whitespace as matched by {@code \s} in {@link java.util.regex.Pattern}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private abstract static class MinifyMachine {
+
+        protected final EncodingSink sink;
+
+        MinifyMachine(EncodingSink sink) {
+            this.sink = sink;
+        }
+
+        abstract void accept(char c) throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * Equivalent of collapsing {@code \s+} to one space, then removing {@code >\s+<}.
+     */
+    private static final class HtmlMachine extends MinifyMachine {
+
+        private boolean pendingSpace;
+        private char last;
+
+        HtmlMachine(EncodingSink sink) {
+            super(sink);
+        }
+
+        @Override
+        void accept(char c) throws IOException {
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                return;
+            }
+            if (pendingSpace && !(last == '>' && c == '<')) {
+                sink.write(' ');
+            }
+            pendingSpace = false;
+            sink.write(c);
+            last = c;
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (pendingSpace) {
+                sink.write(' ');
+            }
+        }
+    }
+
+    /**
+     * Equivalent of collapsing {@code \s+}, then removing {@code ;\s*}} semicolons
+     * and whitespace around braces. Pending state is "[space] [; [space]]", which
+     * is all that can still change once a later character arrives.
+     */
+    private static final class CssMachine extends MinifyMachine {
+
+        private boolean spaceBefore;
+        private boolean semicolon;
+        private boolean spaceAfter;
+        private boolean afterBrace;
+
+        CssMachine(EncodingSink sink) {
+            super(sink);
+        }
+
+        @Override
+        void accept(char c) throws IOException {
+            if (isWhitespace(c)) {
+                if (afterBrace) {
+                    return;
+                }
+                if (semicolon) {
+                    spaceAfter = true;
+                } else {
+                    spaceBefore = true;
+                }
+                return;
+            }
+
+            afterBrace = false;
+            if (c == ';') {
+                if (semicolon) {
+                    // Only the last semicolon before a brace is ever dropped
+                    writeSpaceBefore();
+                    sink.write(';');
+                    spaceBefore = spaceAfter;
+                    spaceAfter = false;
+                }
+                semicolon = true;
+            } else if (c == '}') {
+                reset();
+                sink.write('}');
+                afterBrace = true;
+            } else if (c == '{') {
+                if (semicolon) {
+                    writeSpaceBefore();
+                    sink.write(';');
+                }
+                reset();
+                sink.write('{');
+                afterBrace = true;
+            } else {
+                flushPending();
+                sink.write(c);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            flushPending();
+        }
+
+        private void writeSpaceBefore() throws IOException {
+            if (spaceBefore) {
+                sink.write(' ');
+            }
+        }
+
+        private void flushPending() throws IOException {
+            writeSpaceBefore();
+            if (semicolon) {
+                sink.write(';');
+            }
+            if (spaceAfter) {
+                sink.write(' ');
+            }
+            reset();
+        }
+
+        private void reset() {
+            spaceBefore = false;
+            semicolon = false;
+            spaceAfter = false;
+        }
+    }
+
+    /**
+     * Equivalent of collapsing {@code \s+} to one space, then removing {@code ;\s*}}.
+     */
+    private static final class JsMachine extends MinifyMachine {
+
+        private boolean spaceBefore;
+        private boolean semicolon;
+        private boolean spaceAfter;
+
+        JsMachine(EncodingSink sink) {
+            super(sink);
+        }
+
+        @Override
+        void accept(char c) throws IOException {
+            if (isWhitespace(c)) {
+                if (semicolon) {
+                    spaceAfter = true;
+                } else {
+                    spaceBefore = true;
+                }
+                return;
+            }
+
+            if (c == ';') {
+                if (semicolon) {
+                    writeSpaceBefore();
+                    sink.write(';');
+                    spaceBefore = spaceAfter;
+                    spaceAfter = false;
+                }
+                semicolon = true;
+            } else if (c == '}') {
+                writeSpaceBefore();
+                reset();
+                sink.write('}');
+            } else {
+                flushPending();
+                sink.write(c);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            flushPending();
+        }
+
+        private void writeSpaceBefore() throws IOException {
+            if (spaceBefore) {
+                sink.write(' ');
+            }
+        }
+
+        private void flushPending() throws IOException {
+            writeSpaceBefore();
+            if (semicolon) {
+                sink.write(';');
+            }
+            if (spaceAfter) {
+                sink.write(' ');
+            }
+            reset();
+        }
+
+        private void reset() {
+            spaceBefore = false;
+            semicolon = false;
+            spaceAfter = false;
+        }
+    }
+
+    /**
+     * Encodes characters to UTF-8 through fixed-size buffers into a channel.
+     */
+    private static final class EncodingSink {
+
+        private final FileChannel out;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private final CharBuffer chars;
+        private final ByteBuffer bytes;
+
+        EncodingSink(FileChannel out, int bufferSize) {
+            this.out = out;
+            this.chars = CharBuffer.allocate(bufferSize);
+            this.bytes = ByteBuffer.allocate(bufferSize * 4);
+        }
+
+        void write(char c) throws IOException {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            chars.put(c);
+        }
+
+        void close() throws IOException {
+            encode(true);
+            CoderResult result;
+            do {
+                result = encoder.flush(bytes);
+                writeBytes();
+            } while (result.isOverflow());
+        }
+
+        private void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                writeBytes();
+            } while (result.isOverflow());
+            // Keeps a dangling high surrogate for the next round
+            chars.compact();
+        }
+
+        private void writeBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sitebuilder.code.service.impl;
+
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.WarmupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the startup warm-up.
+ * Runs as an application runner, so it finishes before Spring Boot publishes
+ * the ready event and the readiness state changes to accepting traffic. The
+ * bundled site is generator output for a page of every section type; each
+ * iteration runs the full build pipeline on it (minifying, every build stage
+ * and the deployment files) into a staging directory that is then discarded,
+ * so nothing is published and no live site is touched.
+ */
+@Service
+public class WarmupServiceImpl implements WarmupService, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupServiceImpl.class);
+
+    private static final String SITE_NAME = "warmup";
+    private static final String SITE_RESOURCE = "warmup/site/";
+    private static final String[] SITE_FILES = {
+        "index.html", "about.html", "contact.html", "blog.html", "assets/styles.css", "assets/script.js"
+    };
+
+    private final SiteBuildServiceImpl siteBuildService;
+    private final BuildPublisher buildPublisher;
+
+    @Value("${site.builder.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${site.builder.warmup.iterations:30}")
+    private int iterations;
+
+    private volatile int completedIterations;
+    private volatile long durationMs = -1;
+    private volatile long firstIterationMs = -1;
+    private volatile long lastIterationMs = -1;
+    private final AtomicLong firstRequestMs = new AtomicLong(-1);
+
+    public WarmupServiceImpl(SiteBuildServiceImpl siteBuildService, BuildPublisher buildPublisher) {
+        this.siteBuildService = siteBuildService;
+        this.buildPublisher = buildPublisher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Path inputPath = null;
+        try {
+            inputPath = Files.createTempDirectory("site-builder-warmup");
+            Path sitePath = inputPath.resolve(SITE_NAME);
+            for (String file : SITE_FILES) {
+                Path target = sitePath.resolve(file);
+                Files.createDirectories(target.getParent());
+                try (InputStream in = new ClassPathResource(SITE_RESOURCE + file).getInputStream()) {
+                    Files.copy(in, target);
+                }
+            }
+
+            for (int i = 0; i < iterations; i++) {
+                long iterationStart = System.nanoTime();
+                Path stagingPath = buildPublisher.createStagingDirectory(SITE_NAME);
+                try {
+                    siteBuildService.buildInto(sitePath, new BuildContext(SITE_NAME, stagingPath));
+                } finally {
+                    buildPublisher.discard(stagingPath);
+                }
+                long iterationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - iterationStart);
+                if (i == 0) {
+                    firstIterationMs = iterationMs;
+                }
+                lastIterationMs = iterationMs;
+                completedIterations = i + 1;
+            }
+
+        } catch (IOException | RuntimeException e) {
+            // A failed warm-up only costs speed; the service still starts
+            log.warn("Warm-up stopped after {} iterations: {}", completedIterations, e.getMessage());
+        } finally {
+            if (inputPath != null) {
+                buildPublisher.discard(inputPath);
+            }
+        }
+
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Warm-up finished: {} iterations in {} ms (first {} ms, last {} ms)",
+            completedIterations, durationMs, firstIterationMs, lastIterationMs);
+    }
+
+    @Override
+    public void recordRequest(long durationMs) {
+        firstRequestMs.compareAndSet(-1, durationMs);
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("iterations", iterations);
+        metrics.put("completedIterations", completedIterations);
+        metrics.put("durationMs", durationMs);
+        metrics.put("firstIterationMs", firstIterationMs);
+        metrics.put("lastIterationMs", lastIterationMs);
+        metrics.put("firstRequestMs", firstRequestMs.get());
+        return metrics;
+    }
+}
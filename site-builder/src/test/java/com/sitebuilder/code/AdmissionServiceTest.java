@@ -0,0 +1,105 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.service.AdmissionRejectedException;
+import com.sitebuilder.code.service.AdmissionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for admission control.
+ * Tests endpoint and tenant limits, the bounded wait queue and 429 responses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/admission-output",
+    "site.builder.build.path=target/admission-build",
+    "site.builder.admission.queue-timeout-ms=100",
+    "site.builder.admission.limited.queue-timeout-ms=1000",
+    "site.builder.admission.limited.max-concurrent=2",
+    "site.builder.admission.limited.max-concurrent-per-tenant=1",
+    "site.builder.admission.limited.queue-size=1",
+    "site.builder.admission.build.max-concurrent=1"
+})
+class AdmissionServiceTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTenantAndEndpointLimits() throws Exception {
+        AdmissionService.Permit acme = admissionService.acquire("limited", "acme-blog");
+
+        // Same tenant prefix: waits out the queue timeout, then is rejected
+        AdmissionRejectedException tenantBusy = assertThrows(AdmissionRejectedException.class,
+            () -> admissionService.acquire("limited", "acme-shop"));
+        assertTrue(tenantBusy.getRetryAfterSeconds() >= 1);
+
+        AdmissionService.Permit other = admissionService.acquire("limited", "other");
+
+        // Endpoint full: one caller waits in the queue, the next is rejected at once
+        CompletableFuture<AdmissionService.Permit> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admissionService.acquire("limited", "third");
+            } catch (AdmissionRejectedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        awaitQueueDepth("limited", 1);
+        assertThrows(AdmissionRejectedException.class, () -> admissionService.acquire("limited", "fourth"));
+
+        other.close();
+        waiter.get(5, TimeUnit.SECONDS).close();
+        acme.close();
+        acme.close();
+
+        Map<String, Object> metrics = (Map<String, Object>) admissionService.getMetrics().get("limited");
+        assertEquals(0, metrics.get("inFlight"));
+        assertEquals(0, metrics.get("queueDepth"));
+        assertEquals(3L, metrics.get("admitted"));
+        assertEquals(1L, metrics.get("rejectedTimeout"));
+        assertEquals(1L, metrics.get("rejectedQueueFull"));
+        assertEquals(2L, metrics.get("rejected"));
+    }
+
+    @Test
+    void testBuildEndpointReturns429WithRetryAfter() throws Exception {
+        try (AdmissionService.Permit busy = admissionService.acquire("build", "busy")) {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/build?siteName=Rejected")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(429, response.statusCode());
+            assertTrue(Long.parseLong(response.headers().firstValue("Retry-After").orElseThrow()) >= 1);
+            assertTrue(response.body().contains("Too many concurrent build requests"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void awaitQueueDepth(String endpoint, int depth) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> metrics = (Map<String, Object>) admissionService.getMetrics().get(endpoint);
+            if (metrics != null && metrics.get("queueDepth").equals(depth)) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Queue never reached depth " + depth);
+    }
+}
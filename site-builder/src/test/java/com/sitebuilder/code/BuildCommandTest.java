@@ -0,0 +1,50 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.cli.BuildCommand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for the headless batch mode.
+ * Tests building by site directory and by input directory, and the exit codes
+ * for unknown sites and bad arguments.
+ */
+class BuildCommandTest {
+
+    private static final String BUILD_OPTION = "--site.builder.build.path=target/cli-build";
+
+    @Test
+    void testBuildsSiteDirectoriesAndInputDirectories() throws Exception {
+        Path input = Paths.get("target/cli-input");
+        createSite(input.resolve("cli-first"));
+        createSite(input.resolve("cli-second"));
+
+        assertEquals(0, BuildCommand.run(input.resolve("cli-first").toString(), BUILD_OPTION));
+        assertTrue(Files.exists(Paths.get("target/cli-build/cli-first/index.html")));
+
+        assertEquals(0, BuildCommand.run(input.toString(), BUILD_OPTION));
+        assertTrue(Files.exists(Paths.get("target/cli-build/cli-second/index.html")));
+    }
+
+    @Test
+    void testFailuresSetExitCode() throws Exception {
+        createSite(Paths.get("target/cli-input/cli-first"));
+
+        assertEquals(1, BuildCommand.run("missing-site", "--site.builder.input.path=target/cli-input", BUILD_OPTION));
+        assertEquals(2, BuildCommand.run(BUILD_OPTION));
+        assertEquals(2, BuildCommand.run("target/cli-input/cli-first", "target", BUILD_OPTION));
+    }
+
+    private void createSite(Path site) throws Exception {
+        Files.createDirectories(site.resolve("assets"));
+        Files.writeString(site.resolve("index.html"), "<!DOCTYPE html>\n<html>\n<head>\n"
+            + "<link rel=\"stylesheet\" href=\"assets/styles.css\">\n</head>\n"
+            + "<body>\n  <h1 class=\"title\">Built from the command line</h1>\n</body>\n</html>\n");
+        Files.writeString(site.resolve("assets/styles.css"), ".title {\n    color: #333;\n}\n");
+    }
+}
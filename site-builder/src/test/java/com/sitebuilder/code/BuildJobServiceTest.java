@@ -0,0 +1,186 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.dto.BuildJobResponse;
+import com.sitebuilder.code.service.BuildContext;
+import com.sitebuilder.code.service.BuildJobService;
+import com.sitebuilder.code.service.BuildPriority;
+import com.sitebuilder.code.service.BuildStage;
+import com.sitebuilder.code.service.SiteBuildException;
+import com.sitebuilder.code.service.impl.BuildPublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the build job queue.
+ * Tests submitting, polling and cancelling queued builds, that a build
+ * cancelled during its stages is never published, and that requests for a
+ * site with a waiting build join that build.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/queue-output",
+    "site.builder.build.path=target/queue-build",
+    "site.builder.queue.workers=1"
+})
+class BuildJobServiceTest {
+
+    private static final CountDownLatch stageEntered = new CountDownLatch(1);
+    private static final CountDownLatch stageReleased = new CountDownLatch(1);
+    private static volatile boolean holdStage;
+
+    @Autowired
+    private BuildJobService buildJobService;
+
+    @Autowired
+    private BuildPublisher buildPublisher;
+
+    @TestConfiguration
+    static class HoldingStageConfig {
+
+        // Holds the build of CancelledSite in its stages until the test releases it
+        @Bean
+        BuildStage holdingStage() {
+            return new BuildStage() {
+                @Override
+                public String getName() {
+                    return "holding";
+                }
+
+                @Override
+                public void apply(BuildContext context) {
+                    if (!holdStage || !"CancelledSite".equals(context.getSiteName())) {
+                        return;
+                    }
+                    stageEntered.countDown();
+                    // Ignores the interrupt, so only the cancellation checks can stop the build
+                    while (true) {
+                        try {
+                            stageReleased.await();
+                            return;
+                        } catch (InterruptedException e) {
+                            // keep waiting
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    @Test
+    void testJobBuildsSite() throws Exception {
+        Path siteDir = Paths.get("target/queue-output/QueuedSite");
+        Files.createDirectories(siteDir);
+        Files.writeString(siteDir.resolve("index.html"), "<html>\n  <body>Queued</body>\n</html>");
+
+        BuildJobResponse job = buildJobService.submitJob("QueuedSite", BuildPriority.INTERACTIVE);
+        assertEquals("INTERACTIVE", job.getPriority());
+
+        var result = buildJobService.awaitJob(job.getJobId()).get(30, TimeUnit.SECONDS);
+        assertEquals("SUCCESS", result.getStatus());
+
+        BuildJobResponse finished = buildJobService.getJob(job.getJobId());
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertNotNull(finished.getResult());
+        assertTrue(finished.getFinishedAt() >= finished.getStartedAt());
+    }
+
+    @Test
+    void testRequestsForWaitingSiteJoinOneBuild() throws Exception {
+        // Keeps the single worker busy so the next job stays queued
+        Path busyDir = Files.createDirectories(Paths.get("target/queue-output/BusySite"));
+        for (int i = 0; i < 300; i++) {
+            Files.writeString(busyDir.resolve("page" + i + ".html"), "<html>\n  <body>Busy " + i + "</body>\n</html>");
+        }
+        Path siteDir = Files.createDirectories(Paths.get("target/queue-output/JoinedSite"));
+        Files.writeString(siteDir.resolve("index.html"), "<html>\n  <body>Joined</body>\n</html>");
+
+        BuildJobResponse busy = buildJobService.submitJob("BusySite", BuildPriority.NORMAL);
+        BuildJobResponse first = buildJobService.submitJob("JoinedSite", BuildPriority.BULK);
+        BuildJobResponse second = buildJobService.submitJob("JoinedSite", BuildPriority.NORMAL);
+        BuildJobResponse third = buildJobService.submitJob("JoinedSite", BuildPriority.INTERACTIVE);
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertEquals(first.getJobId(), third.getJobId());
+        assertEquals(3, third.getRequests());
+        assertEquals("INTERACTIVE", third.getPriority());
+
+        assertEquals("SUCCESS", buildJobService.awaitJob(first.getJobId()).get(60, TimeUnit.SECONDS).getStatus());
+        assertEquals("SUCCESS", buildJobService.awaitJob(busy.getJobId()).get(60, TimeUnit.SECONDS).getStatus());
+
+        // A finished build is not joined
+        BuildJobResponse next = buildJobService.submitJob("JoinedSite", BuildPriority.NORMAL);
+        assertNotEquals(first.getJobId(), next.getJobId());
+        assertEquals(1, next.getRequests());
+        buildJobService.awaitJob(next.getJobId()).get(60, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testCancelledBuildIsNotPublished() throws Exception {
+        Path siteDir = Files.createDirectories(Paths.get("target/queue-output/CancelledSite"));
+        Files.writeString(siteDir.resolve("index.html"), "<html>\n  <body>First</body>\n</html>");
+        BuildJobResponse first = buildJobService.submitJob("CancelledSite", BuildPriority.NORMAL);
+        buildJobService.awaitJob(first.getJobId()).get(30, TimeUnit.SECONDS);
+        String liveVersion = buildPublisher.currentVersion("CancelledSite");
+
+        Files.writeString(siteDir.resolve("index.html"), "<html>\n  <body>Second</body>\n</html>");
+        holdStage = true;
+        try {
+            BuildJobResponse second = buildJobService.submitJob("CancelledSite", BuildPriority.NORMAL);
+            assertTrue(stageEntered.await(30, TimeUnit.SECONDS));
+            assertEquals("CANCELLED", buildJobService.cancelJob(second.getJobId()).getStatus());
+            stageReleased.countDown();
+
+            assertThrows(ExecutionException.class, () ->
+                buildJobService.awaitJob(second.getJobId()).get(30, TimeUnit.SECONDS));
+            // The single worker only takes the next job once the cancelled build has stopped
+            BuildJobResponse third = buildJobService.submitJob("MissingSite", BuildPriority.NORMAL);
+            assertThrows(ExecutionException.class, () ->
+                buildJobService.awaitJob(third.getJobId()).get(30, TimeUnit.SECONDS));
+        } finally {
+            holdStage = false;
+            stageReleased.countDown();
+        }
+
+        assertEquals(liveVersion, buildPublisher.currentVersion("CancelledSite"));
+        assertTrue(Files.readString(Paths.get("target/queue-build/CancelledSite/index.html")).contains("First"));
+    }
+
+    @Test
+    void testJobForMissingSiteFails() throws Exception {
+        BuildJobResponse job = buildJobService.submitJob("MissingSite", BuildPriority.BULK);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+            buildJobService.awaitJob(job.getJobId()).get(30, TimeUnit.SECONDS));
+        assertInstanceOf(SiteBuildException.class, error.getCause());
+        assertEquals("FAILED", buildJobService.getJob(job.getJobId()).getStatus());
+    }
+
+    @Test
+    void testCancelFinishedJobKeepsStatus() throws Exception {
+        BuildJobResponse job = buildJobService.submitJob("MissingSite", BuildPriority.NORMAL);
+        assertThrows(ExecutionException.class, () ->
+            buildJobService.awaitJob(job.getJobId()).get(30, TimeUnit.SECONDS));
+
+        assertEquals("FAILED", buildJobService.cancelJob(job.getJobId()).getStatus());
+    }
+
+    @Test
+    void testUnknownJob() {
+        assertThrows(SiteBuildException.class, () -> buildJobService.getJob("no-such-job"));
+        assertThrows(SiteBuildException.class, () -> buildJobService.cancelJob("no-such-job"));
+        assertTrue(buildJobService.getQueueDepth() >= 0);
+    }
+}
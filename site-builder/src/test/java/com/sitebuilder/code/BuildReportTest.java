@@ -0,0 +1,106 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.SiteBuildService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the per-build report.
+ * Tests the per-file entries, that a grown page is flagged against the
+ * previous build while unchanged files are not, and that old reports are pruned.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/report-output",
+    "site.builder.build.path=target/report-build",
+    "site.builder.report.top-n=2",
+    "site.builder.report.keep=2",
+    // Only sizes are asserted; times are too noisy for a test
+    "site.builder.report.time-regression-min-ms=100000"
+})
+class BuildReportTest {
+
+    @Autowired
+    private SiteBuildService siteBuildService;
+
+    @BeforeAll
+    static void cleanBuild() throws Exception {
+        // The first build must have no previous report to compare with
+        FileSystemUtils.deleteRecursively(Paths.get("target/report-build"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReportFlagsGrownFiles() throws Exception {
+        Path siteDir = Files.createDirectories(Paths.get("target/report-output/report-site/assets"));
+        Files.writeString(siteDir.resolve("styles.css"), "body {\n  color: red;\n}\n");
+        Files.write(siteDir.resolve("logo.bin"), new byte[3000]);
+        writePage(siteDir.getParent(), 10);
+
+        SiteBuildResponse first = siteBuildService.buildSite("report-site");
+        Map<String, Object> firstReport = (Map<String, Object>) first.getOptimizations().get("buildReport");
+        assertNotNull(firstReport);
+        assertNull(firstReport.get("previousVersion"));
+        assertFalse(firstReport.containsKey("files"));
+        assertEquals(2, ((List<?>) firstReport.get("largest")).size());
+        assertTrue(((Map<String, Object>) firstReport.get("stageTimesMs")).containsKey("optimize"));
+
+        Map<String, Object> stored = siteBuildService.getBuildReport("report-site");
+        Map<String, Map<String, Object>> files = byPath((List<Map<String, Object>>) stored.get("files"));
+        assertEquals("copy", files.get("assets/logo.bin").get("optimizer"));
+        assertEquals(3000, ((Number) files.get("assets/logo.bin").get("outputBytes")).intValue());
+        assertEquals("minify-css", files.get("assets/styles.css").get("optimizer"));
+        // Minifying shrinks the page; inlining critical CSS afterwards grows the published file
+        Map<String, Object> page = files.get("index.html");
+        assertTrue(((Number) page.get("optimizedBytes")).longValue() < ((Number) page.get("inputBytes")).longValue());
+        assertTrue(((Number) page.get("outputBytes")).longValue() > ((Number) page.get("optimizedBytes")).longValue());
+
+        // The page grows well past the thresholds; the other files are unchanged
+        writePage(siteDir.getParent(), 200);
+        SiteBuildResponse second = siteBuildService.buildSite("report-site");
+        Map<String, Object> secondReport = (Map<String, Object>) second.getOptimizations().get("buildReport");
+        assertEquals(firstReport.get("version"), secondReport.get("previousVersion"));
+
+        List<Map<String, Object>> regressions = (List<Map<String, Object>>) secondReport.get("regressions");
+        assertTrue(regressions.stream().anyMatch(r -> "index.html".equals(r.get("path"))
+            && "outputBytes".equals(r.get("metric"))), regressions.toString());
+        assertTrue(regressions.stream().anyMatch(r -> "totalOutputBytes".equals(r.get("metric"))), regressions.toString());
+        assertTrue(regressions.stream().noneMatch(r -> "assets/logo.bin".equals(r.get("path"))), regressions.toString());
+        assertTrue(regressions.stream().noneMatch(r -> "optimizeMs".equals(r.get("metric"))), regressions.toString());
+
+        siteBuildService.buildSite("report-site");
+        try (var reports = Files.list(Paths.get("target/report-build/.reports/report-site"))) {
+            assertEquals(2, reports.count());
+        }
+    }
+
+    private static void writePage(Path siteDir, int paragraphs) throws Exception {
+        StringBuilder html = new StringBuilder("<html>\n<head><link rel=\"stylesheet\" href=\"assets/styles.css\"></head>\n<body>\n");
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("    <p>\n        Paragraph ").append(i).append(" of the report test page.\n    </p>\n");
+        }
+        Files.writeString(siteDir.resolve("index.html"), html.append("</body>\n</html>\n"));
+    }
+
+    private static Map<String, Map<String, Object>> byPath(List<Map<String, Object>> files) {
+        Map<String, Map<String, Object>> byPath = new HashMap<>();
+        for (Map<String, Object> file : files) {
+            byPath.put((String) file.get("path"), file);
+        }
+        return byPath;
+    }
+}
@@ -0,0 +1,151 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.dto.SiteBuildResponse;
+import com.sitebuilder.code.service.BuildCacheService;
+import com.sitebuilder.code.service.SiteBuildService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the remote build cache.
+ * Starts a cache server and a builder node using it on localhost: the first
+ * build fills the cache, the second is served from it, malformed image entries
+ * are treated as misses, and a build after the server is gone falls back to
+ * optimizing locally.
+ */
+class RemoteBuildCacheTest {
+
+    private static final Path ROOT = Paths.get("target/remote-cache");
+
+    @Test
+    void testBuildsShareOptimizedOutputs() throws Exception {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Path siteDir = Files.createDirectories(ROOT.resolve("input/CachedSite/assets"));
+        Files.writeString(siteDir.resolveSibling("index.html"), "<html>\n  <body>\n    <p>Home</p>\n  </body>\n</html>");
+        Files.writeString(siteDir.resolveSibling("about.html"), "<html>\n  <body>\n    <p>About</p>\n  </body>\n</html>");
+        Files.writeString(siteDir.resolve("styles.css"), "body {\n  color: red;\n}\n");
+        Files.writeString(siteDir.resolve("script.js"), "console.log('hi');\n");
+        BufferedImage image = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(image, "png", siteDir.resolve("hero.png").toFile());
+
+        ConfigurableApplicationContext server = startNode(
+            "--site.builder.cache-server.enabled=true",
+            "--site.builder.cache-server.path=" + ROOT.resolve("server"),
+            "--site.builder.build.path=" + ROOT.resolve("server-build"));
+        String serverUrl = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+
+        try (ConfigurableApplicationContext builder = startNode(
+                 "--site.builder.remote-cache.url=" + serverUrl,
+                 "--site.builder.remote-cache.min-text-bytes=0",
+                 "--site.builder.input.path=" + ROOT.resolve("input"),
+                 "--site.builder.build.path=" + ROOT.resolve("build"))) {
+            SiteBuildService siteBuildService = builder.getBean(SiteBuildService.class);
+
+            SiteBuildResponse first = siteBuildService.buildSite("CachedSite");
+            assertCacheReport(first, 0, 4);
+            assertEquals(0, imageReport(first).get("remoteCacheHits"));
+            String firstIndex = Files.readString(ROOT.resolve("build/CachedSite/index.html"));
+
+            // A node without the local image cache fetches the encoded image instead of encoding it
+            FileSystemUtils.deleteRecursively(ROOT.resolve("build/.cache"));
+            SiteBuildResponse second = siteBuildService.buildSite("CachedSite");
+            assertCacheReport(second, 4, 0);
+            assertEquals(1, imageReport(second).get("remoteCacheHits"));
+            assertEquals(firstIndex, Files.readString(ROOT.resolve("build/CachedSite/index.html")));
+            assertEquals(5L, server.getBean(BuildCacheService.class).getMetrics().get("stores"));
+
+            // Archives with unknown names or files missing from their manifest are encoded locally instead
+            Path imageEntry = findImageEntry(ROOT.resolve("server"));
+            for (Map<String, String> files : List.of(
+                     Map.of("image.properties", "optimized=true\nwidth=1000\nheight=500\nvariants=\n", "original", "x", "..", "x"),
+                     Map.of("image.properties", "optimized=true\nwidth=1000\nheight=500\nvariants=480,960\n", "original", "x", "480", "x"))) {
+                Files.write(imageEntry, zip(files));
+                FileSystemUtils.deleteRecursively(ROOT.resolve("build/.cache"));
+                SiteBuildResponse malformed = siteBuildService.buildSite("CachedSite");
+                assertEquals("SUCCESS", malformed.getStatus());
+                assertEquals(0, imageReport(malformed).get("remoteCacheHits"));
+                assertEquals(1, imageReport(malformed).get("images"));
+                assertTrue(Files.exists(ROOT.resolve("build/CachedSite/assets/hero-960w.png")));
+            }
+
+            HttpResponse<String> badKey = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(serverUrl + "/cache/not-a-hash"))
+                    .PUT(HttpRequest.BodyPublishers.ofString("x")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, badKey.statusCode());
+
+            // Without the server every file is optimized locally
+            server.close();
+            assertCacheReport(siteBuildService.buildSite("CachedSite"), 0, 4);
+            assertEquals(firstIndex, Files.readString(ROOT.resolve("build/CachedSite/index.html")));
+        } finally {
+            server.close();
+        }
+    }
+
+    private static Path findImageEntry(Path cacheRoot) throws Exception {
+        try (var files = Files.walk(cacheRoot)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                byte[] content = Files.readAllBytes(file);
+                if (content.length > 2 && content[0] == 'P' && content[1] == 'K') {
+                    return file;
+                }
+            }
+        }
+        throw new AssertionError("No image archive in " + cacheRoot);
+    }
+
+    private static byte[] zip(Map<String, String> files) throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(archive)) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                out.putNextEntry(new ZipEntry(file.getKey()));
+                out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return archive.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertCacheReport(SiteBuildResponse response, int hits, int misses) {
+        assertEquals("SUCCESS", response.getStatus());
+        Map<String, Object> report = (Map<String, Object>) response.getOptimizations().get("remoteCache");
+        assertEquals(hits, report.get("hits"));
+        assertEquals(misses, report.get("misses"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> imageReport(SiteBuildResponse response) {
+        return (Map<String, Object>) response.getOptimizations().get("images");
+    }
+
+    private ConfigurableApplicationContext startNode(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--logging.level.org.springframework.web=INFO"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(SiteBuilderApplication.class).run(arguments.toArray(String[]::new));
+    }
+}
@@ -4,7 +4,17 @@ import com.sitebuilder.code.service.SiteBuildService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,13 +25,18 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 @TestPropertySource(properties = {
     "site.builder.input.path=target/test-output",
-    "site.builder.build.path=target/test-build"
+    "site.builder.build.path=target/test-build",
+    "site.builder.purge-css.safelist=.kept,#modal",
+    "site.builder.search.max-buffered-postings=4"
 })
 class SiteBuildIntegrationTest {
 
     @Autowired
     private SiteBuildService siteBuildService;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Test
     void testListAvailableSites() throws Exception {
         // This test will pass even if no sites are available
@@ -50,4 +65,352 @@ class SiteBuildIntegrationTest {
             siteBuildService.buildSite(null);
         });
     }
+
+    @Test
+    void testRebuildPublishesNewVersionAndRollsBack() throws Exception {
+        Path siteDir = Paths.get("target/test-output/VersionedSite");
+        Files.createDirectories(siteDir);
+        
+        Files.writeString(siteDir.resolve("index.html"), "<p>first</p>");
+        siteBuildService.buildSite("VersionedSite");
+        
+        Files.writeString(siteDir.resolve("index.html"), "<p>second</p>");
+        var response = siteBuildService.buildSite("VersionedSite");
+        
+        Path livePath = Paths.get(response.getBuildPath());
+        assertTrue(Files.isSymbolicLink(livePath), "Live site should be a link to a published version");
+        assertEquals("<p>second</p>", Files.readString(livePath.resolve("index.html")));
+        assertEquals("BUILT", siteBuildService.getBuildStatus("VersionedSite").getStatus());
+        
+        var rollback = siteBuildService.rollbackSite("VersionedSite");
+        assertEquals("ROLLED_BACK", rollback.getStatus());
+        assertEquals("<p>first</p>", Files.readString(livePath.resolve("index.html")));
+    }
+
+    @Test
+    void testAssetsAreFingerprinted() throws Exception {
+        Path siteDir = Paths.get("target/test-output/FingerprintSite");
+        Files.createDirectories(siteDir.resolve("assets"));
+        Files.writeString(siteDir.resolve("assets/styles.css"), "body { margin: 0; }");
+        Files.writeString(siteDir.resolve("assets/script.js"), "console.log('hi');");
+        Files.writeString(siteDir.resolve("index.html"),
+            "<link rel=\"stylesheet\" href=\"/assets/styles.css\"><script src=\"assets/script.js?v=1\"></script>");
+        
+        var response = siteBuildService.buildSite("FingerprintSite");
+        Path buildDir = Paths.get(response.getBuildPath());
+        
+        String html = Files.readString(buildDir.resolve("index.html"));
+        var cssMatch = java.util.regex.Pattern.compile("href=\"/assets/(styles\\.[0-9a-f]{10}\\.css)\"").matcher(html);
+        assertTrue(cssMatch.find(), "Stylesheet reference should be fingerprinted: " + html);
+        assertTrue(html.matches(".*src=\"assets/script\\.[0-9a-f]{10}\\.js\\?v=1\".*"), html);
+        assertTrue(Files.exists(buildDir.resolve("assets").resolve(cssMatch.group(1))));
+        assertFalse(Files.exists(buildDir.resolve("assets/styles.css")));
+        
+        assertTrue(Files.readString(buildDir.resolve(".htaccess")).contains("immutable"));
+        assertTrue(Files.readString(buildDir.resolve("netlify.toml"))
+            .contains("for = \"/assets/" + cssMatch.group(1) + "\""));
+        assertNotNull(response.getOptimizations().get("fingerprint"));
+    }
+
+    @Test
+    void testUnquotedAndImportedAssetsAreFingerprinted() throws Exception {
+        Path siteDir = Paths.get("target/test-output/UnquotedAssetSite");
+        Files.createDirectories(siteDir.resolve("assets"));
+        Files.writeString(siteDir.resolve("assets/base.css"), ".page { margin: 0; }");
+        Files.writeString(siteDir.resolve("assets/theme.css"), "@import \"base.css\";\n.page { color: red; }");
+        Files.writeString(siteDir.resolve("app.js"), "console.log('app');");
+        Files.writeString(siteDir.resolve("index.html"),
+            "<link rel=stylesheet href=assets/theme.css><div class=page>Home</div><script src=app.js></script>");
+        
+        var response = siteBuildService.buildSite("UnquotedAssetSite");
+        Path buildDir = Paths.get(response.getBuildPath());
+        String html = Files.readString(buildDir.resolve("index.html"));
+        
+        var script = java.util.regex.Pattern.compile("src=(app\\.[0-9a-f]{10}\\.js)>").matcher(html);
+        assertTrue(script.find(), html);
+        assertTrue(Files.exists(buildDir.resolve(script.group(1))));
+        assertFalse(Files.exists(buildDir.resolve("app.js")));
+        
+        var theme = java.util.regex.Pattern.compile("href=assets/(theme\\.[0-9a-f]{10}\\.css)").matcher(html);
+        assertTrue(theme.find(), html);
+        var base = java.util.regex.Pattern.compile("@import \"(base\\.[0-9a-f]{10}\\.css)\"")
+            .matcher(Files.readString(buildDir.resolve("assets").resolve(theme.group(1))));
+        assertTrue(base.find(), "Imported stylesheet should be fingerprinted");
+        assertTrue(Files.exists(buildDir.resolve("assets").resolve(base.group(1))));
+    }
+
+    @Test
+    void testUsedCssIsInlined() throws Exception {
+        Path siteDir = Paths.get("target/test-output/CriticalCssSite");
+        Files.createDirectories(siteDir.resolve("assets"));
+        Files.writeString(siteDir.resolve("assets/styles.css"),
+            "/* Site styles */\n.hero { color: red; }\n.unused { color: blue; }\n"
+                + "@media (max-width: 600px) { .hero h1 { font-size: 2rem; } .unused p { margin: 0; } }");
+        Files.writeString(siteDir.resolve("index.html"),
+            "<html><head><link rel=\"stylesheet\" href=\"assets/styles.css\"></head>"
+                + "<body><div class=\"section hero\"><h1>Hi</h1></div></body></html>");
+        
+        var response = siteBuildService.buildSite("CriticalCssSite");
+        String html = Files.readString(Paths.get(response.getBuildPath()).resolve("index.html"));
+        
+        assertTrue(html.contains("<style>.hero{color: red}@media (max-width: 600px){.hero h1{font-size: 2rem}}</style>"), html);
+        assertFalse(html.contains(".unused"));
+        assertTrue(html.contains("rel=\"preload\""));
+        assertTrue(html.contains("<noscript><link rel=\"stylesheet\""));
+        
+        @SuppressWarnings("unchecked")
+        var pages = (java.util.Map<String, java.util.Map<String, Object>>) response.getOptimizations().get("criticalCss");
+        var report = pages.get("index.html");
+        assertTrue(((Number) report.get("inlinedBytes")).longValue() > 0);
+        assertTrue(((Number) report.get("deferredBytes")).longValue() > 0);
+        assertFalse(report.containsKey("bytesSaved"));
+    }
+
+    @Test
+    void testInlinedCssUrlsAreRebasedToThePage() throws Exception {
+        Path siteDir = Paths.get("target/test-output/CriticalCssUrlSite");
+        Files.createDirectories(siteDir.resolve("assets/css"));
+        Files.createDirectories(siteDir.resolve("blog"));
+        Files.writeString(siteDir.resolve("assets/css/site.css"),
+            "@font-face { font-family: Brand; src: url(\"../fonts/brand.woff2?v=2\") format(\"woff2\"); }\n"
+                + ".hero { background: url( ../img/hero.png ) no-repeat; font-family: Brand; }\n"
+                + ".logo { background: url('/img/logo.png'); }\n"
+                + ".icon { background: url(data:image/gif;base64,R0lGOD==); }");
+        Files.writeString(siteDir.resolve("blog/post.html"),
+            "<html><head><link rel=\"stylesheet\" href=\"../assets/css/site.css\"></head>"
+                + "<body><div class=\"hero\"><span class=\"logo icon\">Post</span></div></body></html>");
+        
+        var response = siteBuildService.buildSite("CriticalCssUrlSite");
+        String html = Files.readString(Paths.get(response.getBuildPath()).resolve("blog/post.html"));
+        String inlined = html.substring(html.indexOf("<style>"), html.indexOf("</style>"));
+        
+        // Relative URLs now resolve from blog/ to the same files they did from assets/css/
+        assertTrue(inlined.contains("url(\"../assets/fonts/brand.woff2?v=2\")"), inlined);
+        assertTrue(inlined.contains("url(../assets/img/hero.png)"), inlined);
+        assertTrue(inlined.contains("url('/img/logo.png')"), inlined);
+        assertTrue(inlined.contains("url(data:image/gif;base64,R0lGOD==)"), inlined);
+    }
+
+    @Test
+    void testUnusedCssIsPurged() throws Exception {
+        Path siteDir = Paths.get("target/test-output/PurgeSite");
+        Files.createDirectories(siteDir.resolve("assets"));
+        Files.writeString(siteDir.resolve("assets/styles.css"),
+            ".hero{color:red}.skills{color:blue}#main p{margin:0}.kept{color:green}#modal{top:0}"
+                + "@font-face{font-family:x}@media print{.form{display:none}}");
+        Files.writeString(siteDir.resolve("index.html"), "<div class=\"hero\">Home</div>");
+        Files.writeString(siteDir.resolve("about.html"), "<main id=\"main\"><p>About</p></main>");
+        
+        var response = siteBuildService.buildSite("PurgeSite");
+        Path assets = Paths.get(response.getBuildPath()).resolve("assets");
+        Path stylesheet;
+        try (var files = Files.list(assets)) {
+            stylesheet = files.filter(file -> file.toString().endsWith(".css")).findFirst().orElseThrow();
+        }
+        
+        assertEquals(".hero{color:red}#main p{margin:0}.kept{color:green}#modal{top:0}@font-face{font-family:x}",
+            Files.readString(stylesheet));
+        assertNotNull(response.getOptimizations().get("purgeCss"));
+    }
+
+    @Test
+    void testImagesGetResponsiveVariants() throws Exception {
+        Path siteDir = Paths.get("target/test-output/ImageSite");
+        Files.createDirectories(siteDir.resolve("images"));
+        var image = new java.awt.image.BufferedImage(1200, 800, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        javax.imageio.ImageIO.write(image, "jpg", siteDir.resolve("images/photo.jpg").toFile());
+        Files.writeString(siteDir.resolve("index.html"), "<img src=\"images/photo.jpg\" alt=\"Photo\">");
+        
+        var response = siteBuildService.buildSite("ImageSite");
+        Path buildDir = Paths.get(response.getBuildPath());
+        String html = Files.readString(buildDir.resolve("index.html"));
+        
+        assertTrue(html.contains("width=\"1200\" height=\"800\""), html);
+        assertTrue(html.contains("srcset=\"images/photo-480w.jpg 480w, images/photo-960w.jpg 960w, images/photo.jpg 1200w\""), html);
+        assertTrue(Files.exists(buildDir.resolve("images/photo-480w.jpg")));
+        assertFalse(Files.exists(buildDir.resolve("images/photo-1600w.jpg")));
+        assertEquals(480, javax.imageio.ImageIO.read(buildDir.resolve("images/photo-480w.jpg").toFile()).getWidth());
+        
+        @SuppressWarnings("unchecked")
+        var report = (java.util.Map<String, Object>) siteBuildService.buildSite("ImageSite").getOptimizations().get("images");
+        assertEquals(1, report.get("cacheHits"));
+    }
+
+    @Test
+    void testImageCacheIsPrunedLeastRecentlyUsedFirst() throws Exception {
+        Path cacheDir = Paths.get("target/test-build/.cache/images");
+        FileSystemUtils.deleteRecursively(cacheDir);
+        Path siteDir = Paths.get("target/test-output/PrunedImageSite");
+        Files.createDirectories(siteDir);
+        var image = new java.awt.image.BufferedImage(600, 400, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        javax.imageio.ImageIO.write(image, "png", siteDir.resolve("photo.png").toFile());
+        Files.writeString(siteDir.resolve("index.html"), "<img src=\"photo.png\" alt=\"Photo\">");
+        siteBuildService.buildSite("PrunedImageSite");
+        
+        Path used;
+        long usedBytes = 0;
+        try (var entries = Files.list(cacheDir)) {
+            used = entries.findFirst().orElseThrow();
+        }
+        try (var files = Files.list(used)) {
+            for (Path file : files.toList()) {
+                usedBytes += Files.size(file);
+            }
+        }
+        
+        // An entry used an hour ago is over the size limit, one unused for 60 days is over the age limit
+        Path older = Files.createDirectories(cacheDir.resolve("a".repeat(64)));
+        Files.write(older.resolve("original"), new byte[1000]);
+        Files.setLastModifiedTime(older, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        Path expired = Files.createDirectories(cacheDir.resolve("b".repeat(64)));
+        Files.write(expired.resolve("original"), new byte[10]);
+        Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(60, ChronoUnit.DAYS)));
+        
+        Object stage = applicationContext.getBean("imageOptimizationStage");
+        Object maxBytes = ReflectionTestUtils.getField(stage, "cacheMaxBytes");
+        ReflectionTestUtils.setField(stage, "cacheMaxBytes", usedBytes + 500);
+        // Entries written behind the stage's back are only seen when it reads the cache directory again
+        ReflectionTestUtils.setField(stage, "cacheIndexed", false);
+        try {
+            @SuppressWarnings("unchecked")
+            var report = (java.util.Map<String, Object>) siteBuildService.buildSite("PrunedImageSite")
+                .getOptimizations().get("images");
+            assertEquals(1, report.get("cacheHits"));
+            assertEquals(2, report.get("cacheEntriesPruned"));
+            assertTrue(Files.isDirectory(used));
+            assertFalse(Files.exists(older));
+            assertFalse(Files.exists(expired));
+            
+            @SuppressWarnings("unchecked")
+            var nextReport = (java.util.Map<String, Object>) siteBuildService.buildSite("PrunedImageSite")
+                .getOptimizations().get("images");
+            assertEquals(0, nextReport.get("cacheEntriesPruned"));
+            assertTrue(Files.isDirectory(used));
+        } finally {
+            ReflectionTestUtils.setField(stage, "cacheMaxBytes", maxBytes);
+        }
+    }
+
+    @Test
+    void testImageMetadataIsDroppedEvenWhenReencodingIsLarger() throws Exception {
+        Path siteDir = Paths.get("target/test-output/MetadataImageSite");
+        Files.createDirectories(siteDir);
+        var image = new java.awt.image.BufferedImage(300, 200, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        var random = new java.util.Random(42);
+        for (int x = 0; x < 300; x++) {
+            for (int y = 0; y < 200; y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        
+        // A low quality JPEG re-encodes larger; a comment segment stands in for EXIF and GPS data
+        var out = new java.io.ByteArrayOutputStream();
+        var writer = javax.imageio.ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (var imageOut = javax.imageio.ImageIO.createImageOutputStream(out)) {
+            var param = writer.getDefaultWriteParam();
+            param.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.1f);
+            writer.setOutput(imageOut);
+            writer.write(null, new javax.imageio.IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        byte[] jpeg = out.toByteArray();
+        byte[] comment = "GPS 51.5074N 0.1278W".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        var tagged = new java.io.ByteArrayOutputStream();
+        tagged.write(jpeg, 0, 2);
+        tagged.write(new byte[] {(byte) 0xFF, (byte) 0xFE, 0, (byte) (comment.length + 2)});
+        tagged.write(comment);
+        tagged.write(jpeg, 2, jpeg.length - 2);
+        Files.write(siteDir.resolve("photo.jpg"), tagged.toByteArray());
+        Files.writeString(siteDir.resolve("index.html"), "<img src=\"photo.jpg\" alt=\"Photo\">");
+        
+        var response = siteBuildService.buildSite("MetadataImageSite");
+        byte[] built = Files.readAllBytes(Paths.get(response.getBuildPath()).resolve("photo.jpg"));
+        assertTrue(built.length > tagged.size());
+        assertFalse(new String(built, java.nio.charset.StandardCharsets.ISO_8859_1).contains("GPS 51.5074N"));
+    }
+
+    @Test
+    void testSearchIndexIsBuilt() throws Exception {
+        Path siteDir = Paths.get("target/test-output/SearchSite");
+        Files.createDirectories(siteDir.resolve("blog"));
+        Files.writeString(siteDir.resolve("index.html"),
+            "<title>Home</title><h1>Welcome</h1><p>Static sites are fast &amp; simple</p><script>var hidden;</script>");
+        Files.writeString(siteDir.resolve("about.html"), "<h1>About us</h1><p>We build static tools</p>");
+        Files.writeString(siteDir.resolve("blog/post.html"), "<title>First post</title><p>Fast builds, fast sites</p>");
+        
+        var response = siteBuildService.buildSite("SearchSite");
+        Path buildDir = Paths.get(response.getBuildPath());
+        assertTrue(Files.exists(buildDir.resolve("search.js")));
+        
+        @SuppressWarnings("unchecked")
+        var report = (java.util.Map<String, Object>) response.getOptimizations().get("search");
+        assertEquals(3, report.get("documents"));
+        assertTrue((Integer) report.get("spillRuns") > 1, "Small buffer should force spilled runs");
+        
+        var index = readSearchIndex(Files.readAllBytes(buildDir.resolve("search-index.bin")));
+        assertEquals(java.util.List.of("about.html", "blog/post.html", "index.html"), index.get(""));
+        assertEquals(java.util.List.of("blog/post.html", "index.html"), index.get("fast"));
+        assertEquals(java.util.List.of("about.html", "index.html"), index.get("static"));
+        assertNull(index.get("hidden"), "Script content should not be indexed");
+    }
+    
+    /**
+     * Decodes a search index into term to document URLs; the key "" lists all documents.
+     */
+    private static java.util.Map<String, java.util.List<String>> readSearchIndex(byte[] bytes) {
+        var in = java.nio.ByteBuffer.wrap(bytes);
+        assertEquals("SIDX", new String(bytes, 0, 4, java.nio.charset.StandardCharsets.US_ASCII));
+        in.position(5);
+        int docCount = readVarint(in);
+        int termCount = readVarint(in);
+        
+        var docs = new java.util.ArrayList<String>();
+        for (int i = 0; i < docCount; i++) {
+            docs.add(readString(in));
+            readString(in);
+        }
+        
+        var terms = new String[termCount];
+        var postingBytes = new int[termCount];
+        String previous = "";
+        for (int i = 0; i < termCount; i++) {
+            int shared = readVarint(in);
+            terms[i] = previous = previous.substring(0, shared) + readString(in);
+            readVarint(in);
+            postingBytes[i] = readVarint(in);
+        }
+        
+        var index = new java.util.HashMap<String, java.util.List<String>>();
+        index.put("", docs);
+        for (int i = 0; i < termCount; i++) {
+            int end = in.position() + postingBytes[i];
+            int id = 0;
+            var urls = new java.util.ArrayList<String>();
+            while (in.position() < end) {
+                id += readVarint(in);
+                urls.add(docs.get(id));
+            }
+            index.put(terms[i], urls);
+        }
+        return index;
+    }
+    
+    private static int readVarint(java.nio.ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+    
+    private static String readString(java.nio.ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,107 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.service.SiteBuildService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for serving built sites over HTTP.
+ * Tests conditional, range and precompressed responses against a running server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/serve-output",
+    "site.builder.build.path=target/serve-build"
+})
+class SiteFileServerTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SiteBuildService siteBuildService;
+
+    private String largeText;
+
+    @BeforeEach
+    void buildSite() throws Exception {
+        Path siteDir = Paths.get("target/serve-output/ServedSite");
+        Files.createDirectories(siteDir);
+        largeText = "Served content. ".repeat(16384);
+        Files.writeString(siteDir.resolve("index.html"), "<h1>" + largeText + "</h1>");
+        Files.writeString(siteDir.resolve("about.html"), "<p>About</p>");
+        Files.writeString(siteDir.resolve("data.txt"), largeText);
+        siteBuildService.buildSite("ServedSite");
+    }
+
+    @Test
+    void testConditionalAndCompressedResponses() throws Exception {
+        HttpResponse<String> page = get("/sites/ServedSite/about.html");
+        assertEquals(200, page.statusCode());
+        assertEquals("<p>About</p>", page.body());
+        assertTrue(page.headers().firstValue("Content-Type").orElse("").startsWith("text/html"));
+
+        String etag = page.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get("/sites/ServedSite/about.html", "If-None-Match", etag).statusCode());
+
+        HttpResponse<byte[]> compressed = client.send(request("/sites/ServedSite/", "Accept-Encoding", "gzip"),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElse(null));
+        String html = new String(new GZIPInputStream(new java.io.ByteArrayInputStream(compressed.body())).readAllBytes());
+        assertTrue(html.contains(largeText.trim()));
+    }
+
+    @Test
+    void testRangeRequestsOnLargeFile() throws Exception {
+        HttpResponse<String> whole = get("/sites/ServedSite/data.txt");
+        assertEquals(largeText, whole.body());
+
+        HttpResponse<String> range = get("/sites/ServedSite/data.txt", "Range", "bytes=16-31");
+        assertEquals(206, range.statusCode());
+        assertEquals("Served content. ", range.body());
+        assertEquals("bytes 16-31/" + largeText.length(), range.headers().firstValue("Content-Range").orElse(null));
+
+        assertEquals(416, get("/sites/ServedSite/data.txt", "Range", "bytes=999999999-").statusCode());
+    }
+
+    @Test
+    void testNewPublishIsServedAndHiddenFilesAreNot() throws Exception {
+        Files.writeString(Paths.get("target/serve-output/ServedSite/about.html"), "<p>Updated</p>");
+        siteBuildService.buildSite("ServedSite");
+        assertEquals("<p>Updated</p>", get("/sites/ServedSite/about.html").body());
+
+        assertEquals(404, get("/sites/ServedSite/.htaccess").statusCode());
+        assertEquals(404, get("/sites/ServedSite/missing.html").statusCode());
+        assertEquals(404, get("/sites/.versions/").statusCode());
+        assertEquals(404, get("/sites/ServedSite/%2e%2e/%2e%2e/pom.xml").statusCode());
+    }
+
+    private HttpResponse<String> get(String path, String... headers) throws Exception {
+        return client.send(request(path, headers), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path, String... headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+}
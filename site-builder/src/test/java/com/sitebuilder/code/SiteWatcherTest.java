@@ -0,0 +1,51 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.service.impl.SiteWatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for watch mode.
+ * Tests that changes in the generator output trigger a rebuild of the affected site.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/watch-output",
+    "site.builder.build.path=target/watch-build",
+    "site.builder.watch.enabled=true",
+    "site.builder.watch.debounce-ms=100"
+})
+class SiteWatcherTest {
+
+    @Autowired
+    private SiteWatcher siteWatcher;
+
+    @Test
+    void testChangeTriggersRebuild() throws Exception {
+        assertTrue(siteWatcher.isWatching());
+
+        Path siteDir = Paths.get("target/watch-output/WatchedSite");
+        Files.createDirectories(siteDir);
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(siteDir.resolve("index.html"), "<html>  <body>  version " + i + "  </body>  </html>");
+        }
+
+        Path builtPage = Paths.get("target/watch-build/WatchedSite/index.html");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline
+                && !(Files.exists(builtPage) && Files.readString(builtPage).contains("version 4"))) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(Files.exists(builtPage), "Site should be rebuilt after a change");
+        assertEquals("<html><body> version 4 </body></html>", Files.readString(builtPage));
+    }
+}
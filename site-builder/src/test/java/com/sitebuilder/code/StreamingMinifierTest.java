@@ -0,0 +1,96 @@
+package com.sitebuilder.code;
+
+import com.sitebuilder.code.service.impl.FileOptimizer;
+import com.sitebuilder.code.service.impl.MinifySyntax;
+import com.sitebuilder.code.service.impl.StreamingMinifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming large-file minifier.
+ * The streaming output must match the in-memory regex minifiers exactly.
+ */
+class StreamingMinifierTest {
+
+    private static final String ALPHABET = "ab<>{};: \t\n\r/é😀";
+
+    @TempDir
+    Path tempDir;
+
+    private StreamingMinifier streamingMinifier;
+
+    @BeforeEach
+    void setUp() {
+        streamingMinifier = new StreamingMinifier();
+        // Tiny buffers and windows force every boundary case
+        ReflectionTestUtils.setField(streamingMinifier, "bufferSize", 7);
+        ReflectionTestUtils.setField(streamingMinifier, "mapWindowBytes", 13L);
+    }
+
+    @Test
+    void testMatchesRegexMinifiersOnRandomInput() throws Exception {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 500; i++) {
+            String content = randomContent(random, random.nextInt(200));
+            for (MinifySyntax syntax : MinifySyntax.values()) {
+                assertEquals(FileOptimizer.minify(content, syntax), minifyStreaming(content, syntax),
+                    syntax + " mismatch for input: " + content);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesRegexMinifiersOnGeneratedAssets() throws Exception {
+        String css = ".a { color: red; }\n\n.b  {\n  margin: 0 ;\n}\n.c{ ; ;}";
+        String js = "function f() {\n  return 1;  \n}\nvar x = { a: 1 ; } ;";
+        String html = "<html>\n  <body>\n    <p> text  here </p>\n  </body>\n</html>\n";
+
+        assertEquals(FileOptimizer.minifyCss(css), minifyStreaming(css, MinifySyntax.CSS));
+        assertEquals(FileOptimizer.minifyJs(js), minifyStreaming(js, MinifySyntax.JS));
+        assertEquals(FileOptimizer.minifyHtml(html), minifyStreaming(html, MinifySyntax.HTML));
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        assertEquals("", minifyStreaming("", MinifySyntax.HTML));
+    }
+
+    @Test
+    void testMalformedInputIsRejected() throws Exception {
+        Path source = tempDir.resolve("bad.html");
+        Path target = tempDir.resolve("bad.min.html");
+        Files.write(source, new byte[]{'<', 'p', '>', (byte) 0xC3, '<'});
+
+        assertThrows(MalformedInputException.class,
+            () -> streamingMinifier.minify(source, target, MinifySyntax.HTML));
+        assertFalse(Files.exists(target.resolveSibling("bad.min.html.tmp")));
+    }
+
+    private String minifyStreaming(String content, MinifySyntax syntax) throws Exception {
+        Path source = tempDir.resolve("source.txt");
+        Path target = tempDir.resolve("target.txt");
+        Files.writeString(source, content);
+
+        streamingMinifier.minify(source, target, syntax);
+        return Files.readString(target);
+    }
+
+    private static String randomContent(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        int[] codePoints = ALPHABET.codePoints().toArray();
+        for (int i = 0; i < length; i++) {
+            builder.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.sitebuilder.code;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the startup warm-up.
+ * Tests that the warm-up runs before the service is ready, publishes nothing
+ * and that the first build request after it is recorded.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.builder.input.path=target/warmup-output",
+    "site.builder.build.path=target/warmup-build",
+    "site.builder.warmup.enabled=true",
+    "site.builder.warmup.iterations=3"
+})
+class WarmupTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testWarmupRunsBeforeReadiness() throws Exception {
+        HttpResponse<String> health = get("/api/health");
+        assertEquals(200, health.statusCode());
+        assertTrue(health.body().contains("\"status\":\"UP\""), health.body());
+
+        String metrics = get("/api/warmup").body();
+        assertTrue(metrics.contains("\"completedIterations\":3"), metrics);
+        assertTrue(metrics.contains("\"firstRequestMs\":-1"), metrics);
+        assertFalse(Files.exists(Paths.get("target/warmup-build/warmup")));
+
+        Path siteDir = Files.createDirectories(Paths.get("target/warmup-output/warm-site"));
+        Files.writeString(siteDir.resolve("index.html"), "<html><body><h1>Warm</h1></body></html>");
+        assertEquals(200, get("/api/build?siteName=warm-site").statusCode());
+
+        metrics = get("/api/warmup").body();
+        assertFalse(metrics.contains("\"firstRequestMs\":-1"), metrics);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,12 +1,19 @@
 package com.sitegenerator.code;
 
+import com.sitegenerator.code.cli.GenerateCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class SiteGeneratorApplication {
 
     public static void main(String[] args) {
+        // "generate <files>" runs a headless batch and exits instead of starting the server
+        if (args.length > 0 && GenerateCommand.NAME.equals(args[0])) {
+            System.exit(GenerateCommand.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         SpringApplication.run(SiteGeneratorApplication.class, args);
     }
 
@@ -0,0 +1,108 @@
+package com.sitegenerator.code.cli;
+
+import com.sitegenerator.code.SiteGeneratorApplication;
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.dto.SiteGenerationResponse;
+import com.sitegenerator.code.service.SiteGenerationException;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode: generates sites from JSON files and exits.
+ * Runs the application with the {@code cli} profile, which turns off the web
+ * server and initializes beans lazily, so only the generation service and what
+ * it depends on are created. Arguments are site JSON files or directories of
+ * them; {@code --name=value} arguments override configuration as usual.
+ */
+public final class GenerateCommand {
+
+    public static final String NAME = "generate";
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE =
+        "Usage: java -jar site-generator.jar generate [--property=value...] <site.json|directory>...";
+
+    private GenerateCommand() {
+    }
+
+    /**
+     * Generates every site named by the arguments.
+     *
+     * @param args site files, directories and configuration overrides
+     * @return the process exit code: 0 if every site was generated, 1 if any failed, 2 for bad arguments
+     */
+    public static int run(String... args) {
+        List<String> options = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--")) {
+                    options.add(arg);
+                } else {
+                    files.addAll(findSiteFiles(Paths.get(arg)));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        if (files.isEmpty()) {
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SiteGeneratorApplication.class)
+                .profiles("cli")
+                .run(options.toArray(String[]::new))) {
+            SiteGenerationService siteGenerationService = context.getBean(SiteGenerationService.class);
+
+            int failed = 0;
+            for (Path file : files) {
+                long start = System.currentTimeMillis();
+                try {
+                    CompactSite site;
+                    try (InputStream in = Files.newInputStream(file)) {
+                        site = siteGenerationService.readSite(in);
+                    }
+                    SiteGenerationResponse response = siteGenerationService.generateSite(site);
+                    System.out.printf("Generated %s: %d pages in %d ms -> %s%n", response.getSiteName(),
+                        response.getPagesGenerated(), System.currentTimeMillis() - start, response.getOutputPath());
+                } catch (IOException | ValidationException | SiteGenerationException e) {
+                    System.err.println("Failed to generate " + file + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+            return failed == 0 ? EXIT_OK : EXIT_FAILED;
+        }
+    }
+
+    private static List<Path> findSiteFiles(Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return List.of(path);
+        }
+        if (!Files.isDirectory(path)) {
+            throw new IOException("No such file or directory: " + path);
+        }
+        try (Stream<Path> entries = Files.list(path)) {
+            return entries
+                .filter(entry -> Files.isRegularFile(entry) && entry.getFileName().toString().endsWith(".json"))
+                .sorted()
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sitegenerator.code.controller;
+
+import com.sitegenerator.code.dto.ShardRequest;
+import com.sitegenerator.code.dto.ShardResponse;
+import com.sitegenerator.code.service.AdmissionRejectedException;
+import com.sitegenerator.code.service.AdmissionService;
+import com.sitegenerator.code.service.SiteGenerationException;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for the worker side of distributed generation.
+ * A coordinator node posts shards of a site here; the pages are written to
+ * this node's output path, which the nodes of a cluster share.
+ */
+@RestController
+@RequestMapping("/api")
+public class ShardController {
+
+    private final SiteGenerationService siteGenerationService;
+    private final AdmissionService admissionService;
+
+    public ShardController(SiteGenerationService siteGenerationService, AdmissionService admissionService) {
+        this.siteGenerationService = siteGenerationService;
+        this.admissionService = admissionService;
+    }
+
+    /**
+     * Generates the pages of one shard. A busy worker answers 429 so the
+     * coordinator retries the shard on another node.
+     *
+     * @param request the shard to generate
+     * @return response with the number of pages generated
+     */
+    @PostMapping("/shards")
+    public ResponseEntity<?> generateShard(@RequestBody ShardRequest request) {
+        try (AdmissionService.Permit permit = admissionService.acquire("shards", request.getSiteName())) {
+            ShardResponse response = siteGenerationService.generateShard(request);
+            return ResponseEntity.ok(response);
+
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(createErrorResponse(e.getMessage()));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Validation error: " + e.getMessage()));
+        } catch (SiteGenerationException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Generation error: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        return error;
+    }
+}
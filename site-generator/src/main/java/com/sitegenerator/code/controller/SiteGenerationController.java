@@ -1,20 +1,32 @@
 package com.sitegenerator.code.controller;
 
+import com.sitegenerator.code.domain.model.CompactSite;
 import com.sitegenerator.code.domain.model.Site;
 import com.sitegenerator.code.dto.SiteGenerationResponse;
+import com.sitegenerator.code.service.AdmissionRejectedException;
+import com.sitegenerator.code.service.AdmissionService;
+import com.sitegenerator.code.service.PreviewService;
 import com.sitegenerator.code.service.SiteGenerationException;
 import com.sitegenerator.code.service.SiteGenerationService;
 import com.sitegenerator.code.service.ValidationException;
+import com.sitegenerator.code.service.WarmupService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for site generation operations.
@@ -26,9 +38,19 @@ import java.util.Map;
 public class SiteGenerationController {
     
     private final SiteGenerationService siteGenerationService;
+    private final PreviewService previewService;
+    private final AdmissionService admissionService;
+    private final WarmupService warmupService;
+    private final ApplicationAvailability applicationAvailability;
     
-    public SiteGenerationController(SiteGenerationService siteGenerationService) {
+    public SiteGenerationController(SiteGenerationService siteGenerationService, PreviewService previewService,
+                                    AdmissionService admissionService, WarmupService warmupService,
+                                    ApplicationAvailability applicationAvailability) {
         this.siteGenerationService = siteGenerationService;
+        this.previewService = previewService;
+        this.admissionService = admissionService;
+        this.warmupService = warmupService;
+        this.applicationAvailability = applicationAvailability;
     }
     
     /**
@@ -77,16 +99,37 @@ public class SiteGenerationController {
     
     /**
      * Generates a static site from JSON content in request body.
+     * The body is read page by page straight into the compact form, so the
+     * site never exists as a whole object graph. Requests beyond the admission
+     * limits are rejected with 429 and a Retry-After delay instead of competing
+     * for CPU and disk.
      * 
-     * @param site the site description
+     * @param body the site description as JSON
      * @return response with generation details
      */
     @PostMapping("/generate/json")
-    public ResponseEntity<?> generateSiteFromJson(@Valid @RequestBody Site site) {
+    public ResponseEntity<?> generateSiteFromJson(InputStream body) {
+        long start = System.nanoTime();
+        CompactSite site;
         try {
+            site = siteGenerationService.readSite(body);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Validation error: " + e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Invalid site JSON: " + e.getMessage()));
+        }
+        
+        try (AdmissionService.Permit permit = admissionService.acquire("generate", site.getSiteName())) {
             SiteGenerationResponse response = siteGenerationService.generateSite(site);
+            warmupService.recordRequest(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             return ResponseEntity.ok(response);
             
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(createErrorResponse(e.getMessage()));
         } catch (SiteGenerationException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(createErrorResponse("Generation error: " + e.getMessage()));
@@ -96,19 +139,95 @@ public class SiteGenerationController {
         }
     }
     
+    /**
+     * Renders one page of a site for a live preview and streams the HTML back.
+     * Nothing is written to disk; errors found before the page starts
+     * streaming are answered as JSON like the other endpoints.
+     * 
+     * @param site the site description
+     * @param page the slug of the page to render, the first page if absent
+     * @param response the response the page is streamed to
+     * @return null once the page has been streamed, otherwise the error response
+     */
+    @PostMapping("/preview")
+    public ResponseEntity<?> previewPage(@Valid @RequestBody Site site,
+                                         @RequestParam(value = "page", required = false) String page,
+                                         HttpServletResponse response) {
+        try (AdmissionService.Permit permit = admissionService.acquire("preview", site.getSiteName())) {
+            previewService.renderPage(site, page, () -> {
+                response.setContentType(MediaType.TEXT_HTML_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                return response.getWriter();
+            });
+            return null;
+            
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(createErrorResponse(e.getMessage()));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Validation error: " + e.getMessage()));
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Part of the page is already on its way; the client sees a truncated page
+                return null;
+            }
+            response.reset();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Preview error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Gets preview metrics: pages previewed and content-file cache statistics.
+     * 
+     * @return preview metrics
+     */
+    @GetMapping("/preview/metrics")
+    public ResponseEntity<Map<String, Object>> getPreviewMetrics() {
+        return ResponseEntity.ok(previewService.getMetrics());
+    }
+    
+    /**
+     * Gets admission control metrics: in-flight requests, queue depth and
+     * rejection counts per endpoint.
+     * 
+     * @return admission metrics keyed by endpoint
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionMetrics() {
+        return ResponseEntity.ok(admissionService.getMetrics());
+    }
+    
+    /**
+     * Gets startup warm-up metrics: duration, per-iteration times and the
+     * latency of the first generation request.
+     * 
+     * @return warm-up metrics
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<Map<String, Object>> getWarmupMetrics() {
+        return ResponseEntity.ok(warmupService.getMetrics());
+    }
+    
     /**
      * Health check endpoint.
+     * Answers 503 until the service is ready for traffic, i.e. while the
+     * startup warm-up is still running and again during shutdown.
      * 
      * @return service status
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
+        boolean ready = applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        
         Map<String, String> status = new HashMap<>();
-        status.put("status", "UP");
+        status.put("status", ready ? "UP" : "OUT_OF_SERVICE");
         status.put("service", "site-generator");
         status.put("timestamp", String.valueOf(System.currentTimeMillis()));
         
-        return ResponseEntity.ok(status);
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(status);
     }
     
     /**
@@ -0,0 +1,103 @@
+package com.sitegenerator.code.controller;
+
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.dto.PagePatch;
+import com.sitegenerator.code.dto.SitePatchResponse;
+import com.sitegenerator.code.service.AdmissionRejectedException;
+import com.sitegenerator.code.service.AdmissionService;
+import com.sitegenerator.code.service.SiteGenerationException;
+import com.sitegenerator.code.service.SitePatchService;
+import com.sitegenerator.code.service.ValidationException;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for incremental changes to generated sites.
+ * A page or a single section is patched in place of resubmitting the whole
+ * site, and only the files that depend on it are regenerated.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Allow CORS for frontend integration
+public class SitePatchController {
+
+    private final SitePatchService sitePatchService;
+    private final AdmissionService admissionService;
+
+    public SitePatchController(SitePatchService sitePatchService, AdmissionService admissionService) {
+        this.sitePatchService = sitePatchService;
+        this.admissionService = admissionService;
+    }
+
+    /**
+     * Changes the title, slug or sections of a page of a generated site.
+     *
+     * @param siteName the name of the site
+     * @param slug the current slug of the page
+     * @param patch the fields to change
+     * @return response listing the files written and removed
+     */
+    @PatchMapping("/sites/{siteName}/pages/{slug}")
+    public ResponseEntity<?> patchPage(@PathVariable String siteName, @PathVariable String slug,
+                                       @Valid @RequestBody PagePatch patch) {
+        try (AdmissionService.Permit permit = admissionService.acquire("patch", siteName)) {
+            SitePatchResponse response = sitePatchService.patchPage(siteName, slug, patch);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Replaces one section of a page of a generated site.
+     *
+     * @param siteName the name of the site
+     * @param slug the slug of the page
+     * @param index the index of the section within the page
+     * @param section the new section
+     * @return response listing the files written
+     */
+    @PatchMapping("/sites/{siteName}/pages/{slug}/sections/{index}")
+    public ResponseEntity<?> patchSection(@PathVariable String siteName, @PathVariable String slug,
+                                          @PathVariable int index, @Valid @RequestBody Section section) {
+        try (AdmissionService.Permit permit = admissionService.acquire("patch", siteName)) {
+            SitePatchResponse response = sitePatchService.patchSection(siteName, slug, index, section);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    private ResponseEntity<?> errorResponse(Exception e) {
+        if (e instanceof AdmissionRejectedException rejected) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()))
+                .body(createErrorResponse(rejected.getMessage()));
+        }
+        if (e instanceof ValidationException) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Validation error: " + e.getMessage()));
+        }
+        if (e instanceof SiteGenerationException) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Generation error: " + e.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(createErrorResponse("Unexpected error: " + e.getMessage()));
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        return error;
+    }
+}
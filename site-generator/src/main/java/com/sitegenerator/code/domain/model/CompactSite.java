@@ -0,0 +1,494 @@
+package com.sitegenerator.code.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, memory-efficient form of a {@link Site} used during generation.
+ * Every distinct string or content value is stored once in a shared pool and
+ * referenced by index; section types are one-byte codes into a small type
+ * table; pages, sections, list items and content entries are laid out in flat
+ * arrays addressed by offsets instead of per-section objects and collections.
+ * A reference of {@code -1} stands for null.
+ */
+public final class CompactSite {
+
+    private static final int NULL = -1;
+
+    private final Object[] pool;
+    private final int siteName;
+    private final String[] typeNames;
+
+    private final int[] pageTitles;
+    private final int[] pageSlugs;
+    private final int[] pageSectionOffsets;
+
+    private final byte[] sectionTypes;
+    private final int[] sectionHeadings;
+    private final int[] sectionTexts;
+    private final int[] sectionTextRefs;
+
+    private final int[] itemOffsets;
+    private final int[] items;
+    private final BitSet nullItems;
+
+    private final int[] fieldOffsets;
+    private final int[] fields;
+    private final BitSet nullFields;
+
+    private final int[] contentOffsets;
+    private final int[] contentKeys;
+    private final int[] contentValues;
+    private final BitSet nullContent;
+
+    private volatile Site navigationSite;
+
+    private CompactSite(Builder builder) {
+        this.pool = builder.pool.toArray();
+        this.siteName = builder.siteName;
+        this.typeNames = builder.typeNames.toArray(new String[0]);
+        this.pageTitles = builder.pageTitles.toArray();
+        this.pageSlugs = builder.pageSlugs.toArray();
+        this.pageSectionOffsets = builder.pageSectionOffsets.toArray();
+        this.sectionTypes = builder.sectionTypes.toArray();
+        this.sectionHeadings = builder.sectionHeadings.toArray();
+        this.sectionTexts = builder.sectionTexts.toArray();
+        this.sectionTextRefs = builder.sectionTextRefs.toArray();
+        this.itemOffsets = builder.itemOffsets.toArray();
+        this.items = builder.items.toArray();
+        this.nullItems = builder.nullItems;
+        this.fieldOffsets = builder.fieldOffsets.toArray();
+        this.fields = builder.fields.toArray();
+        this.nullFields = builder.nullFields;
+        this.contentOffsets = builder.contentOffsets.toArray();
+        this.contentKeys = builder.contentKeys.toArray();
+        this.contentValues = builder.contentValues.toArray();
+        this.nullContent = builder.nullContent;
+    }
+
+    /**
+     * Converts a deserialized site into its compact form.
+     *
+     * @param site the site to convert
+     * @return the compact site
+     */
+    public static CompactSite from(Site site) {
+        Builder builder = builder();
+        builder.setSiteName(site.getSiteName());
+        for (Page page : site.getPages()) {
+            builder.addPage(page);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Starts a compact site that is filled one page at a time, so a site read
+     * from a stream never has to exist as a {@link Site} object graph.
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getSiteName() {
+        return string(siteName);
+    }
+
+    public int getPageCount() {
+        return pageTitles.length;
+    }
+
+    public String getPageTitle(int page) {
+        return string(pageTitles[page]);
+    }
+
+    public String getPageSlug(int page) {
+        return string(pageSlugs[page]);
+    }
+
+    /**
+     * Gets the index of a page's first section.
+     *
+     * @param page the page index
+     * @return the first section index
+     */
+    public int getSectionStart(int page) {
+        return pageSectionOffsets[page];
+    }
+
+    /**
+     * Gets the index after a page's last section.
+     *
+     * @param page the page index
+     * @return the end section index (exclusive)
+     */
+    public int getSectionEnd(int page) {
+        return pageSectionOffsets[page + 1];
+    }
+
+    public int getSectionCount() {
+        return sectionTypes.length;
+    }
+
+    public String getSectionType(int section) {
+        return typeNames[Byte.toUnsignedInt(sectionTypes[section])];
+    }
+
+    public String getHeading(int section) {
+        return string(sectionHeadings[section]);
+    }
+
+    public String getText(int section) {
+        return string(sectionTexts[section]);
+    }
+
+    /**
+     * Gets the content file reference whose contents stand in for a section's text.
+     *
+     * @param section the section index
+     * @return the reference, or null if the section has none
+     */
+    public String getTextRef(int section) {
+        return string(sectionTextRefs[section]);
+    }
+
+    /**
+     * Checks whether any section of a page refers to a content file.
+     *
+     * @param page the page index
+     * @return true if the page has text references
+     */
+    public boolean hasTextRefs(int page) {
+        for (int section = getSectionStart(page); section < getSectionEnd(page); section++) {
+            if (sectionTextRefs[section] != NULL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasItems(int section) {
+        return !nullItems.get(section);
+    }
+
+    public int getItemCount(int section) {
+        return itemOffsets[section + 1] - itemOffsets[section];
+    }
+
+    public String getItem(int section, int index) {
+        return string(items[itemOffsets[section] + index]);
+    }
+
+    public boolean hasFields(int section) {
+        return !nullFields.get(section);
+    }
+
+    public int getFieldCount(int section) {
+        return fieldOffsets[section + 1] - fieldOffsets[section];
+    }
+
+    public String getField(int section, int index) {
+        return string(fields[fieldOffsets[section] + index]);
+    }
+
+    public boolean hasContent(int section) {
+        return !nullContent.get(section);
+    }
+
+    public int getContentSize(int section) {
+        return contentOffsets[section + 1] - contentOffsets[section];
+    }
+
+    public String getContentKey(int section, int index) {
+        return string(contentKeys[contentOffsets[section] + index]);
+    }
+
+    public Object getContentValue(int section, int index) {
+        return value(contentValues[contentOffsets[section] + index]);
+    }
+
+    /**
+     * Looks up a content value by key.
+     *
+     * @param section the section index
+     * @param key the content key
+     * @return the value, or null if the section has no such key
+     */
+    public Object getContentValue(int section, String key) {
+        for (int i = contentOffsets[section]; i < contentOffsets[section + 1]; i++) {
+            if (key.equals(pool[contentKeys[i]])) {
+                return value(contentValues[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of distinct values stored in the shared pool.
+     *
+     * @return the pool size
+     */
+    public int getPoolSize() {
+        return pool.length;
+    }
+
+    /**
+     * Rebuilds one page as domain objects, for code that needs the object model.
+     *
+     * @param page the page index
+     * @return a new page with its sections
+     */
+    public Page toPage(int page) {
+        List<Section> sections = new ArrayList<>(getSectionEnd(page) - getSectionStart(page));
+        for (int section = getSectionStart(page); section < getSectionEnd(page); section++) {
+            sections.add(toSection(section));
+        }
+        return new Page(getPageTitle(page), getPageSlug(page), sections);
+    }
+
+    /**
+     * Gets the site with every page's title and slug but no sections, which is
+     * all the page navigation needs. It is built on first use and shared by
+     * every page rendered from this site, so rendering all pages does not
+     * rebuild the page list once per page; callers must not modify it.
+     *
+     * @return the site without page sections
+     */
+    public Site getNavigationSite() {
+        Site site = navigationSite;
+        if (site == null) {
+            // Racing threads build equal sites; whichever is published last is kept
+            List<Page> pages = new ArrayList<>(getPageCount());
+            for (int page = 0; page < getPageCount(); page++) {
+                pages.add(new Page(getPageTitle(page), getPageSlug(page), Collections.emptyList()));
+            }
+            site = new Site(getSiteName(), Collections.unmodifiableList(pages));
+            navigationSite = site;
+        }
+        return site;
+    }
+
+    private Section toSection(int section) {
+        Section result = new Section(getSectionType(section));
+        result.setHeading(getHeading(section));
+        result.setText(getText(section));
+        result.setTextRef(getTextRef(section));
+        if (hasItems(section)) {
+            List<String> sectionItems = new ArrayList<>(getItemCount(section));
+            for (int i = 0; i < getItemCount(section); i++) {
+                sectionItems.add(getItem(section, i));
+            }
+            result.setItems(sectionItems);
+        }
+        if (hasFields(section)) {
+            List<String> sectionFields = new ArrayList<>(getFieldCount(section));
+            for (int i = 0; i < getFieldCount(section); i++) {
+                sectionFields.add(getField(section, i));
+            }
+            result.setFields(sectionFields);
+        }
+        if (hasContent(section)) {
+            Map<String, Object> content = new LinkedHashMap<>();
+            for (int i = 0; i < getContentSize(section); i++) {
+                content.put(getContentKey(section, i), getContentValue(section, i));
+            }
+            result.setContent(content);
+        }
+        return result;
+    }
+
+    private String string(int ref) {
+        return ref == NULL ? null : (String) pool[ref];
+    }
+
+    private Object value(int ref) {
+        return ref == NULL ? null : pool[ref];
+    }
+
+    /**
+     * Accumulates the flat arrays while a site is converted or read.
+     */
+    public static final class Builder {
+
+        private final Map<Object, Integer> refs = new HashMap<>();
+        private final List<Object> pool = new ArrayList<>();
+        private final List<String> typeNames = new ArrayList<>();
+        private final Map<String, Byte> typeCodes = new HashMap<>();
+        private int siteName = NULL;
+
+        private final IntList pageTitles = new IntList();
+        private final IntList pageSlugs = new IntList();
+        private final IntList pageSectionOffsets = new IntList();
+
+        private final ByteList sectionTypes = new ByteList();
+        private final IntList sectionHeadings = new IntList();
+        private final IntList sectionTexts = new IntList();
+        private final IntList sectionTextRefs = new IntList();
+
+        private final IntList itemOffsets = new IntList();
+        private final IntList items = new IntList();
+        private final BitSet nullItems = new BitSet();
+
+        private final IntList fieldOffsets = new IntList();
+        private final IntList fields = new IntList();
+        private final BitSet nullFields = new BitSet();
+
+        private final IntList contentOffsets = new IntList();
+        private final IntList contentKeys = new IntList();
+        private final IntList contentValues = new IntList();
+        private final BitSet nullContent = new BitSet();
+
+        private Builder() {
+            pageSectionOffsets.add(0);
+            itemOffsets.add(0);
+            fieldOffsets.add(0);
+            contentOffsets.add(0);
+        }
+
+        public Builder setSiteName(String name) {
+            siteName = ref(name);
+            return this;
+        }
+
+        public int getPageCount() {
+            return pageTitles.size();
+        }
+
+        /**
+         * Appends a page. Nothing refers to the page afterwards, so it can be
+         * collected as soon as the caller drops it.
+         *
+         * @param page the next page of the site
+         * @return this builder
+         */
+        public Builder addPage(Page page) {
+            pageTitles.add(ref(page.getTitle()));
+            pageSlugs.add(ref(page.getSlug()));
+            if (page.getSections() != null) {
+                for (Section section : page.getSections()) {
+                    addSection(section);
+                }
+            }
+            pageSectionOffsets.add(sectionTypes.size());
+            return this;
+        }
+
+        public CompactSite build() {
+            return new CompactSite(this);
+        }
+
+        private void addSection(Section section) {
+            int index = sectionTypes.size();
+            sectionTypes.add(typeCode(section.getType()));
+            sectionHeadings.add(ref(section.getHeading()));
+            sectionTexts.add(ref(section.getText()));
+            sectionTextRefs.add(ref(section.getTextRef()));
+
+            addAll(section.getItems(), items, itemOffsets, nullItems, index);
+            addAll(section.getFields(), fields, fieldOffsets, nullFields, index);
+
+            Map<String, Object> content = section.getContent();
+            if (content == null) {
+                nullContent.set(index);
+            } else {
+                for (Map.Entry<String, Object> entry : content.entrySet()) {
+                    contentKeys.add(ref(entry.getKey()));
+                    contentValues.add(ref(entry.getValue()));
+                }
+            }
+            contentOffsets.add(contentKeys.size());
+        }
+
+        private void addAll(List<String> values, IntList target, IntList offsets, BitSet nulls, int index) {
+            if (values == null) {
+                nulls.set(index);
+            } else {
+                for (String value : values) {
+                    target.add(ref(value));
+                }
+            }
+            offsets.add(target.size());
+        }
+
+        private byte typeCode(String type) {
+            Byte code = typeCodes.get(type);
+            if (code == null) {
+                if (typeNames.size() > 0xff) {
+                    throw new IllegalArgumentException("Too many distinct section types");
+                }
+                code = (byte) typeNames.size();
+                typeNames.add(type);
+                typeCodes.put(type, code);
+            }
+            return code;
+        }
+
+        private int ref(Object value) {
+            if (value == null) {
+                return NULL;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = pool.size();
+                pool.add(value);
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+    }
+
+    /**
+     * Growable primitive int array.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Growable primitive byte array.
+     */
+    private static final class ByteList {
+
+        private byte[] values = new byte[16];
+        private int size;
+
+        void add(byte value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
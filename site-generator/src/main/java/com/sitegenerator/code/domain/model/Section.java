@@ -27,6 +27,10 @@ public class Section {
     @JsonProperty("text")
     private String text;
     
+    // Path of a file in the content directory whose contents replace text
+    @JsonProperty("textRef")
+    private String textRef;
+    
     @JsonProperty("items")
     private List<String> items;
     
@@ -67,6 +71,14 @@ public class Section {
         this.text = text;
     }
     
+    public String getTextRef() {
+        return textRef;
+    }
+    
+    public void setTextRef(String textRef) {
+        this.textRef = textRef;
+    }
+    
     public List<String> getItems() {
         return items;
     }
@@ -99,6 +111,7 @@ public class Section {
         return Objects.equals(type, section.type) && 
                Objects.equals(heading, section.heading) && 
                Objects.equals(text, section.text) && 
+               Objects.equals(textRef, section.textRef) && 
                Objects.equals(items, section.items) && 
                Objects.equals(fields, section.fields) && 
                Objects.equals(content, section.content);
@@ -106,7 +119,7 @@ public class Section {
     
     @Override
     public int hashCode() {
-        return Objects.hash(type, heading, text, items, fields, content);
+        return Objects.hash(type, heading, text, textRef, items, fields, content);
     }
     
     @Override
@@ -115,6 +128,7 @@ public class Section {
                 "type='" + type + '\'' +
                 ", heading='" + heading + '\'' +
                 ", text='" + text + '\'' +
+                ", textRef='" + textRef + '\'' +
                 ", items=" + items +
                 ", fields=" + fields +
                 ", content=" + content +
@@ -0,0 +1,72 @@
+package com.sitegenerator.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sitegenerator.code.domain.model.Section;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for a change to one page of a generated site.
+ * Fields left out keep their current value; the constraints match {@code Page}.
+ */
+public class PagePatch {
+
+    @Size(min = 1, max = 200, message = "Page title must be between 1 and 200 characters")
+    @JsonProperty("title")
+    private String title;
+
+    @Pattern(regexp = "^[a-z0-9-]+$", message = "Page slug must contain only lowercase letters, numbers, and hyphens")
+    @Size(min = 1, max = 100, message = "Page slug must be between 1 and 100 characters")
+    @JsonProperty("slug")
+    private String slug;
+
+    // Replaces all sections of the page
+    @Valid
+    @JsonProperty("sections")
+    private List<Section> sections;
+
+    // Default constructor for Jackson
+    public PagePatch() {}
+
+    public PagePatch(String title, String slug, List<Section> sections) {
+        this.title = title;
+        this.slug = slug;
+        this.sections = sections;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    public void setSections(List<Section> sections) {
+        this.sections = sections;
+    }
+
+    @Override
+    public String toString() {
+        return "PagePatch{" +
+                "title='" + title + '\'' +
+                ", slug='" + slug + '\'' +
+                ", sections=" + sections +
+                '}';
+    }
+}
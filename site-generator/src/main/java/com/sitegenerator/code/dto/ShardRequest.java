@@ -0,0 +1,90 @@
+package com.sitegenerator.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sitegenerator.code.domain.model.Page;
+
+import java.util.List;
+
+/**
+ * DTO for a shard of a site sent from the coordinator to a worker.
+ * Carries the full content of the shard's pages and only the title and slug
+ * of every page of the site, which is what the navigation needs.
+ */
+public class ShardRequest {
+
+    @JsonProperty("siteName")
+    private String siteName;
+
+    @JsonProperty("shardIndex")
+    private int shardIndex;
+
+    @JsonProperty("firstPage")
+    private int firstPage;
+
+    @JsonProperty("navigation")
+    private List<Page> navigation;
+
+    @JsonProperty("pages")
+    private List<Page> pages;
+
+    // Default constructor for Jackson
+    public ShardRequest() {}
+
+    public ShardRequest(String siteName, int shardIndex, int firstPage, List<Page> navigation, List<Page> pages) {
+        this.siteName = siteName;
+        this.shardIndex = shardIndex;
+        this.firstPage = firstPage;
+        this.navigation = navigation;
+        this.pages = pages;
+    }
+
+    public String getSiteName() {
+        return siteName;
+    }
+
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
+    public int getFirstPage() {
+        return firstPage;
+    }
+
+    public void setFirstPage(int firstPage) {
+        this.firstPage = firstPage;
+    }
+
+    public List<Page> getNavigation() {
+        return navigation;
+    }
+
+    public void setNavigation(List<Page> navigation) {
+        this.navigation = navigation;
+    }
+
+    public List<Page> getPages() {
+        return pages;
+    }
+
+    public void setPages(List<Page> pages) {
+        this.pages = pages;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardRequest{" +
+                "siteName='" + siteName + '\'' +
+                ", shardIndex=" + shardIndex +
+                ", firstPage=" + firstPage +
+                ", pages=" + (pages != null ? pages.size() : 0) +
+                '}';
+    }
+}
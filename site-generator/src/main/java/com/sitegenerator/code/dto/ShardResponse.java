@@ -0,0 +1,73 @@
+package com.sitegenerator.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO for the result of rendering one shard on a worker.
+ */
+public class ShardResponse {
+
+    @JsonProperty("siteName")
+    private String siteName;
+
+    @JsonProperty("shardIndex")
+    private int shardIndex;
+
+    @JsonProperty("pagesGenerated")
+    private int pagesGenerated;
+
+    @JsonProperty("renderTimeMs")
+    private long renderTimeMs;
+
+    // Default constructor for Jackson
+    public ShardResponse() {}
+
+    public ShardResponse(String siteName, int shardIndex, int pagesGenerated, long renderTimeMs) {
+        this.siteName = siteName;
+        this.shardIndex = shardIndex;
+        this.pagesGenerated = pagesGenerated;
+        this.renderTimeMs = renderTimeMs;
+    }
+
+    public String getSiteName() {
+        return siteName;
+    }
+
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
+    public int getPagesGenerated() {
+        return pagesGenerated;
+    }
+
+    public void setPagesGenerated(int pagesGenerated) {
+        this.pagesGenerated = pagesGenerated;
+    }
+
+    public long getRenderTimeMs() {
+        return renderTimeMs;
+    }
+
+    public void setRenderTimeMs(long renderTimeMs) {
+        this.renderTimeMs = renderTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardResponse{" +
+                "siteName='" + siteName + '\'' +
+                ", shardIndex=" + shardIndex +
+                ", pagesGenerated=" + pagesGenerated +
+                ", renderTimeMs=" + renderTimeMs +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package com.sitegenerator.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO for the result of patching a generated site.
+ * Lists the files that were regenerated and removed; every other file was left as it was.
+ */
+public class SitePatchResponse {
+
+    @JsonProperty("siteName")
+    private String siteName;
+
+    @JsonProperty("outputPath")
+    private String outputPath;
+
+    @JsonProperty("filesWritten")
+    private List<String> filesWritten;
+
+    @JsonProperty("filesRemoved")
+    private List<String> filesRemoved;
+
+    @JsonProperty("pagesUnchanged")
+    private int pagesUnchanged;
+
+    @JsonProperty("patchTimeMs")
+    private long patchTimeMs;
+
+    @JsonProperty("message")
+    private String message;
+
+    // Default constructor for Jackson
+    public SitePatchResponse() {}
+
+    public SitePatchResponse(String siteName, String outputPath, List<String> filesWritten,
+                             List<String> filesRemoved, int pagesUnchanged, long patchTimeMs, String message) {
+        this.siteName = siteName;
+        this.outputPath = outputPath;
+        this.filesWritten = filesWritten;
+        this.filesRemoved = filesRemoved;
+        this.pagesUnchanged = pagesUnchanged;
+        this.patchTimeMs = patchTimeMs;
+        this.message = message;
+    }
+
+    public String getSiteName() {
+        return siteName;
+    }
+
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    public void setOutputPath(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    public List<String> getFilesWritten() {
+        return filesWritten;
+    }
+
+    public void setFilesWritten(List<String> filesWritten) {
+        this.filesWritten = filesWritten;
+    }
+
+    public List<String> getFilesRemoved() {
+        return filesRemoved;
+    }
+
+    public void setFilesRemoved(List<String> filesRemoved) {
+        this.filesRemoved = filesRemoved;
+    }
+
+    public int getPagesUnchanged() {
+        return pagesUnchanged;
+    }
+
+    public void setPagesUnchanged(int pagesUnchanged) {
+        this.pagesUnchanged = pagesUnchanged;
+    }
+
+    public long getPatchTimeMs() {
+        return patchTimeMs;
+    }
+
+    public void setPatchTimeMs(long patchTimeMs) {
+        this.patchTimeMs = patchTimeMs;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "SitePatchResponse{" +
+                "siteName='" + siteName + '\'' +
+                ", outputPath='" + outputPath + '\'' +
+                ", filesWritten=" + filesWritten +
+                ", filesRemoved=" + filesRemoved +
+                ", pagesUnchanged=" + pagesUnchanged +
+                ", patchTimeMs=" + patchTimeMs +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.sitegenerator.code.service;
+
+/**
+ * Exception thrown when a request is rejected by admission control.
+ * Carries how long the client should wait before retrying.
+ */
+public class AdmissionRejectedException extends SiteGenerationException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
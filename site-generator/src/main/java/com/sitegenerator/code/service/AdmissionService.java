@@ -0,0 +1,38 @@
+package com.sitegenerator.code.service;
+
+import java.util.Map;
+
+/**
+ * Service interface for admission control.
+ * Limits concurrent requests per endpoint and per tenant, lets a few requests
+ * wait briefly for a slot and rejects the rest so accepted work stays fast.
+ */
+public interface AdmissionService {
+
+    /**
+     * Admits a request, waiting briefly in a bounded queue if the endpoint or
+     * the tenant is at its concurrency limit.
+     *
+     * @param endpoint the endpoint being called
+     * @param siteName the site the request is for; its prefix identifies the tenant
+     * @return a permit that must be closed when the request's work is done
+     * @throws AdmissionRejectedException if the request cannot be admitted in time
+     */
+    Permit acquire(String endpoint, String siteName) throws AdmissionRejectedException;
+
+    /**
+     * Gets in-flight, queue depth and rejection counters for every endpoint.
+     *
+     * @return metrics keyed by endpoint
+     */
+    Map<String, Object> getMetrics();
+
+    /**
+     * An admitted request's slot; closing it admits the next waiting request.
+     */
+    interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
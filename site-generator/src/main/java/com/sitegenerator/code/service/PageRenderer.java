@@ -0,0 +1,52 @@
+package com.sitegenerator.code.service;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renders a single page of a site to HTML.
+ * The renderer named by {@code site.generator.renderer} is used for every page
+ * it supports; the Thymeleaf template renderer handles all other pages.
+ */
+public interface PageRenderer {
+
+    /**
+     * Gets the name used to select this renderer in configuration.
+     *
+     * @return the renderer name
+     */
+    String getName();
+
+    /**
+     * Checks whether this renderer can render every section of a page.
+     *
+     * @param site the site the page belongs to
+     * @param page the index of the page to render
+     * @return true if the page can be rendered
+     */
+    boolean supports(CompactSite site, int page);
+
+    /**
+     * Renders a page to a complete HTML document.
+     *
+     * @param site the site the page belongs to
+     * @param page the index of the page to render
+     * @return the page HTML
+     */
+    String render(CompactSite site, int page);
+
+    /**
+     * Renders a page to a writer. Renderers that can stream referenced content
+     * override this so a page never has to be held in memory as a whole.
+     *
+     * @param site the site the page belongs to
+     * @param page the index of the page to render
+     * @param out the writer to write the page HTML to
+     * @throws IOException if referenced content cannot be read or the page cannot be written
+     */
+    default void render(CompactSite site, int page, Writer out) throws IOException {
+        out.write(render(site, page));
+    }
+}
@@ -0,0 +1,47 @@
+package com.sitegenerator.code.service;
+
+import com.sitegenerator.code.domain.model.Site;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Service interface for live page previews.
+ * Renders a single page of a site in memory and streams it to the caller;
+ * nothing is written to the output directory.
+ */
+public interface PreviewService {
+
+    /**
+     * Opens the writer a preview is streamed to.
+     */
+    interface WriterFactory {
+
+        /**
+         * Opens the writer; called only once the site is valid and the page is found.
+         *
+         * @return the writer for the page HTML
+         * @throws IOException if the writer cannot be opened
+         */
+        Writer open() throws IOException;
+    }
+
+    /**
+     * Validates a site and renders one of its pages.
+     *
+     * @param site the site description
+     * @param slug the slug of the page, or null for the first page
+     * @param out opens the writer the page is streamed to
+     * @throws ValidationException if the site is invalid or has no page with the slug
+     * @throws IOException if referenced content cannot be read or the page cannot be written
+     */
+    void renderPage(Site site, String slug, WriterFactory out) throws ValidationException, IOException;
+
+    /**
+     * Gets preview counters and content-file cache statistics.
+     *
+     * @return preview metrics
+     */
+    Map<String, Object> getMetrics();
+}
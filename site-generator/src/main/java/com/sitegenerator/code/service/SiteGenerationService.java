@@ -1,8 +1,14 @@
 package com.sitegenerator.code.service;
 
+import com.sitegenerator.code.domain.model.CompactSite;
 import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.dto.ShardRequest;
+import com.sitegenerator.code.dto.ShardResponse;
 import com.sitegenerator.code.dto.SiteGenerationResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Service interface for site generation operations.
  * Follows the Service Layer pattern for business logic separation.
@@ -18,6 +24,37 @@ public interface SiteGenerationService {
      */
     SiteGenerationResponse generateSite(Site site) throws SiteGenerationException;
     
+    /**
+     * Generates static HTML files from a site read with {@link #readSite}.
+     * 
+     * @param site the validated site in compact form
+     * @return response containing generation metadata
+     * @throws SiteGenerationException if generation fails
+     */
+    SiteGenerationResponse generateSite(CompactSite site) throws SiteGenerationException;
+    
+    /**
+     * Reads a JSON site description straight into its compact form. Pages are
+     * deserialized and validated one at a time and appended to the compact
+     * site, so the description never exists as a whole object graph.
+     * 
+     * @param json the site description
+     * @return the validated site
+     * @throws ValidationException if the site violates the constraints of {@link Site}
+     * @throws IOException if the JSON cannot be read or parsed
+     */
+    CompactSite readSite(InputStream json) throws ValidationException, IOException;
+    
+    /**
+     * Generates the pages of one shard of a site on this node.
+     * 
+     * @param request the shard's pages and the navigation of the whole site
+     * @return response containing the number of pages generated
+     * @throws ValidationException if the shard is malformed
+     * @throws SiteGenerationException if generation fails
+     */
+    ShardResponse generateShard(ShardRequest request) throws ValidationException, SiteGenerationException;
+    
     /**
      * Validates the site structure before generation.
      * 
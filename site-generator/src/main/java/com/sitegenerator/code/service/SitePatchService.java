@@ -0,0 +1,41 @@
+package com.sitegenerator.code.service;
+
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.dto.PagePatch;
+import com.sitegenerator.code.dto.SitePatchResponse;
+
+/**
+ * Service interface for changing part of a site that was already generated.
+ * Only the output files that depend on the changed part are regenerated: a new
+ * page title or slug changes the navigation of every page, while new sections
+ * only change the page they belong to.
+ */
+public interface SitePatchService {
+
+    /**
+     * Changes the title, slug or sections of one page.
+     *
+     * @param siteName the name of the generated site
+     * @param slug the current slug of the page
+     * @param patch the fields to change
+     * @return response listing the files written and removed
+     * @throws ValidationException if the site or page does not exist or the patched site is invalid
+     * @throws SiteGenerationException if the files cannot be regenerated
+     */
+    SitePatchResponse patchPage(String siteName, String slug, PagePatch patch)
+        throws ValidationException, SiteGenerationException;
+
+    /**
+     * Replaces one section of a page.
+     *
+     * @param siteName the name of the generated site
+     * @param slug the slug of the page
+     * @param index the index of the section within the page
+     * @param section the new section
+     * @return response listing the files written and removed
+     * @throws ValidationException if the site, page or section does not exist or the patched site is invalid
+     * @throws SiteGenerationException if the files cannot be regenerated
+     */
+    SitePatchResponse patchSection(String siteName, String slug, int index, Section section)
+        throws ValidationException, SiteGenerationException;
+}
@@ -0,0 +1,136 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.service.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads section text stored as files in the content directory.
+ * Sections refer to these files with {@code textRef} instead of carrying the
+ * text in the site JSON. A file is only read while its page is rendered: it is
+ * mapped in fixed-size windows and decoded into a fixed-size buffer that is
+ * handed to the renderer chunk by chunk, so the text never has to be held in
+ * memory as a whole.
+ */
+@Component
+public class ContentStore {
+
+    @Value("${site.generator.content.path:content}")
+    private String contentPath = "content";
+
+    @Value("${site.generator.content.buffer-size:16384}")
+    private int bufferSize = 16384;
+
+    @Value("${site.generator.content.map-window-bytes:67108864}")
+    private long mapWindowBytes = 64L * 1024 * 1024;
+
+    /**
+     * Receives decoded text one chunk at a time.
+     */
+    public interface ChunkConsumer {
+
+        /**
+         * Consumes a chunk; the buffer is reused once this returns.
+         *
+         * @param chunk the decoded characters
+         * @throws IOException if the chunk cannot be written
+         */
+        void accept(CharBuffer chunk) throws IOException;
+    }
+
+    /**
+     * Resolves a reference to a file in the content directory.
+     *
+     * @param ref the path relative to the content directory
+     * @return the file
+     * @throws ValidationException if the reference leaves the content directory or names no regular file
+     */
+    public Path resolve(String ref) throws ValidationException {
+        Path root = Paths.get(contentPath).toAbsolutePath().normalize();
+        Path file;
+        try {
+            file = root.resolve(ref).normalize();
+        } catch (InvalidPathException e) {
+            throw new ValidationException("Invalid text reference: " + ref);
+        }
+
+        if (Paths.get(ref).isAbsolute() || !file.startsWith(root)) {
+            throw new ValidationException("Text reference must lie within the content directory: " + ref);
+        }
+
+        if (!Files.isRegularFile(file)) {
+            throw new ValidationException("Text reference not found: " + ref);
+        }
+
+        try {
+            // Symbolic links must not lead out of the content directory either
+            if (!file.toRealPath().startsWith(root.toRealPath())) {
+                throw new ValidationException("Text reference must lie within the content directory: " + ref);
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Text reference not readable: " + ref);
+        }
+        return file;
+    }
+
+    /**
+     * Decodes a referenced file as UTF-8 and passes it to a consumer in chunks.
+     *
+     * @param ref the path relative to the content directory
+     * @param consumer receives the decoded text
+     * @throws IOException if the reference is invalid or reading or decoding fails
+     */
+    public void read(String ref, ChunkConsumer consumer) throws IOException {
+        read(locate(ref), consumer);
+    }
+
+    /**
+     * Resolves a reference for reading, when the file is needed before its content.
+     *
+     * @param ref the path relative to the content directory
+     * @return the file
+     * @throws IOException if the reference leaves the content directory or names no regular file
+     */
+    public Path locate(String ref) throws IOException {
+        try {
+            return resolve(ref);
+        } catch (ValidationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes a file returned by {@link #locate} as UTF-8 and passes it to a consumer in chunks.
+     *
+     * @param file the file
+     * @param consumer receives the decoded text
+     * @throws IOException if reading or decoding fails
+     */
+    public void read(Path file, ChunkConsumer consumer) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedTextDecoder.decode(in, bufferSize, mapWindowBytes, consumer::accept);
+        }
+    }
+
+    /**
+     * Reads a referenced file into a string, for renderers that need the text as a value.
+     *
+     * @param ref the path relative to the content directory
+     * @return the file contents
+     * @throws IOException if the reference is invalid or reading or decoding fails
+     */
+    public String readString(String ref) throws IOException {
+        StringBuilder text = new StringBuilder();
+        read(ref, text::append);
+        return text.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Site;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Records which inputs of a site each generated file is rendered from.
+ * Every page file reads the site name, the navigation (the title and slug of
+ * every page, which also supply the page's own title) and its own sections;
+ * {@code config.json} reads the site name and the page count. Comparing the
+ * graphs of two versions of a site yields the files whose inputs changed and
+ * the files the newer version no longer has. Inputs are compared by value, so a
+ * patch that sets a field to its current value changes nothing.
+ */
+final class DependencyGraph {
+
+    static final String CONFIG_FILE = "config.json";
+
+    private static final String SITE_NAME = "siteName";
+    private static final String NAVIGATION = "navigation";
+    private static final String PAGE_COUNT = "pageCount";
+    private static final String SECTIONS = "sections:";
+
+    private final Map<String, Object> inputs = new HashMap<>();
+    private final Map<String, List<String>> outputs = new LinkedHashMap<>();
+
+    private DependencyGraph() {}
+
+    static DependencyGraph of(Site site) {
+        DependencyGraph graph = new DependencyGraph();
+
+        List<List<String>> navigation = new ArrayList<>();
+        for (Page page : site.getPages()) {
+            navigation.add(List.of(page.getTitle(), page.getSlug()));
+        }
+        graph.inputs.put(SITE_NAME, site.getSiteName());
+        graph.inputs.put(NAVIGATION, navigation);
+        graph.inputs.put(PAGE_COUNT, site.getPages().size());
+
+        for (Page page : site.getPages()) {
+            String sections = SECTIONS + page.getSlug();
+            graph.inputs.put(sections, page.getSections());
+            graph.outputs.put(PageWriter.pageFileName(page.getSlug()),
+                List.of(SITE_NAME, NAVIGATION, sections));
+        }
+        graph.outputs.put(CONFIG_FILE, List.of(SITE_NAME, PAGE_COUNT));
+        return graph;
+    }
+
+    /**
+     * Gets the files that must be written to turn the output of a previous
+     * version into the output of this one.
+     *
+     * @param previous the graph of the version the output was generated from
+     * @return the new files and the files with a changed input, in page order
+     */
+    Set<String> changedSince(DependencyGraph previous) {
+        Set<String> changedInputs = new HashSet<>();
+        for (Map.Entry<String, Object> input : inputs.entrySet()) {
+            if (!Objects.equals(input.getValue(), previous.inputs.get(input.getKey()))) {
+                changedInputs.add(input.getKey());
+            }
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> output : outputs.entrySet()) {
+            if (!previous.outputs.containsKey(output.getKey())
+                || output.getValue().stream().anyMatch(changedInputs::contains)) {
+                changed.add(output.getKey());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Gets the files of a previous version that this version no longer generates,
+     * such as the file of a page whose slug changed.
+     *
+     * @param previous the graph of the version the output was generated from
+     * @return the files to remove
+     */
+    Set<String> removedSince(DependencyGraph previous) {
+        Set<String> removed = new LinkedHashSet<>(previous.outputs.keySet());
+        removed.removeAll(outputs.keySet());
+        return removed;
+    }
+}
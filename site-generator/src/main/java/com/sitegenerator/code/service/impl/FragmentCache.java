@@ -0,0 +1,116 @@
+package com.sitegenerator.code.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the escaped text of content files referenced by {@code textRef}
+ * sections; it is a content-file text cache, not a cache of rendered sections.
+ * Escaping a content file costs a file read and a full pass over its text, while
+ * an editor previewing a page changes one section at a time, so the escaped text
+ * of every file up to {@code max-entry-bytes} is kept in an LRU cache bounded by
+ * {@code max-chars}. Entries are checked against the file's size and modification
+ * time on every lookup, so an edited file is read again. Section markup and
+ * inline section text are rendered again on every preview: they render faster
+ * than a cache key could be built for them.
+ */
+@Component
+public class FragmentCache {
+
+    @Value("${site.generator.fragment-cache.max-chars:8388608}")
+    private long maxChars = 8L * 1024 * 1024;
+
+    @Value("${site.generator.fragment-cache.max-entry-bytes:262144}")
+    private long maxEntryBytes = 256L * 1024;
+
+    private final Map<Path, Fragment> fragments = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedChars;
+    private long hits;
+    private long misses;
+
+    /**
+     * Checks whether fragments of a file are cached at all.
+     *
+     * @param attributes the attributes of the content file
+     * @return true if the file is small enough to cache
+     */
+    public boolean accepts(BasicFileAttributes attributes) {
+        return maxChars > 0 && attributes.size() <= maxEntryBytes;
+    }
+
+    /**
+     * Gets the cached fragment of a file if the file has not changed since.
+     *
+     * @param file the content file
+     * @param attributes its current attributes
+     * @return the fragment, or null on a miss
+     */
+    public String get(Path file, BasicFileAttributes attributes) {
+        synchronized (fragments) {
+            Fragment cached = fragments.get(file);
+            if (cached != null && cached.matches(attributes)) {
+                hits++;
+                return cached.html;
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Caches the fragment of a file, evicting the least recently used ones beyond the limit.
+     *
+     * @param file the content file
+     * @param attributes the attributes the file had before it was read
+     * @param html the rendered fragment
+     */
+    public void put(Path file, BasicFileAttributes attributes, String html) {
+        if (html.length() > maxChars) {
+            return;
+        }
+
+        synchronized (fragments) {
+            Fragment previous = fragments.put(file, new Fragment(attributes, html));
+            cachedChars += html.length() - (previous != null ? previous.html.length() : 0);
+
+            var eldest = fragments.values().iterator();
+            while (cachedChars > maxChars && eldest.hasNext()) {
+                cachedChars -= eldest.next().html.length();
+                eldest.remove();
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        synchronized (fragments) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("entries", fragments.size());
+            metrics.put("cachedChars", cachedChars);
+            metrics.put("hits", hits);
+            metrics.put("misses", misses);
+            return metrics;
+        }
+    }
+
+    private static final class Fragment {
+
+        private final long size;
+        private final long lastModified;
+        private final String html;
+
+        private Fragment(BasicFileAttributes attributes, String html) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.html = html;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.service.PageRenderer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Renders the built-in section types with plain Java code.
+ * Produces byte-for-byte the same HTML as {@code page-template.html} without
+ * evaluating any template expressions: markup is appended as constants and
+ * values are escaped directly into the page buffer. Changes to the template
+ * must be mirrored here; the golden tests compare both renderers.
+ * Text referenced from the content directory is escaped chunk by chunk as it
+ * is read; when rendering to a writer the buffer is flushed whenever it grows
+ * past {@link #FLUSH_THRESHOLD}, so a page with large content files needs no
+ * more memory than one buffer. Files small enough for the {@link FragmentCache}
+ * are escaped once and their fragment reused until the file changes.
+ */
+@Component
+public class JavaPageRenderer implements PageRenderer {
+
+    static final String NAME = "java";
+
+    private static final int INITIAL_CAPACITY = 8192;
+    private static final int FLUSH_THRESHOLD = 65536;
+
+    // Sections in template order; each page section emits every comment but only its own markup
+    private static final String[] SECTION_TYPES = {
+        "hero", "skills", "form", "text", "contact", "about", "image"
+    };
+    private static final String[] SECTION_LABELS = {
+        "Hero", "Skills", "Form", "Text", "Contact", "About", "Image"
+    };
+
+    private static final String HEAD = "<!DOCTYPE html>\n"
+        + "<html lang=\"en\">\n"
+        + "<head>\n"
+        + "    <meta charset=\"UTF-8\">\n"
+        + "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n"
+        + "    <title>";
+    private static final String HEADER = "</title>\n"
+        + "    <link rel=\"stylesheet\" href=\"assets/styles.css\">\n"
+        + "</head>\n"
+        + "<body>\n"
+        + "    <div class=\"container\">\n"
+        + "        <!-- Page Header -->\n"
+        + "        <header>\n"
+        + "            <h1>";
+    private static final String NAV = "</h1>\n"
+        + "            <nav>\n"
+        + "                <ul>\n"
+        + "                    ";
+    private static final String NAV_SEPARATOR = "\n                    ";
+    private static final String MAIN = "\n"
+        + "                </ul>\n"
+        + "            </nav>\n"
+        + "        </header>\n"
+        + "\n"
+        + "        <!-- Page Content -->\n"
+        + "        <main>\n"
+        + "            ";
+    private static final String SECTION_SEPARATOR = "\n            ";
+    private static final String FOOTER = "\n"
+        + "        </main>\n"
+        + "\n"
+        + "        <!-- Footer -->\n"
+        + "        <footer>\n"
+        + "            <p>&copy; 2024 <span>";
+    private static final String END = "</span>. Generated by Static Site Generator.</p>\n"
+        + "        </footer>\n"
+        + "    </div>\n"
+        + "    \n"
+        + "    <script src=\"assets/script.js\"></script>\n"
+        + "</body>\n"
+        + "</html>\n";
+
+    private static final String SECTION_LINE = "\n                    ";
+    private static final String SECTION_END = "\n                </div>";
+    private static final String ITEM_SEPARATOR = "\n                        ";
+    private static final String FIELD_LINE = "\n                            ";
+    private static final String INPUT_LINE = "\n                                   ";
+    private static final String IMAGE_LINE = "\n                         ";
+
+    // Markup before and after a section's own element, by section type
+    private static final Map<String, String[]> SECTION_FRAMES = new HashMap<>();
+
+    static {
+        String[] chunks = new String[SECTION_TYPES.length];
+        for (int i = 0; i < SECTION_TYPES.length; i++) {
+            chunks[i] = "\n                \n                <!-- " + SECTION_LABELS[i] + " Section -->\n                ";
+        }
+        for (int i = 0; i < SECTION_TYPES.length; i++) {
+            StringBuilder before = new StringBuilder("<div>");
+            StringBuilder after = new StringBuilder();
+            for (int j = 0; j < chunks.length; j++) {
+                (j <= i ? before : after).append(chunks[j]);
+            }
+            after.append("\n                \n            </div>");
+            SECTION_FRAMES.put(SECTION_TYPES[i], new String[] { before.toString(), after.toString() });
+        }
+    }
+
+    private final ContentStore contentStore;
+    private final FragmentCache fragmentCache;
+
+    public JavaPageRenderer(ContentStore contentStore, FragmentCache fragmentCache) {
+        this.contentStore = contentStore;
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(CompactSite site, int page) {
+        for (int section = site.getSectionStart(page); section < site.getSectionEnd(page); section++) {
+            if (!SECTION_FRAMES.containsKey(site.getSectionType(section))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String render(CompactSite site, int page) {
+        StringBuilder out = new StringBuilder(INITIAL_CAPACITY);
+        try {
+            renderPage(out, site, page, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read referenced content", e);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void render(CompactSite site, int page, Writer sink) throws IOException {
+        StringBuilder out = new StringBuilder(INITIAL_CAPACITY);
+        renderPage(out, site, page, sink);
+        flush(out, sink);
+    }
+
+    /**
+     * Renders a page into the buffer, flushing it to the sink while referenced
+     * content is streamed in; a null sink keeps the whole page in the buffer.
+     */
+    private void renderPage(StringBuilder out, CompactSite site, int page, Writer sink) throws IOException {
+        String slug = site.getPageSlug(page);
+
+        out.append(HEAD);
+        escape(out, concatValue(site.getPageTitle(page)));
+        out.append(" - ");
+        escape(out, concatValue(site.getSiteName()));
+        out.append(HEADER);
+        escape(out, textValue(site.getPageTitle(page)));
+        out.append(NAV);
+
+        for (int navPage = 0; navPage < site.getPageCount(); navPage++) {
+            if (navPage > 0) {
+                out.append(NAV_SEPARATOR);
+            }
+            out.append("<li>\n                        <a href=\"");
+            escape(out, concatValue(site.getPageSlug(navPage)));
+            out.append(".html\"");
+            if (Objects.equals(site.getPageSlug(navPage), slug)) {
+                out.append(" \n                           class=\"active\"");
+            }
+            out.append('>');
+            escape(out, textValue(site.getPageTitle(navPage)));
+            out.append("</a>\n                    </li>");
+        }
+
+        out.append(MAIN);
+        for (int section = site.getSectionStart(page); section < site.getSectionEnd(page); section++) {
+            if (section > site.getSectionStart(page)) {
+                out.append(SECTION_SEPARATOR);
+            }
+            renderSection(out, site, section, sink);
+        }
+
+        out.append(FOOTER);
+        escape(out, textValue(site.getSiteName()));
+        out.append(END);
+    }
+
+    private void renderSection(StringBuilder out, CompactSite site, int section, Writer sink) throws IOException {
+        String type = site.getSectionType(section);
+        String[] frame = SECTION_FRAMES.get(type);
+        if (frame == null) {
+            throw new IllegalArgumentException("Unsupported section type: " + type);
+        }
+
+        out.append(frame[0]);
+        switch (type) {
+            case "hero":
+                renderHero(out, site, section, sink);
+                break;
+            case "skills":
+                renderSkills(out, site, section);
+                break;
+            case "form":
+                renderForm(out, site, section);
+                break;
+            case "text":
+                renderText(out, site, section, sink);
+                break;
+            case "contact":
+                renderContact(out, site, section);
+                break;
+            case "about":
+                renderAbout(out, site, section, sink);
+                break;
+            default:
+                renderImage(out, site, section);
+                break;
+        }
+        out.append(frame[1]);
+    }
+
+    private void renderHero(StringBuilder out, CompactSite site, int section, Writer sink) throws IOException {
+        out.append("<div class=\"section hero\">").append(SECTION_LINE).append("<h1>");
+        escape(out, textValue(site.getHeading(section)));
+        out.append("</h1>").append(SECTION_LINE).append("<p>");
+        if (site.getTextRef(section) != null) {
+            renderTextRef(out, site.getTextRef(section), sink);
+        } else {
+            escape(out, textValue(site.getText(section)));
+        }
+        out.append("</p>").append(SECTION_END);
+    }
+
+    private void renderSkills(StringBuilder out, CompactSite site, int section) {
+        out.append("<div class=\"section skills\">").append(SECTION_LINE).append("<h2>Skills</h2>").append(SECTION_LINE);
+        if (site.hasItems(section)) {
+            out.append("<ul>").append(ITEM_SEPARATOR);
+            for (int i = 0; i < site.getItemCount(section); i++) {
+                if (i > 0) {
+                    out.append(ITEM_SEPARATOR);
+                }
+                out.append("<li>");
+                escape(out, textValue(site.getItem(section, i)));
+                out.append("</li>");
+            }
+            out.append(SECTION_LINE).append("</ul>");
+        }
+        out.append(SECTION_END);
+    }
+
+    private void renderForm(StringBuilder out, CompactSite site, int section) {
+        out.append("<div class=\"section form\">").append(SECTION_LINE).append("<h2>Contact Form</h2>").append(SECTION_LINE);
+        if (site.hasFields(section)) {
+            out.append("<form>").append(ITEM_SEPARATOR);
+            for (int i = 0; i < site.getFieldCount(section); i++) {
+                if (i > 0) {
+                    out.append(ITEM_SEPARATOR);
+                }
+                renderFormField(out, site.getField(section, i));
+            }
+            out.append(ITEM_SEPARATOR).append("<button type=\"submit\" class=\"btn\">Submit</button>")
+                .append(SECTION_LINE).append("</form>");
+        }
+        out.append(SECTION_END);
+    }
+
+    private void renderFormField(StringBuilder out, String field) {
+        String value = textValue(field);
+        String type = "email".equals(field) ? "email" : ("message".equals(field) ? "textarea" : "text");
+
+        out.append("<div class=\"form-group\">").append(FIELD_LINE).append("<label");
+        // The template drops for, id and alt attributes whose value is empty
+        if (!value.isEmpty()) {
+            out.append(" for=\"");
+            escape(out, value);
+            out.append('"');
+        }
+        out.append('>');
+        escape(out, value);
+        out.append("</label>").append(FIELD_LINE).append("<input type=\"").append(type).append('"');
+        if (!value.isEmpty()) {
+            out.append(INPUT_LINE).append("id=\"");
+            escape(out, value);
+            out.append('"');
+        }
+        out.append(INPUT_LINE).append("name=\"");
+        escape(out, value);
+        out.append('"').append(INPUT_LINE).append("placeholder=\"Enter ");
+        escape(out, concatValue(field));
+        out.append("\">").append(ITEM_SEPARATOR).append("</div>");
+    }
+
+    private void renderText(StringBuilder out, CompactSite site, int section, Writer sink) throws IOException {
+        out.append("<div class=\"section\">").append(SECTION_LINE);
+        renderOptionalHeading(out, site, section);
+        out.append(SECTION_LINE);
+        renderOptionalText(out, site, section, sink);
+        out.append(SECTION_END);
+    }
+
+    private void renderContact(StringBuilder out, CompactSite site, int section) {
+        out.append("<div class=\"section\">").append(SECTION_LINE).append("<h2>Contact Information</h2>").append(SECTION_LINE);
+        if (site.hasContent(section)) {
+            out.append("<div>").append(ITEM_SEPARATOR);
+            for (int i = 0; i < site.getContentSize(section); i++) {
+                if (i > 0) {
+                    out.append(ITEM_SEPARATOR);
+                }
+                out.append("<p>");
+                escape(out, concatValue(site.getContentKey(section, i)));
+                out.append(": ");
+                escape(out, concatValue(site.getContentValue(section, i)));
+                out.append("</p>");
+            }
+            out.append(SECTION_LINE).append("</div>");
+        }
+        out.append(SECTION_END);
+    }
+
+    private void renderAbout(StringBuilder out, CompactSite site, int section, Writer sink) throws IOException {
+        out.append("<div class=\"section\">").append(SECTION_LINE).append("<h2>About</h2>").append(SECTION_LINE);
+        renderOptionalText(out, site, section, sink);
+        out.append(SECTION_END);
+    }
+
+    private void renderImage(StringBuilder out, CompactSite site, int section) {
+        out.append("<div class=\"section\">").append(SECTION_LINE);
+        renderOptionalHeading(out, site, section);
+        out.append(SECTION_LINE);
+
+        Object src = site.hasContent(section) ? site.getContentValue(section, "src") : null;
+        if (src != null) {
+            out.append("<img src=\"");
+            escape(out, textValue(src));
+            out.append('"');
+            Object alt = site.getContentValue(section, "alt");
+            String altText = alt != null ? textValue(alt) : "Image";
+            if (!altText.isEmpty()) {
+                out.append(IMAGE_LINE).append("alt=\"");
+                escape(out, altText);
+                out.append('"');
+            }
+            out.append(IMAGE_LINE).append("style=\"max-width: 100%; height: auto;\">");
+        }
+        out.append(SECTION_END);
+    }
+
+    private void renderOptionalHeading(StringBuilder out, CompactSite site, int section) {
+        if (site.getHeading(section) != null) {
+            out.append("<h2>");
+            escape(out, site.getHeading(section));
+            out.append("</h2>");
+        }
+    }
+
+    private void renderOptionalText(StringBuilder out, CompactSite site, int section, Writer sink) throws IOException {
+        if (site.getTextRef(section) != null) {
+            out.append("<p>");
+            renderTextRef(out, site.getTextRef(section), sink);
+            out.append("</p>");
+        } else if (site.getText(section) != null) {
+            out.append("<p>");
+            escape(out, site.getText(section));
+            out.append("</p>");
+        }
+    }
+
+    private void renderTextRef(StringBuilder out, String ref, Writer sink) throws IOException {
+        Path file = contentStore.locate(ref);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+        if (fragmentCache.accepts(attributes)) {
+            String fragment = fragmentCache.get(file, attributes);
+            if (fragment == null) {
+                StringBuilder escaped = new StringBuilder((int) attributes.size());
+                contentStore.read(file, chunk -> escape(escaped, chunk));
+                fragment = escaped.toString();
+                fragmentCache.put(file, attributes, fragment);
+            }
+            out.append(fragment);
+            return;
+        }
+
+        contentStore.read(file, chunk -> {
+            escape(out, chunk);
+            if (sink != null && out.length() >= FLUSH_THRESHOLD) {
+                flush(out, sink);
+            }
+        });
+    }
+
+    private static void flush(StringBuilder out, Writer sink) throws IOException {
+        sink.append(out);
+        out.setLength(0);
+    }
+
+    /**
+     * Converts a value the way the template outputs it on its own: null is empty.
+     */
+    private static String textValue(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Converts a value the way template string concatenation does: null is
+     * "null" and collections are joined with commas.
+     */
+    private static String concatValue(Object value) {
+        if (value instanceof Collection<?> collection) {
+            StringBuilder joined = new StringBuilder();
+            for (Object element : collection) {
+                if (joined.length() > 0) {
+                    joined.append(',');
+                }
+                joined.append(concatValue(element));
+            }
+            return joined.toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Appends text with the markup-significant characters escaped as the
+     * template engine escapes text and attribute values.
+     */
+    private static void escape(StringBuilder out, CharSequence text) {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement;
+            switch (text.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    continue;
+            }
+            out.append(text, start, i).append(replacement);
+            start = i + 1;
+        }
+        out.append(text, start, text.length());
+    }
+}
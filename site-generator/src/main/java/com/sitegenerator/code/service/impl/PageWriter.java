@@ -0,0 +1,152 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.service.PageRenderer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Renders pages and writes them into a site's output directory.
+ * Shared by full generation, patching and preview so all three pick the same
+ * renderer for a page and lay out the same files: {@code <output.path>/<siteName>/}
+ * holds one {@code <slug>.html} per page and {@code config.json}.
+ */
+@Component
+public class PageWriter {
+
+    private final List<PageRenderer> renderers;
+    private final ExecutionPools executionPools;
+
+    @Value("${site.generator.output.path:output}")
+    private String outputPath;
+
+    @Value("${site.generator.renderer:java}")
+    private String rendererName;
+
+    private PageRenderer renderer;
+    private PageRenderer fallbackRenderer;
+
+    public PageWriter(List<PageRenderer> renderers, ExecutionPools executionPools) {
+        this.renderers = renderers;
+        this.executionPools = executionPools;
+    }
+
+    @PostConstruct
+    public void selectRenderers() {
+        renderer = findRenderer(rendererName);
+        fallbackRenderer = findRenderer(ThymeleafPageRenderer.NAME);
+    }
+
+    private PageRenderer findRenderer(String name) {
+        return renderers.stream()
+            .filter(candidate -> candidate.getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown page renderer: " + name));
+    }
+
+    /**
+     * Returns the name of the file a page is written to.
+     *
+     * @param slug the slug of the page
+     * @return the file name relative to the site's output directory
+     */
+    public static String pageFileName(String slug) {
+        return "index".equals(slug) ? "index.html" : slug + ".html";
+    }
+
+    /**
+     * Picks the renderer for a page: the configured one, or the template
+     * renderer for section types the configured renderer lacks.
+     *
+     * @param site the site
+     * @param page the index of the page
+     * @return the renderer to use
+     */
+    public PageRenderer selectRenderer(CompactSite site, int page) {
+        return renderer.supports(site, page) ? renderer : fallbackRenderer;
+    }
+
+    /**
+     * Creates the output directory of a site and its assets subdirectory.
+     *
+     * @param siteName the name of the site
+     * @return the site's output directory
+     * @throws IOException if the directories cannot be created
+     */
+    public Path createSiteOutputDirectory(String siteName) throws IOException {
+        Path sitePath = Paths.get(outputPath, siteName);
+        Files.createDirectories(sitePath);
+
+        // Create assets subdirectory
+        Path assetsPath = sitePath.resolve("assets");
+        Files.createDirectories(assetsPath);
+
+        return sitePath;
+    }
+
+    /**
+     * Renders and writes the given pages of a site.
+     *
+     * @param site the site
+     * @param outputPath the site's output directory
+     * @param pages the indexes of the pages to write
+     * @return the number of pages written
+     * @throws IOException if a page cannot be rendered or written
+     */
+    public int writePages(CompactSite site, Path outputPath, int[] pages) throws IOException {
+        List<Callable<Void>> pageWrites = new ArrayList<>();
+
+        for (int page : pages) {
+            pageWrites.add(() -> {
+                Path pagePath = outputPath.resolve(pageFileName(site.getPageSlug(page)));
+
+                if (site.hasTextRefs(page)) {
+                    // Referenced content is read while rendering, so the page streams straight to its file
+                    try (Writer writer = Files.newBufferedWriter(pagePath)) {
+                        selectRenderer(site, page).render(site, page, writer);
+                    }
+                    return null;
+                }
+
+                // Rendering is CPU-bound; only the file write stays on the I/O thread
+                String htmlContent = executionPools.callOnCpu(() -> selectRenderer(site, page).render(site, page));
+                Files.writeString(pagePath, htmlContent);
+                return null;
+            });
+        }
+
+        executionPools.invokeAll(executionPools.getIoExecutor(), pageWrites);
+        return pageWrites.size();
+    }
+
+    /**
+     * Writes the {@code config.json} of a site.
+     *
+     * @param siteName the name of the site
+     * @param pageCount the number of pages of the site
+     * @param outputPath the site's output directory
+     * @throws IOException if the file cannot be written
+     */
+    public void writeSiteConfig(String siteName, int pageCount, Path outputPath) throws IOException {
+        String configJson = String.format("""
+            {
+                "siteName": "%s",
+                "pages": %d,
+                "generatedAt": %d
+            }
+            """, siteName, pageCount, System.currentTimeMillis());
+
+        Path configPath = outputPath.resolve("config.json");
+        Files.writeString(configPath, configJson);
+    }
+}
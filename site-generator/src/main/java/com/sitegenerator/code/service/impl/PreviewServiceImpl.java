@@ -0,0 +1,73 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.service.PreviewService;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the page preview.
+ * Validates the site as generation does and renders the page on the request
+ * thread with the renderer generation would pick, straight into the response
+ * writer: no output directory, no assets and no hand-off to another pool. With
+ * template caching on and the escaped text of referenced content files served
+ * from the {@link FragmentCache}, a typical page costs parsing, validation and
+ * one render of its sections.
+ */
+@Service
+public class PreviewServiceImpl implements PreviewService {
+
+    private final SiteGenerationService siteGenerationService;
+    private final PageWriter pageWriter;
+    private final FragmentCache fragmentCache;
+
+    private final AtomicLong previews = new AtomicLong();
+
+    public PreviewServiceImpl(SiteGenerationService siteGenerationService, PageWriter pageWriter,
+                              FragmentCache fragmentCache) {
+        this.siteGenerationService = siteGenerationService;
+        this.pageWriter = pageWriter;
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public void renderPage(Site site, String slug, WriterFactory out) throws ValidationException, IOException {
+        siteGenerationService.validateSite(site);
+        CompactSite compactSite = CompactSite.from(site);
+        int page = findPage(compactSite, slug);
+
+        Writer writer = out.open();
+        pageWriter.selectRenderer(compactSite, page).render(compactSite, page, writer);
+        writer.flush();
+        previews.incrementAndGet();
+    }
+
+    private static int findPage(CompactSite site, String slug) throws ValidationException {
+        if (slug == null || slug.isEmpty()) {
+            return 0;
+        }
+
+        for (int page = 0; page < site.getPageCount(); page++) {
+            if (slug.equals(site.getPageSlug(page))) {
+                return page;
+            }
+        }
+        throw new ValidationException("Site has no page with slug '" + slug + "'");
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("previews", previews.get());
+        metrics.put("fragmentCache", fragmentCache.getMetrics());
+        return metrics;
+    }
+}
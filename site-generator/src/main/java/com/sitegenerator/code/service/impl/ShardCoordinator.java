@@ -0,0 +1,170 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.dto.ShardRequest;
+import com.sitegenerator.code.dto.ShardResponse;
+import com.sitegenerator.code.service.SiteGenerationException;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Splits a site's pages into shards and renders them on worker generator nodes.
+ * Each worker receives the full content of its shard plus the title and slug of
+ * every page, renders into the shared output location and reports back. A shard
+ * that fails or is rejected is retried on the next worker in the list.
+ */
+@Component
+public class ShardCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardCoordinator.class);
+
+    private static final long RETRY_DELAY_MS = 200;
+
+    private final RestClient.Builder restClientBuilder;
+    private final ExecutionPools executionPools;
+
+    @Value("${site.generator.cluster.workers:}")
+    private String workerList;
+
+    @Value("${site.generator.cluster.shard-size:200}")
+    private int shardSize;
+
+    @Value("${site.generator.cluster.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${site.generator.cluster.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    private List<String> workers;
+    private RestClient restClient;
+
+    public ShardCoordinator(RestClient.Builder restClientBuilder, ExecutionPools executionPools) {
+        this.restClientBuilder = restClientBuilder;
+        this.executionPools = executionPools;
+    }
+
+    @PostConstruct
+    public void start() {
+        workers = Arrays.stream(StringUtils.defaultString(workerList).split(","))
+            .map(String::trim)
+            .filter(StringUtils::isNotEmpty)
+            .map(worker -> StringUtils.removeEnd(worker, "/"))
+            .toList();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(Math.min(timeoutSeconds, 5)))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(timeoutSeconds));
+        restClient = restClientBuilder.requestFactory(requestFactory).build();
+
+        if (isEnabled()) {
+            log.info("Distributing pages in shards of {} across workers {}", shardSize, workers);
+        }
+    }
+
+    /**
+     * @return true when worker nodes are configured
+     */
+    public boolean isEnabled() {
+        return !workers.isEmpty();
+    }
+
+    /**
+     * Renders all pages of a validated site on the workers.
+     *
+     * @param site the site to render
+     * @return the number of pages the workers generated
+     * @throws IOException if a shard fails on every attempt or the caller is interrupted
+     */
+    public int generatePages(CompactSite site) throws IOException {
+        List<Page> navigation = new ArrayList<>(site.getPageCount());
+        for (int page = 0; page < site.getPageCount(); page++) {
+            navigation.add(new Page(site.getPageTitle(page), site.getPageSlug(page), null));
+        }
+
+        int size = Math.max(1, shardSize);
+        List<Callable<ShardResponse>> shards = new ArrayList<>();
+        for (int first = 0; first < site.getPageCount(); first += size) {
+            int shardIndex = shards.size();
+            int from = first;
+            int to = Math.min(first + size, site.getPageCount());
+            // Pages are rebuilt as objects only while their shard is being sent
+            shards.add(() -> {
+                List<Page> pages = new ArrayList<>(to - from);
+                for (int page = from; page < to; page++) {
+                    pages.add(site.toPage(page));
+                }
+                return sendShard(new ShardRequest(site.getSiteName(), shardIndex, from, navigation, pages));
+            });
+        }
+
+        int pagesGenerated = 0;
+        for (ShardResponse response : executionPools.invokeAll(executionPools.getIoExecutor(), shards)) {
+            pagesGenerated += response.getPagesGenerated();
+        }
+        return pagesGenerated;
+    }
+
+    private ShardResponse sendShard(ShardRequest shard) throws SiteGenerationException, InterruptedException {
+        RestClientException lastError = null;
+
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(RETRY_DELAY_MS * attempt);
+            }
+
+            // Start on a different worker per shard and move on to the next one on each retry
+            String worker = workers.get((shard.getShardIndex() + attempt) % workers.size());
+            try {
+                ShardResponse response = restClient.post()
+                    .uri(worker + "/api/shards")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(shard)
+                    .retrieve()
+                    .body(ShardResponse.class);
+
+                if (response == null || response.getPagesGenerated() != shard.getPages().size()) {
+                    throw new RestClientException("Worker " + worker + " returned an incomplete shard: " + response);
+                }
+                log.debug("Shard {} rendered {} pages on {} in {} ms", shard.getShardIndex(),
+                    response.getPagesGenerated(), worker, response.getRenderTimeMs());
+                return response;
+
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+                    // The shard itself is invalid; another worker would reject it too
+                    throw new SiteGenerationException("Shard " + shard.getShardIndex() + " rejected by "
+                        + worker + ": " + e.getResponseBodyAsString(), e);
+                }
+                lastError = e;
+            } catch (RestClientException e) {
+                lastError = e;
+            }
+            log.warn("Shard {} failed on {} (attempt {} of {}): {}", shard.getShardIndex(), worker,
+                attempt + 1, maxAttempts, lastError.getMessage());
+        }
+
+        throw new SiteGenerationException("Shard " + shard.getShardIndex() + " failed after "
+            + maxAttempts + " attempts", lastError);
+    }
+}
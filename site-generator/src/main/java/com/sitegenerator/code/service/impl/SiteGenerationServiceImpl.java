@@ -1,26 +1,33 @@
 package com.sitegenerator.code.service.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
 import com.sitegenerator.code.domain.model.Page;
 import com.sitegenerator.code.domain.model.Section;
 import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.dto.ShardRequest;
+import com.sitegenerator.code.dto.ShardResponse;
 import com.sitegenerator.code.dto.SiteGenerationResponse;
 import com.sitegenerator.code.service.SiteGenerationException;
 import com.sitegenerator.code.service.SiteGenerationService;
 import com.sitegenerator.code.service.ValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of site generation service.
@@ -29,18 +36,29 @@ import java.util.Set;
 @Service
 public class SiteGenerationServiceImpl implements SiteGenerationService {
     
-    private final TemplateEngine templateEngine;
-    
-    @Value("${site.generator.output.path:output}")
-    private String outputPath;
+    private final PageWriter pageWriter;
+    private final ShardCoordinator shardCoordinator;
+    private final ContentStore contentStore;
+    private final SiteStateStore siteStateStore;
+    private final SiteLocks siteLocks;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
     
     // Supported section types
     private static final Set<String> SUPPORTED_SECTION_TYPES = Set.of(
         "hero", "skills", "form", "text", "image", "contact", "about"
     );
     
-    public SiteGenerationServiceImpl(TemplateEngine templateEngine) {
-        this.templateEngine = templateEngine;
+    public SiteGenerationServiceImpl(PageWriter pageWriter, ShardCoordinator shardCoordinator,
+                                     ContentStore contentStore, SiteStateStore siteStateStore,
+                                     SiteLocks siteLocks, ObjectMapper objectMapper, Validator validator) {
+        this.pageWriter = pageWriter;
+        this.shardCoordinator = shardCoordinator;
+        this.contentStore = contentStore;
+        this.siteStateStore = siteStateStore;
+        this.siteLocks = siteLocks;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
     
     @Override
@@ -48,18 +66,35 @@ public class SiteGenerationServiceImpl implements SiteGenerationService {
         try {
             // Validate site structure
             validateSite(site);
-            
+        } catch (ValidationException e) {
+            throw new SiteGenerationException("Failed to generate site: " + e.getMessage(), e);
+        }
+        return generateSite(CompactSite.from(site));
+    }
+    
+    @Override
+    public SiteGenerationResponse generateSite(CompactSite site) throws SiteGenerationException {
+        // Patches of this site wait until the output and its stored description agree again
+        try (SiteLocks.Held lock = siteLocks.lock(site.getSiteName())) {
             // Create output directory
-            Path siteOutputPath = createSiteOutputDirectory(site.getSiteName());
+            Path siteOutputPath = pageWriter.createSiteOutputDirectory(site.getSiteName());
             
-            // Generate pages
-            int pagesGenerated = generatePages(site, siteOutputPath);
+            // Generate pages, on the worker nodes when a cluster is configured
+            int pagesGenerated;
+            if (shardCoordinator.isEnabled()) {
+                pagesGenerated = shardCoordinator.generatePages(site);
+            } else {
+                pagesGenerated = generatePages(site, siteOutputPath, 0, site.getPageCount());
+            }
             
             // Generate assets
             generateAssets(siteOutputPath);
             
             // Generate site config
-            generateSiteConfig(site, siteOutputPath);
+            pageWriter.writeSiteConfig(site.getSiteName(), site.getPageCount(), siteOutputPath);
+            
+            // Keep the description, when patches are enabled, so they only regenerate what they affect
+            siteStateStore.save(site);
             
             return new SiteGenerationResponse(
                 site.getSiteName(),
@@ -73,6 +108,112 @@ public class SiteGenerationServiceImpl implements SiteGenerationService {
         }
     }
     
+    @Override
+    public CompactSite readSite(InputStream json) throws ValidationException, IOException {
+        CompactSite.Builder builder = CompactSite.builder();
+        Set<String> slugs = new HashSet<>();
+        String siteName = null;
+        
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ValidationException("Site must be a JSON object");
+            }
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                
+                if ("siteName".equals(field)) {
+                    siteName = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                } else if ("pages".equals(field) && value == JsonToken.START_ARRAY) {
+                    // Only the page being read exists as objects; earlier pages are already compact
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        Page page = objectMapper.readValue(parser, Page.class);
+                        checkConstraints(validator.validate(page));
+                        validatePage(page);
+                        
+                        if (!slugs.add(page.getSlug())) {
+                            throw new ValidationException("Page slugs must be unique");
+                        }
+                        builder.addPage(page);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        
+        checkConstraints(validator.validateValue(Site.class, "siteName", siteName));
+        if (builder.getPageCount() == 0) {
+            throw new ValidationException("Site must have at least one page");
+        }
+        return builder.setSiteName(siteName).build();
+    }
+    
+    private static <T> void checkConstraints(Set<ConstraintViolation<T>> violations) throws ValidationException {
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        }
+    }
+    
+    @Override
+    public ShardResponse generateShard(ShardRequest request) throws ValidationException, SiteGenerationException {
+        validateShard(request);
+        
+        try {
+            long start = System.nanoTime();
+            
+            // Pages outside the shard only contribute their title and slug to the navigation
+            List<Page> pages = new ArrayList<>(request.getNavigation());
+            int first = request.getFirstPage();
+            for (int i = 0; i < request.getPages().size(); i++) {
+                pages.set(first + i, request.getPages().get(i));
+            }
+            CompactSite compactSite = CompactSite.from(new Site(request.getSiteName(), pages));
+            
+            Path siteOutputPath = pageWriter.createSiteOutputDirectory(request.getSiteName());
+            int pagesGenerated = generatePages(compactSite, siteOutputPath, first, first + request.getPages().size());
+            
+            return new ShardResponse(
+                request.getSiteName(),
+                request.getShardIndex(),
+                pagesGenerated,
+                (System.nanoTime() - start) / 1_000_000
+            );
+            
+        } catch (Exception e) {
+            throw new SiteGenerationException("Failed to generate shard " + request.getShardIndex() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private void validateShard(ShardRequest request) throws ValidationException {
+        if (request == null || StringUtils.isBlank(request.getSiteName())) {
+            throw new ValidationException("Site name cannot be blank");
+        }
+        
+        if (request.getPages() == null || request.getPages().isEmpty()) {
+            throw new ValidationException("Shard must have at least one page");
+        }
+        
+        List<Page> navigation = request.getNavigation();
+        int first = request.getFirstPage();
+        if (navigation == null || first < 0 || first + request.getPages().size() > navigation.size()) {
+            throw new ValidationException("Shard pages must lie within the site navigation");
+        }
+        
+        for (int i = 0; i < request.getPages().size(); i++) {
+            Page page = request.getPages().get(i);
+            validatePage(page);
+            
+            if (!page.getSlug().equals(navigation.get(first + i).getSlug())) {
+                throw new ValidationException("Shard page " + page.getSlug() + " does not match the site navigation");
+            }
+        }
+    }
+    
     @Override
     public void validateSite(Site site) throws ValidationException {
         if (site == null) {
@@ -131,45 +272,17 @@ public class SiteGenerationServiceImpl implements SiteGenerationService {
             throw new ValidationException("Unsupported section type: " + section.getType() + 
                 ". Supported types: " + SUPPORTED_SECTION_TYPES);
         }
-    }
-    
-    private Path createSiteOutputDirectory(String siteName) throws IOException {
-        Path sitePath = Paths.get(outputPath, siteName);
-        Files.createDirectories(sitePath);
         
-        // Create assets subdirectory
-        Path assetsPath = sitePath.resolve("assets");
-        Files.createDirectories(assetsPath);
-        
-        return sitePath;
-    }
-    
-    private int generatePages(Site site, Path outputPath) throws IOException {
-        int pagesGenerated = 0;
-        
-        for (Page page : site.getPages()) {
-            String htmlContent = generatePageHtml(page, site);
-            
-            String fileName = "index".equals(page.getSlug()) ? "index.html" : page.getSlug() + ".html";
-            Path pagePath = outputPath.resolve(fileName);
-            
-            try (FileWriter writer = new FileWriter(pagePath.toFile())) {
-                writer.write(htmlContent);
+        if (section.getTextRef() != null) {
+            if (section.getText() != null) {
+                throw new ValidationException("Section cannot have both text and textRef");
             }
-            
-            pagesGenerated++;
+            contentStore.resolve(section.getTextRef());
         }
-        
-        return pagesGenerated;
     }
     
-    private String generatePageHtml(Page page, Site site) {
-        Context context = new Context();
-        context.setVariable("site", site);
-        context.setVariable("page", page);
-        context.setVariable("sections", page.getSections());
-        
-        return templateEngine.process("page-template", context);
+    private int generatePages(CompactSite site, Path outputPath, int fromPage, int toPage) throws IOException {
+        return pageWriter.writePages(site, outputPath, IntStream.range(fromPage, toPage).toArray());
     }
     
     private void generateAssets(Path outputPath) throws IOException {
@@ -284,9 +397,7 @@ public class SiteGenerationServiceImpl implements SiteGenerationService {
             """;
         
         Path cssPath = assetsPath.resolve("styles.css");
-        try (FileWriter writer = new FileWriter(cssPath.toFile())) {
-            writer.write(cssContent);
-        }
+        Files.writeString(cssPath, cssContent);
     }
     
     private void generateJavaScript(Path assetsPath) throws IOException {
@@ -320,29 +431,6 @@ public class SiteGenerationServiceImpl implements SiteGenerationService {
             """;
         
         Path jsPath = assetsPath.resolve("script.js");
-        try (FileWriter writer = new FileWriter(jsPath.toFile())) {
-            writer.write(jsContent);
-        }
-    }
-    
-    private void generateSiteConfig(Site site, Path outputPath) throws IOException {
-        Map<String, Object> config = new HashMap<>();
-        config.put("siteName", site.getSiteName());
-        config.put("pages", site.getPages().size());
-        config.put("generatedAt", System.currentTimeMillis());
-        
-        // Convert to JSON (simplified for now)
-        String configJson = String.format("""
-            {
-                "siteName": "%s",
-                "pages": %d,
-                "generatedAt": %d
-            }
-            """, site.getSiteName(), site.getPages().size(), System.currentTimeMillis());
-        
-        Path configPath = outputPath.resolve("config.json");
-        try (FileWriter writer = new FileWriter(configPath.toFile())) {
-            writer.write(configJson);
-        }
+        Files.writeString(jsPath, jsContent);
     }
 }
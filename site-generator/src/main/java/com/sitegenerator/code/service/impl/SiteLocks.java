@@ -0,0 +1,70 @@
+package com.sitegenerator.code.service.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lock per site name, shared by everything that writes a site's output
+ * files or its stored description. Generation and patching of a site hold it
+ * for their whole run, so a patch never starts from a description a running
+ * generation is about to replace, and never writes pages a generation has
+ * already rewritten. Different sites never wait for each other.
+ * <p>
+ * The locks are {@link ReentrantLock}s rather than monitors, so a virtual
+ * thread blocked on file or shard I/O while holding one is not pinned to its
+ * carrier. A site's lock is dropped once no thread holds or waits for it, so
+ * the map only holds sites that are being written.
+ */
+@Component
+public class SiteLocks {
+
+    private final Map<String, SiteLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Waits for the lock of a site, to be released by closing the returned handle.
+     *
+     * @param siteName the name of the site
+     * @return the held lock
+     */
+    public Held lock(String siteName) {
+        // Holders and waiters are counted under the map's per-key lock, so an entry is never dropped while in use
+        SiteLock siteLock = locks.compute(siteName, (name, existing) -> {
+            SiteLock entry = existing != null ? existing : new SiteLock();
+            entry.users++;
+            return entry;
+        });
+        siteLock.lock.lock();
+
+        return () -> {
+            siteLock.lock.unlock();
+            locks.computeIfPresent(siteName, (name, entry) -> --entry.users == 0 ? null : entry);
+        };
+    }
+
+    /**
+     * Gets the number of sites whose lock is held or waited for.
+     *
+     * @return the number of live locks
+     */
+    public int size() {
+        return locks.size();
+    }
+
+    /**
+     * A held site lock.
+     */
+    public interface Held extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final class SiteLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
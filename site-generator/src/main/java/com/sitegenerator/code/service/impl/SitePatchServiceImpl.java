@@ -0,0 +1,157 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.dto.PagePatch;
+import com.sitegenerator.code.dto.SitePatchResponse;
+import com.sitegenerator.code.service.SiteGenerationException;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.SitePatchService;
+import com.sitegenerator.code.service.ValidationException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of site patching.
+ * Loads the description the site was last generated from, applies the change,
+ * validates the result as generation does and compares the
+ * {@link DependencyGraph} of both versions: only pages whose inputs changed are
+ * rendered and written, files of renamed pages are removed, and the patched
+ * description replaces the stored one. Patches and generations of one site run
+ * one at a time under its {@link SiteLocks} lock, so each patch starts from the
+ * state the previous patch or generation left.
+ */
+@Service
+public class SitePatchServiceImpl implements SitePatchService {
+
+    private final SiteGenerationService siteGenerationService;
+    private final PageWriter pageWriter;
+    private final SiteStateStore siteStateStore;
+    private final SiteLocks siteLocks;
+
+    public SitePatchServiceImpl(SiteGenerationService siteGenerationService, PageWriter pageWriter,
+                                SiteStateStore siteStateStore, SiteLocks siteLocks) {
+        this.siteGenerationService = siteGenerationService;
+        this.pageWriter = pageWriter;
+        this.siteStateStore = siteStateStore;
+        this.siteLocks = siteLocks;
+    }
+
+    @Override
+    public SitePatchResponse patchPage(String siteName, String slug, PagePatch patch)
+            throws ValidationException, SiteGenerationException {
+        return patch(siteName, slug, page -> new Page(
+            patch.getTitle() != null ? patch.getTitle() : page.getTitle(),
+            patch.getSlug() != null ? patch.getSlug() : page.getSlug(),
+            patch.getSections() != null ? patch.getSections() : page.getSections()));
+    }
+
+    @Override
+    public SitePatchResponse patchSection(String siteName, String slug, int index, Section section)
+            throws ValidationException, SiteGenerationException {
+        return patch(siteName, slug, page -> {
+            if (index < 0 || index >= page.getSections().size()) {
+                throw new ValidationException("Page '" + slug + "' has no section " + index);
+            }
+            List<Section> sections = new ArrayList<>(page.getSections());
+            sections.set(index, section);
+            return new Page(page.getTitle(), page.getSlug(), sections);
+        });
+    }
+
+    private SitePatchResponse patch(String siteName, String slug, PageChange change)
+            throws ValidationException, SiteGenerationException {
+        // The name becomes a file name in the state and output directories
+        if (StringUtils.isBlank(siteName) || siteName.startsWith(".")
+                || siteName.contains("/") || siteName.contains("\\")) {
+            throw new ValidationException("Invalid site name: " + siteName);
+        }
+
+        if (!siteStateStore.isEnabled()) {
+            throw new ValidationException("Site patches are disabled; set site.generator.state.enabled=true");
+        }
+
+        // Generations of the site wait too, so the stored description matches the output files
+        try (SiteLocks.Held lock = siteLocks.lock(siteName)) {
+            long start = System.nanoTime();
+
+            Site previous;
+            try {
+                previous = siteStateStore.load(siteName);
+            } catch (IOException e) {
+                throw new SiteGenerationException("Failed to read the state of site '" + siteName + "': " + e.getMessage(), e);
+            }
+            if (previous == null) {
+                throw new ValidationException("Site '" + siteName + "' has not been generated on this server");
+            }
+
+            // The stored pages stay untouched so the previous graph keeps the old values
+            List<Page> pages = new ArrayList<>(previous.getPages());
+            int page = findPage(pages, slug);
+            pages.set(page, change.apply(pages.get(page)));
+            Site site = new Site(siteName, pages);
+            siteGenerationService.validateSite(site);
+
+            try {
+                DependencyGraph graph = DependencyGraph.of(site);
+                DependencyGraph previousGraph = DependencyGraph.of(previous);
+                Set<String> changed = graph.changedSince(previousGraph);
+                Set<String> removed = graph.removedSince(previousGraph);
+
+                List<Integer> changedPages = new ArrayList<>();
+                for (int i = 0; i < pages.size(); i++) {
+                    if (changed.contains(PageWriter.pageFileName(pages.get(i).getSlug()))) {
+                        changedPages.add(i);
+                    }
+                }
+
+                Path siteOutputPath = pageWriter.createSiteOutputDirectory(siteName);
+                CompactSite compactSite = CompactSite.from(site);
+                pageWriter.writePages(compactSite, siteOutputPath,
+                    changedPages.stream().mapToInt(Integer::intValue).toArray());
+                if (changed.contains(DependencyGraph.CONFIG_FILE)) {
+                    pageWriter.writeSiteConfig(siteName, pages.size(), siteOutputPath);
+                }
+                for (String file : removed) {
+                    Files.deleteIfExists(siteOutputPath.resolve(file));
+                }
+                siteStateStore.save(compactSite);
+
+                return new SitePatchResponse(
+                    siteName,
+                    siteOutputPath.toString(),
+                    new ArrayList<>(changed),
+                    new ArrayList<>(removed),
+                    pages.size() - changedPages.size(),
+                    (System.nanoTime() - start) / 1_000_000,
+                    changed.isEmpty() && removed.isEmpty() ? "Site unchanged" : "Site patched successfully"
+                );
+
+            } catch (Exception e) {
+                throw new SiteGenerationException("Failed to patch site: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static int findPage(List<Page> pages, String slug) throws ValidationException {
+        for (int i = 0; i < pages.size(); i++) {
+            if (pages.get(i).getSlug().equals(slug)) {
+                return i;
+            }
+        }
+        throw new ValidationException("Site has no page with slug '" + slug + "'");
+    }
+
+    private interface PageChange {
+        Page apply(Page page) throws ValidationException;
+    }
+}
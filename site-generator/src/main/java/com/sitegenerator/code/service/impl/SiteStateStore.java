@@ -0,0 +1,92 @@
+package com.sitegenerator.code.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Site;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the description of every site generated on this node so it can be
+ * patched later. The last description generated under each site name is stored
+ * as {@code <state.path>/<siteName>.json}, outside the output directory so it is
+ * neither built nor published, and replaced atomically after every generation
+ * and patch. Nothing is held in memory between requests. Off by default, since
+ * it makes every generation also write the whole description for patches only.
+ */
+@Component
+public class SiteStateStore {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${site.generator.state.enabled:false}")
+    private boolean enabled;
+
+    @Value("${site.generator.state.path:output-state}")
+    private String statePath;
+
+    public SiteStateStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the description a site was last generated from.
+     *
+     * @param siteName the name of the site
+     * @return the site, or null if it has not been generated or state is disabled
+     * @throws IOException if the stored description cannot be read
+     */
+    public Site load(String siteName) throws IOException {
+        Path stateFile = stateFile(siteName);
+        if (!enabled || !Files.isRegularFile(stateFile)) {
+            return null;
+        }
+        return objectMapper.readValue(stateFile.toFile(), Site.class);
+    }
+
+    /**
+     * Stores the description a site was generated from, replacing the previous
+     * one. Pages are rebuilt as objects one at a time while they are written.
+     *
+     * @param site the generated site
+     * @throws IOException if the description cannot be written
+     */
+    public void save(CompactSite site) throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path stateFile = stateFile(site.getSiteName());
+        Files.createDirectories(stateFile.getParent());
+        // Callers hold the site's SiteLocks lock; the move only keeps a crash from leaving half a file
+        Path tempFile = Files.createTempFile(stateFile.getParent(), "." + site.getSiteName(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("siteName", site.getSiteName());
+            generator.writeArrayFieldStart("pages");
+            for (int page = 0; page < site.getPageCount(); page++) {
+                generator.writeObject(site.toPage(page));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path stateFile(String siteName) {
+        return Paths.get(statePath, siteName + ".json");
+    }
+}
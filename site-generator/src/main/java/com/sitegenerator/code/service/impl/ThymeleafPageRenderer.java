@@ -0,0 +1,77 @@
+package com.sitegenerator.code.service.impl;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.service.PageRenderer;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Renders pages through the {@code page-template} Thymeleaf template.
+ * Supports any section type the template knows, including custom templates,
+ * and is the fallback for pages other renderers cannot handle. The page is
+ * rebuilt as domain objects for the template; the other pages only contribute
+ * their titles and slugs for navigation, through the navigation site the
+ * compact site builds once for all of its pages. Text referenced from the content
+ * directory is read into the page's sections before the template sees them,
+ * so only the content of the page being rendered is held in memory.
+ */
+@Component
+public class ThymeleafPageRenderer implements PageRenderer {
+
+    static final String NAME = "thymeleaf";
+
+    private final TemplateEngine templateEngine;
+
+    private final ContentStore contentStore;
+
+    public ThymeleafPageRenderer(TemplateEngine templateEngine, ContentStore contentStore) {
+        this.templateEngine = templateEngine;
+        this.contentStore = contentStore;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(CompactSite site, int page) {
+        return true;
+    }
+
+    @Override
+    public String render(CompactSite site, int page) {
+        try {
+            return templateEngine.process("page-template", createContext(site, page));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read referenced content", e);
+        }
+    }
+
+    @Override
+    public void render(CompactSite site, int page, Writer out) throws IOException {
+        templateEngine.process("page-template", createContext(site, page), out);
+    }
+
+    private Context createContext(CompactSite site, int page) throws IOException {
+        Page pageModel = site.toPage(page);
+        for (Section section : pageModel.getSections()) {
+            if (section.getTextRef() != null) {
+                section.setText(contentStore.readString(section.getTextRef()));
+            }
+        }
+
+        Context context = new Context();
+        context.setVariable("site", site.getNavigationSite());
+        context.setVariable("page", pageModel);
+        context.setVariable("sections", pageModel.getSections());
+        return context;
+    }
+}
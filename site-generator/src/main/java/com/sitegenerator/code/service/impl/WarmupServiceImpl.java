@@ -0,0 +1,140 @@
+package com.sitegenerator.code.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.service.PageRenderer;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
+import com.sitegenerator.code.service.WarmupService;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the startup warm-up.
+ * Runs as an application runner, so it finishes before Spring Boot publishes
+ * the ready event and the readiness state changes to accepting traffic. Each
+ * iteration goes through the request path minus HTTP: the synthetic site is
+ * parsed from JSON, checked with bean validation as {@code @Valid} does and by
+ * the generation service, converted to its compact form, and every page is
+ * rendered with every renderer, so both the Java and the template render paths
+ * are compiled. Nothing is written to the output directory.
+ */
+@Service
+public class WarmupServiceImpl implements WarmupService, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupServiceImpl.class);
+
+    private static final String SITE_RESOURCE = "warmup/site.json";
+
+    private final SiteGenerationService siteGenerationService;
+    private final List<PageRenderer> renderers;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${site.generator.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${site.generator.warmup.iterations:50}")
+    private int iterations;
+
+    private volatile int completedIterations;
+    private volatile long durationMs = -1;
+    private volatile long firstIterationMs = -1;
+    private volatile long lastIterationMs = -1;
+    private final AtomicLong firstRequestMs = new AtomicLong(-1);
+
+    // Keeps the rendered output observable so the work cannot be optimized away
+    private long renderedChars;
+
+    public WarmupServiceImpl(SiteGenerationService siteGenerationService, List<PageRenderer> renderers,
+                             ObjectMapper objectMapper, Validator validator) {
+        this.siteGenerationService = siteGenerationService;
+        this.renderers = renderers;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] siteJson;
+            try (InputStream in = new ClassPathResource(SITE_RESOURCE).getInputStream()) {
+                siteJson = in.readAllBytes();
+            }
+
+            for (int i = 0; i < iterations; i++) {
+                long iterationStart = System.nanoTime();
+                renderSite(siteJson);
+                long iterationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - iterationStart);
+                if (i == 0) {
+                    firstIterationMs = iterationMs;
+                }
+                lastIterationMs = iterationMs;
+                completedIterations = i + 1;
+            }
+
+        } catch (IOException | ValidationException | RuntimeException e) {
+            // A failed warm-up only costs speed; the service still starts
+            log.warn("Warm-up stopped after {} iterations: {}", completedIterations, e.getMessage());
+        }
+
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Warm-up finished: {} iterations in {} ms (first {} ms, last {} ms)",
+            completedIterations, durationMs, firstIterationMs, lastIterationMs);
+    }
+
+    private void renderSite(byte[] siteJson) throws IOException, ValidationException {
+        Site site = objectMapper.readValue(siteJson, Site.class);
+        if (!validator.validate(site).isEmpty()) {
+            throw new ValidationException("Warm-up site violates the request constraints");
+        }
+        siteGenerationService.validateSite(site);
+        CompactSite compactSite = CompactSite.from(site);
+
+        for (PageRenderer renderer : renderers) {
+            for (int page = 0; page < compactSite.getPageCount(); page++) {
+                if (renderer.supports(compactSite, page)) {
+                    renderedChars += renderer.render(compactSite, page).length();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void recordRequest(long durationMs) {
+        firstRequestMs.compareAndSet(-1, durationMs);
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("iterations", iterations);
+        metrics.put("completedIterations", completedIterations);
+        metrics.put("durationMs", durationMs);
+        metrics.put("firstIterationMs", firstIterationMs);
+        metrics.put("lastIterationMs", lastIterationMs);
+        metrics.put("firstRequestMs", firstRequestMs.get());
+        return metrics;
+    }
+}
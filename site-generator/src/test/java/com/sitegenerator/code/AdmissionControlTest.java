@@ -0,0 +1,60 @@
+package com.sitegenerator.code;
+
+import com.sitegenerator.code.service.AdmissionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for admission control on the generation endpoint.
+ * Tests that requests over the limit are rejected fast and counted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "site.generator.output.path=target/admission-output",
+    "site.generator.admission.generate.max-concurrent=1",
+    "site.generator.admission.generate.queue-size=0"
+})
+class AdmissionControlTest {
+
+    private static final String SITE = """
+        {"siteName": "acme-blog", "pages": [
+          {"title": "Home", "slug": "index", "sections": [{"type": "hero", "heading": "Hi"}]}
+        ]}
+        """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Test
+    void testGenerateIsRejectedWhenFull() throws Exception {
+        try (AdmissionService.Permit busy = admissionService.acquire("generate", "other-site")) {
+            mockMvc.perform(post("/api/generate/json").contentType(MediaType.APPLICATION_JSON).content(SITE))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error", containsString("Too many concurrent generate requests")));
+        }
+
+        mockMvc.perform(post("/api/generate/json").contentType(MediaType.APPLICATION_JSON).content(SITE))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admission"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.generate.rejectedQueueFull").value(1))
+            .andExpect(jsonPath("$.generate.admitted").value(2))
+            .andExpect(jsonPath("$.generate.inFlight").value(0));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sitegenerator.code;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.domain.model.Site;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compact site model.
+ * Tests that conversion keeps every value and shares repeated ones.
+ */
+class CompactSiteTest {
+
+    @Test
+    void testPagesRoundTrip() throws Exception {
+        Site site;
+        try (InputStream in = new ClassPathResource("golden/kitchen-sink.json").getInputStream()) {
+            site = new ObjectMapper().readValue(in, Site.class);
+        }
+
+        CompactSite compact = CompactSite.from(site);
+
+        assertEquals(site.getSiteName(), compact.getSiteName());
+        assertEquals(site.getPages().size(), compact.getPageCount());
+        for (int page = 0; page < compact.getPageCount(); page++) {
+            assertEquals(site.getPages().get(page), compact.toPage(page));
+        }
+    }
+
+    @Test
+    void testRepeatedValuesAreStoredOnce() {
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Section skills = new Section("skills");
+            skills.setItems(List.of(new String("Java"), new String("Spring")));
+            Section form = new Section("form");
+            form.setFields(List.of(new String("email"), new String("message")));
+            pages.add(new Page(new String("Same title"), "page-" + i, List.of(skills, form)));
+        }
+
+        CompactSite compact = CompactSite.from(new Site("Shared", pages));
+
+        assertEquals(200, compact.getSectionCount());
+        // Site name, one title, 100 slugs and four list values
+        assertEquals(106, compact.getPoolSize());
+        assertSame(compact.getItem(0, 0), compact.getItem(198, 0));
+        assertEquals("form", compact.getSectionType(199));
+        assertFalse(compact.hasContent(199));
+        assertTrue(compact.hasFields(199));
+        assertFalse(compact.hasItems(199));
+    }
+
+    @Test
+    void testNavigationSiteIsBuiltOncePerSite() {
+        List<Page> pages = List.of(
+            new Page("Home", "index", List.of(new Section("hero"))),
+            new Page("About", "about", List.of(new Section("about"))));
+        CompactSite compact = CompactSite.from(new Site("Nav", pages));
+
+        Site navigation = compact.getNavigationSite();
+        assertSame(navigation, compact.getNavigationSite());
+        assertEquals("Nav", navigation.getSiteName());
+        assertEquals(List.of("index", "about"), navigation.getPages().stream().map(Page::getSlug).toList());
+        assertTrue(navigation.getPages().get(1).getSections().isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package com.sitegenerator.code;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
+import com.sitegenerator.code.service.impl.JavaPageRenderer;
+import com.sitegenerator.code.service.impl.ThymeleafPageRenderer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for section text referenced from the content directory.
+ * Uses tiny decode buffers and map windows so multi-byte characters and
+ * escaped characters straddle chunk and window boundaries.
+ */
+@SpringBootTest(properties = {
+    "site.generator.output.path=target/content-ref-output",
+    "site.generator.content.path=" + ContentReferenceTest.CONTENT_PATH,
+    "site.generator.content.buffer-size=16",
+    "site.generator.content.map-window-bytes=64"
+})
+class ContentReferenceTest {
+
+    static final String CONTENT_PATH = "target/content-ref-content";
+
+    private static String longText;
+
+    @Autowired
+    private SiteGenerationService siteGenerationService;
+
+    @Autowired
+    private JavaPageRenderer javaRenderer;
+
+    @Autowired
+    private ThymeleafPageRenderer thymeleafRenderer;
+
+    @BeforeAll
+    static void writeContent() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 100_000; i++) {
+            text.append("Line ").append(i).append(": café €5 <b>&amp;</b> \"quoted\" it's 😀\n");
+        }
+        longText = text.toString();
+
+        Path content = Files.createDirectories(Paths.get(CONTENT_PATH, "posts"));
+        Files.writeString(content.resolve("long.txt"), longText);
+        Files.writeString(content.resolve("intro.txt"), "Hello <world> & über");
+    }
+
+    @Test
+    void testReferencedTextRendersLikeInlineText() throws Exception {
+        Site inline = createSite(longText, "Hello <world> & über", null, null);
+        Site referenced = createSite(null, null, "posts/long.txt", "posts/intro.txt");
+
+        siteGenerationService.generateSite(inline);
+        Path sitePath = Paths.get("target/content-ref-output", "content-site");
+        String inlineIndex = Files.readString(sitePath.resolve("index.html"));
+        String inlineAbout = Files.readString(sitePath.resolve("about.html"));
+
+        siteGenerationService.generateSite(referenced);
+        assertEquals(inlineIndex, Files.readString(sitePath.resolve("index.html")));
+        assertEquals(inlineAbout, Files.readString(sitePath.resolve("about.html")));
+        assertTrue(inlineIndex.contains("café €5 &lt;b&gt;&amp;amp;&lt;/b&gt; &quot;quoted&quot; it&#39;s 😀"));
+
+        // Both renderers and both output modes agree on referenced content
+        CompactSite compactSite = CompactSite.from(referenced);
+        for (int page = 0; page < compactSite.getPageCount(); page++) {
+            StringWriter streamed = new StringWriter();
+            javaRenderer.render(compactSite, page, streamed);
+            assertEquals(javaRenderer.render(compactSite, page), streamed.toString());
+            assertEquals(thymeleafRenderer.render(compactSite, page), streamed.toString());
+        }
+    }
+
+    @Test
+    void testInvalidReferencesAreRejected() {
+        assertThrows(ValidationException.class,
+            () -> siteGenerationService.validateSite(createSite(null, null, "../../pom.xml", null)));
+        assertThrows(ValidationException.class,
+            () -> siteGenerationService.validateSite(createSite(null, null, "posts/missing.txt", null)));
+        assertThrows(ValidationException.class,
+            () -> siteGenerationService.validateSite(createSite(null, null, "posts", null)));
+        assertThrows(ValidationException.class,
+            () -> siteGenerationService.validateSite(createSite("inline", null, "posts/long.txt", null)));
+    }
+
+    private Site createSite(String text, String heroText, String textRef, String heroTextRef) {
+        Section hero = new Section("hero");
+        hero.setHeading("Welcome");
+        hero.setText(heroText);
+        hero.setTextRef(heroTextRef);
+
+        Section body = new Section("text");
+        body.setHeading("Story");
+        body.setText(text);
+        body.setTextRef(textRef);
+
+        Section about = new Section("about");
+        about.setText(text);
+        about.setTextRef(textRef);
+
+        return new Site("content-site", List.of(
+            new Page("Home", "index", List.of(hero, body)),
+            new Page("About", "about", List.of(about))));
+    }
+}
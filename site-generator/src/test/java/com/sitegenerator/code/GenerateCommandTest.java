@@ -0,0 +1,46 @@
+package com.sitegenerator.code;
+
+import com.sitegenerator.code.cli.GenerateCommand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for the headless batch mode.
+ * Tests generating a directory of site files and the exit codes for failed
+ * sites and bad arguments.
+ */
+class GenerateCommandTest {
+
+    private static final String OUTPUT_OPTION = "--site.generator.output.path=target/cli-output";
+
+    @Test
+    void testGeneratesEverySiteInDirectory() throws Exception {
+        Path sites = Files.createDirectories(Paths.get("target/cli-sites"));
+        Files.writeString(sites.resolve("first.json"), siteJson("cli-first"));
+        Files.writeString(sites.resolve("second.json"), siteJson("cli-second"));
+
+        assertEquals(0, GenerateCommand.run(sites.toString(), OUTPUT_OPTION));
+        assertTrue(Files.exists(Paths.get("target/cli-output/cli-first/index.html")));
+        assertTrue(Files.exists(Paths.get("target/cli-output/cli-second/assets/styles.css")));
+    }
+
+    @Test
+    void testFailuresSetExitCode() throws Exception {
+        Path invalid = Files.createDirectories(Paths.get("target/cli-invalid")).resolve("invalid.json");
+        Files.writeString(invalid, "{\"siteName\": \"cli-invalid\", \"pages\": []}");
+
+        assertEquals(1, GenerateCommand.run(invalid.toString(), OUTPUT_OPTION));
+        assertEquals(2, GenerateCommand.run(OUTPUT_OPTION));
+        assertEquals(2, GenerateCommand.run("target/does-not-exist.json", OUTPUT_OPTION));
+    }
+
+    private String siteJson(String siteName) {
+        return "{\"siteName\": \"" + siteName + "\", \"pages\": [{\"title\": \"Home\", \"slug\": \"index\", "
+            + "\"sections\": [{\"type\": \"hero\", \"heading\": \"Hello\", \"text\": \"From the command line\"}]}]}";
+    }
+}
@@ -0,0 +1,90 @@
+package com.sitegenerator.code;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.service.impl.JavaPageRenderer;
+import com.sitegenerator.code.service.impl.ThymeleafPageRenderer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden tests for the Java page renderer.
+ * Every page must render byte-for-byte the same as the Thymeleaf template.
+ */
+@SpringBootTest
+class PageRendererGoldenTest {
+
+    @Autowired
+    private JavaPageRenderer javaRenderer;
+
+    @Autowired
+    private ThymeleafPageRenderer thymeleafRenderer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testKitchenSinkMatchesGoldenFile() throws Exception {
+        CompactSite site = CompactSite.from(loadSite("golden/kitchen-sink.json"));
+        String golden = readResource("golden/kitchen-sink-index.html");
+
+        assertEquals(golden, thymeleafRenderer.render(site, 0));
+        assertEquals(golden, javaRenderer.render(site, 0));
+    }
+
+    @Test
+    void testEveryPageMatchesTemplate() throws Exception {
+        CompactSite site = CompactSite.from(loadSite("golden/kitchen-sink.json"));
+        for (int page = 0; page < site.getPageCount(); page++) {
+            assertTrue(javaRenderer.supports(site, page));
+            assertEquals(thymeleafRenderer.render(site, page), javaRenderer.render(site, page), site.getPageSlug(page));
+        }
+
+        Page portfolio = new Page("Portfolio", "portfolio", List.of(new Section("hero"), new Section("about")));
+        CompactSite generated = CompactSite.from(new Site("Mine", List.of(portfolio)));
+        assertEquals(thymeleafRenderer.render(generated, 0), javaRenderer.render(generated, 0));
+    }
+
+    @Test
+    void testLinksArePageRelative() throws Exception {
+        // Pages are static files served from any directory, and @{/...} links cannot render outside a request
+        CompactSite site = CompactSite.from(loadSite("golden/kitchen-sink.json"));
+        for (int page = 0; page < site.getPageCount(); page++) {
+            for (String html : List.of(thymeleafRenderer.render(site, page), javaRenderer.render(site, page))) {
+                assertTrue(html.contains("href=\"assets/styles.css\""));
+                assertTrue(html.contains("src=\"assets/script.js\""));
+                assertFalse(html.contains("href=\"/"));
+                assertFalse(html.contains("src=\"/"));
+            }
+        }
+    }
+
+    @Test
+    void testUnknownSectionTypesAreNotSupported() {
+        Page page = new Page("Custom", "custom", List.of(new Section("hero"), new Section("gallery")));
+        assertFalse(javaRenderer.supports(CompactSite.from(new Site("Custom", List.of(page))), 0));
+    }
+
+    private Site loadSite(String resource) throws Exception {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return objectMapper.readValue(in, Site.class);
+        }
+    }
+
+    private static String readResource(String resource) throws Exception {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
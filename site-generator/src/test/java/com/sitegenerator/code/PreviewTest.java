@@ -0,0 +1,108 @@
+package com.sitegenerator.code;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the live page preview.
+ * Tests that a preview matches the generated page without writing any output,
+ * that errors are answered as JSON, and that cached fragments of referenced
+ * content are reused until the file changes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.generator.output.path=" + PreviewTest.OUTPUT_PATH,
+    "site.generator.content.path=target/preview-content"
+})
+class PreviewTest {
+
+    static final String OUTPUT_PATH = "target/preview-output";
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    private static final String SITE = "{\"siteName\": \"preview-site\", \"pages\": ["
+        + "{\"title\": \"Home\", \"slug\": \"index\", \"sections\": [{\"type\": \"hero\", \"heading\": \"Hi\", \"text\": \"<Welcome>\"}]},"
+        + "{\"title\": \"About\", \"slug\": \"about\", \"sections\": [{\"type\": \"about\", \"textRef\": \"about.txt\"}]}]}";
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void writeContent() throws Exception {
+        FileSystemUtils.deleteRecursively(Paths.get(OUTPUT_PATH));
+        Path content = Files.createDirectories(Paths.get("target/preview-content"));
+        Files.writeString(content.resolve("about.txt"), "Made with <care> & coffee");
+    }
+
+    @Test
+    void testPreviewMatchesGeneratedPage() throws Exception {
+        HttpResponse<String> home = preview("");
+        assertEquals(200, home.statusCode());
+        assertTrue(home.headers().firstValue("Content-Type").orElse("").startsWith("text/html"));
+        assertTrue(home.body().contains("&lt;Welcome&gt;"), home.body());
+        assertFalse(Files.exists(Paths.get(OUTPUT_PATH, "preview-site")));
+
+        HttpResponse<String> about = preview("?page=about");
+        assertTrue(about.body().contains("Made with &lt;care&gt; &amp; coffee"), about.body());
+
+        HttpResponse<String> generated = send(HttpRequest.newBuilder(uri("/api/generate/json"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(SITE)));
+        assertEquals(200, generated.statusCode());
+        assertEquals(Files.readString(Paths.get(OUTPUT_PATH, "preview-site", "index.html")), home.body());
+        assertEquals(Files.readString(Paths.get(OUTPUT_PATH, "preview-site", "about.html")), about.body());
+    }
+
+    @Test
+    void testChangedContentIsRenderedAgain() throws Exception {
+        preview("?page=about");
+        preview("?page=about");
+        String metrics = send(HttpRequest.newBuilder(uri("/api/preview/metrics")).GET()).body();
+        assertFalse(metrics.contains("\"hits\":0"), metrics);
+
+        Files.writeString(Paths.get("target/preview-content", "about.txt"), "Rewritten text of another length");
+        assertTrue(preview("?page=about").body().contains("Rewritten text of another length"));
+        Files.writeString(Paths.get("target/preview-content", "about.txt"), "Made with <care> & coffee");
+    }
+
+    @Test
+    void testErrorsAreAnsweredAsJson() throws Exception {
+        HttpResponse<String> missingPage = preview("?page=nowhere");
+        assertEquals(400, missingPage.statusCode());
+        assertTrue(missingPage.body().contains("no page with slug"), missingPage.body());
+
+        HttpResponse<String> invalid = send(HttpRequest.newBuilder(uri("/api/preview"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(SITE.replace("about.txt", "../escape.txt"))));
+        assertEquals(400, invalid.statusCode());
+        assertTrue(invalid.body().contains("\"error\""), invalid.body());
+    }
+
+    private HttpResponse<String> preview(String query) throws Exception {
+        return send(HttpRequest.newBuilder(uri("/api/preview" + query))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(SITE)));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
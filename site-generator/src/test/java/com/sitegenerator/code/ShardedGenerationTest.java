@@ -0,0 +1,89 @@
+package com.sitegenerator.code;
+
+import com.sitegenerator.code.domain.model.CompactSite;
+import com.sitegenerator.code.domain.model.Page;
+import com.sitegenerator.code.domain.model.Section;
+import com.sitegenerator.code.domain.model.Site;
+import com.sitegenerator.code.dto.SiteGenerationResponse;
+import com.sitegenerator.code.service.PageRenderer;
+import com.sitegenerator.code.service.SiteGenerationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for distributed generation.
+ * Starts two worker nodes and a coordinator on localhost sharing one output
+ * path; the coordinator's worker list also names a node that is down, so the
+ * shards sent there must be retried on the others.
+ */
+class ShardedGenerationTest {
+
+    private static final String OUTPUT_PATH = "target/cluster-output";
+
+    @Test
+    void testShardsAreRenderedOnWorkers() throws Exception {
+        try (ConfigurableApplicationContext first = startNode();
+             ConfigurableApplicationContext second = startNode();
+             ConfigurableApplicationContext coordinator = startNode(
+                 "--site.generator.cluster.workers=" + baseUrl(first) + ",http://localhost:1," + baseUrl(second),
+                 "--site.generator.cluster.shard-size=3")) {
+
+            Site site = createSite(10);
+            SiteGenerationResponse response = coordinator.getBean(SiteGenerationService.class).generateSite(site);
+
+            assertEquals(10, response.getPagesGenerated());
+
+            // Every page matches what a single node would have rendered, navigation included
+            PageRenderer renderer = first.getBeansOfType(PageRenderer.class).values().stream()
+                .filter(candidate -> candidate.getName().equals("java"))
+                .findFirst()
+                .orElseThrow();
+            CompactSite compactSite = CompactSite.from(site);
+            Path sitePath = Paths.get(OUTPUT_PATH, site.getSiteName());
+            for (int i = 0; i < compactSite.getPageCount(); i++) {
+                String slug = compactSite.getPageSlug(i);
+                Path pagePath = sitePath.resolve("index".equals(slug) ? "index.html" : slug + ".html");
+                assertEquals(renderer.render(compactSite, i), Files.readString(pagePath));
+            }
+            assertTrue(Files.exists(sitePath.resolve("assets/styles.css")));
+            assertTrue(Files.readString(sitePath.resolve("config.json")).contains("\"pages\": 10"));
+        }
+    }
+
+    private ConfigurableApplicationContext startNode(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--site.generator.output.path=" + OUTPUT_PATH,
+            "--logging.level.org.springframework.web=INFO"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(SiteGeneratorApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    private String baseUrl(ConfigurableApplicationContext node) {
+        return "http://localhost:" + node.getEnvironment().getProperty("local.server.port");
+    }
+
+    private Site createSite(int pageCount) {
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < pageCount; i++) {
+            String slug = i == 0 ? "index" : "page-" + i;
+            Section hero = new Section("hero");
+            hero.setHeading("Page " + i);
+            hero.setText("Welcome to page " + i);
+            Section skills = new Section("skills");
+            skills.setHeading("Skills");
+            skills.setItems(List.of("Java", "Spring", "Shard " + i / 3));
+            pages.add(new Page("Page " + i, slug, List.of(hero, skills)));
+        }
+        return new Site("cluster-site", pages);
+    }
+}
@@ -1,15 +1,19 @@
 package com.sitegenerator.code;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sitegenerator.code.domain.model.CompactSite;
 import com.sitegenerator.code.domain.model.Page;
 import com.sitegenerator.code.domain.model.Section;
 import com.sitegenerator.code.domain.model.Site;
 import com.sitegenerator.code.service.SiteGenerationService;
+import com.sitegenerator.code.service.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -84,6 +88,35 @@ class SiteGenerationIntegrationTest {
         assertEquals(testSite.getPages().size(), deserializedSite.getPages().size());
     }
 
+    @Test
+    void testReadSiteStreamsIntoCompactForm() throws Exception {
+        Site testSite = createTestSite();
+        CompactSite read = siteGenerationService.readSite(
+            new ByteArrayInputStream(objectMapper.writeValueAsBytes(testSite)));
+
+        assertEquals("TestPortfolio", read.getSiteName());
+        assertEquals(testSite.getPages().size(), read.getPageCount());
+        for (int page = 0; page < read.getPageCount(); page++) {
+            assertEquals(testSite.getPages().get(page), read.toPage(page));
+        }
+
+        // Request constraints and generation rules are checked while pages are read
+        assertReadFails("{\"siteName\": \"S\", \"pages\": [{\"title\": \"A\", \"slug\": \"Bad Slug\", "
+            + "\"sections\": [{\"type\": \"text\"}]}]}", "lowercase");
+        assertReadFails("{\"pages\": [{\"title\": \"A\", \"slug\": \"a\", "
+            + "\"sections\": [{\"type\": \"text\"}]}], \"siteName\": \"\"}", "Site name");
+        assertReadFails("{\"siteName\": \"S\", \"pages\": ["
+            + "{\"title\": \"A\", \"slug\": \"a\", \"sections\": [{\"type\": \"text\"}]},"
+            + "{\"title\": \"B\", \"slug\": \"a\", \"sections\": [{\"type\": \"text\"}]}]}", "unique");
+        assertReadFails("{\"siteName\": \"S\", \"pages\": []}", "at least one page");
+    }
+
+    private void assertReadFails(String json, String message) {
+        ValidationException error = assertThrows(ValidationException.class, () ->
+            siteGenerationService.readSite(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(error.getMessage().contains(message), error.getMessage());
+    }
+
     private Site createTestSite() {
         // Create hero section
         Section heroSection = new Section("hero");
@@ -0,0 +1,64 @@
+package com.sitegenerator.code;
+
+import com.sitegenerator.code.service.impl.SiteLocks;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-site locks.
+ * Tests that two writers of one site run one at a time while a writer of
+ * another site is not blocked, and that released locks are dropped.
+ */
+class SiteLocksTest {
+
+    @Test
+    void testSameSiteWaitsAndOtherSiteDoesNot() throws Exception {
+        SiteLocks siteLocks = new SiteLocks();
+        CountDownLatch firstHolds = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            Future<?> first = executor.submit(() -> {
+                try (SiteLocks.Held lock = siteLocks.lock("portfolio")) {
+                    firstHolds.countDown();
+                    releaseFirst.await();
+                }
+                return null;
+            });
+            assertTrue(firstHolds.await(5, TimeUnit.SECONDS));
+
+            Future<Long> second = executor.submit(() -> {
+                try (SiteLocks.Held lock = siteLocks.lock("portfolio")) {
+                    return System.nanoTime();
+                }
+            });
+            Future<?> other = executor.submit(() -> {
+                try (SiteLocks.Held lock = siteLocks.lock("blog")) {
+                    return null;
+                }
+            });
+
+            // Another site gets its lock while the first site is held; the same site waits
+            other.get(5, TimeUnit.SECONDS);
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+
+            long released = System.nanoTime();
+            releaseFirst.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertTrue(second.get(5, TimeUnit.SECONDS) >= released);
+
+            assertEquals(0, siteLocks.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
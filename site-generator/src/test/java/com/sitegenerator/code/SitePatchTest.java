@@ -0,0 +1,175 @@
+package com.sitegenerator.code;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for patching generated sites.
+ * Tests that a section edit rewrites only its own page, that a title or slug
+ * change rewrites every page and removes the renamed file, that the
+ * patched files match a full generation of the patched site, and that patches
+ * racing with generations leave the output matching the stored description.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.generator.output.path=" + SitePatchTest.OUTPUT_PATH,
+    "site.generator.state.enabled=true"
+})
+class SitePatchTest {
+
+    static final String OUTPUT_PATH = "target/patch-output";
+
+    private static final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private static final FileTime EPOCH = FileTime.fromMillis(0);
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void cleanOutput() throws Exception {
+        FileSystemUtils.deleteRecursively(Paths.get(OUTPUT_PATH));
+        FileSystemUtils.deleteRecursively(Paths.get(OUTPUT_PATH + "-state"));
+    }
+
+    @Test
+    void testPatchRewritesOnlyAffectedPages() throws Exception {
+        assertEquals(200, post("/api/generate/json", site("patch-site", "Home", "index", "Hi", "about", "Old text")).statusCode());
+        Path sitePath = Paths.get(OUTPUT_PATH, "patch-site");
+        assertTrue(Files.exists(Paths.get(OUTPUT_PATH + "-state", "patch-site.json")));
+
+        // A section edit only touches its own page
+        markUnchanged(sitePath);
+        HttpResponse<String> section = patch("/api/sites/patch-site/pages/about/sections/0",
+            "{\"type\": \"about\", \"text\": \"New <text>\"}");
+        assertEquals(200, section.statusCode(), section.body());
+        assertTrue(section.body().contains("\"filesWritten\":[\"about.html\"]"), section.body());
+        assertTrue(Files.readString(sitePath.resolve("about.html")).contains("New &lt;text&gt;"));
+        assertEquals(EPOCH, Files.getLastModifiedTime(sitePath.resolve("index.html")));
+        assertEquals(EPOCH, Files.getLastModifiedTime(sitePath.resolve("config.json")));
+
+        // A title and slug change reaches the navigation of every page
+        markUnchanged(sitePath);
+        HttpResponse<String> page = patch("/api/sites/patch-site/pages/about",
+            "{\"title\": \"About Us\", \"slug\": \"about-us\"}");
+        assertEquals(200, page.statusCode(), page.body());
+        assertTrue(page.body().contains("\"filesRemoved\":[\"about.html\"]"), page.body());
+        assertFalse(Files.exists(sitePath.resolve("about.html")));
+        assertNotEquals(EPOCH, Files.getLastModifiedTime(sitePath.resolve("index.html")));
+        assertEquals(EPOCH, Files.getLastModifiedTime(sitePath.resolve("config.json")));
+
+        // The patched output is what generating the patched site produces
+        assertEquals(200, post("/api/generate/json", site("patch-full", "Home", "index", "Hi", "about-us", "New <text>")
+            .replace("\"About\"", "\"About Us\"")).statusCode());
+        Path fullPath = Paths.get(OUTPUT_PATH, "patch-full");
+        for (String file : new String[] { "index.html", "about-us.html" }) {
+            assertEquals(Files.readString(fullPath.resolve(file)).replace("patch-full", "patch-site"),
+                Files.readString(sitePath.resolve(file)), file);
+        }
+
+        HttpResponse<String> unchanged = patch("/api/sites/patch-site/pages/index", "{\"title\": \"Home\"}");
+        assertTrue(unchanged.body().contains("\"filesWritten\":[]"), unchanged.body());
+    }
+
+    @Test
+    void testInvalidPatchesAreRejected() throws Exception {
+        assertEquals(200, post("/api/generate/json", site("patch-invalid", "Home", "index", "Hi", "about", "Text")).statusCode());
+
+        HttpResponse<String> unknownSite = patch("/api/sites/never-generated/pages/index", "{\"title\": \"X\"}");
+        assertEquals(400, unknownSite.statusCode());
+        assertTrue(unknownSite.body().contains("has not been generated"), unknownSite.body());
+
+        HttpResponse<String> duplicateSlug = patch("/api/sites/patch-invalid/pages/about", "{\"slug\": \"index\"}");
+        assertEquals(400, duplicateSlug.statusCode());
+        assertTrue(duplicateSlug.body().contains("unique"), duplicateSlug.body());
+
+        HttpResponse<String> missingSection = patch("/api/sites/patch-invalid/pages/about/sections/5",
+            "{\"type\": \"text\", \"text\": \"X\"}");
+        assertEquals(400, missingSection.statusCode());
+        assertTrue(missingSection.body().contains("no section 5"), missingSection.body());
+
+        // Rejected patches leave the stored site as it was
+        assertTrue(patch("/api/sites/patch-invalid/pages/about", "{\"title\": \"About\"}").body()
+            .contains("\"filesWritten\":[]"));
+    }
+
+    @Test
+    void testPatchesAndGenerationsOfOneSiteDoNotInterleave() throws Exception {
+        assertEquals(200, post("/api/generate/json", site("patch-race", "Home", "index", "Hi", "about", "Generated 0")).statusCode());
+        Path aboutPath = Paths.get(OUTPUT_PATH, "patch-race", "about.html");
+        Path statePath = Paths.get(OUTPUT_PATH + "-state", "patch-race.json");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 1; i <= 10; i++) {
+                String generated = "Generated " + i;
+                String patched = "Patched " + i;
+                Future<HttpResponse<String>> generation = executor.submit(() ->
+                    post("/api/generate/json", site("patch-race", "Home", "index", "Hi", "about", generated)));
+                Future<HttpResponse<String>> patch = executor.submit(() ->
+                    patch("/api/sites/patch-race/pages/about/sections/0", "{\"type\": \"about\", \"text\": \"" + patched + "\"}"));
+                assertEquals(200, generation.get().statusCode());
+                assertEquals(200, patch.get().statusCode(), patch.get().body());
+
+                // Whichever ran last, the page shows the text the stored description holds
+                String text = Files.readString(statePath).contains(patched) ? patched : generated;
+                assertTrue(Files.readString(aboutPath).contains(text), "round " + i + ": " + text);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String site(String siteName, String homeTitle, String homeSlug, String heroText,
+                               String aboutSlug, String aboutText) {
+        return "{\"siteName\": \"" + siteName + "\", \"pages\": ["
+            + "{\"title\": \"" + homeTitle + "\", \"slug\": \"" + homeSlug + "\", \"sections\": [{\"type\": \"hero\", \"heading\": \"H\", \"text\": \"" + heroText + "\"}]},"
+            + "{\"title\": \"About\", \"slug\": \"" + aboutSlug + "\", \"sections\": [{\"type\": \"about\", \"text\": \"" + aboutText + "\"}]}]}";
+    }
+
+    private static void markUnchanged(Path sitePath) throws Exception {
+        try (var files = Files.list(sitePath)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, EPOCH);
+            }
+        }
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private HttpResponse<String> patch(String path, String json) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
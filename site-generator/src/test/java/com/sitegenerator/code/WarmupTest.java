@@ -0,0 +1,64 @@
+package com.sitegenerator.code;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the startup warm-up.
+ * Tests that the warm-up runs before the service is ready, writes nothing
+ * and that the first generation request after it is recorded.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "site.generator.output.path=target/warmup-output",
+    "site.generator.warmup.enabled=true",
+    "site.generator.warmup.iterations=3"
+})
+class WarmupTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testWarmupRunsBeforeReadiness() throws Exception {
+        HttpResponse<String> health = send(HttpRequest.newBuilder(uri("/api/health")).GET());
+        assertEquals(200, health.statusCode());
+        assertTrue(health.body().contains("\"status\":\"UP\""), health.body());
+
+        String metrics = send(HttpRequest.newBuilder(uri("/api/warmup")).GET()).body();
+        assertTrue(metrics.contains("\"completedIterations\":3"), metrics);
+        assertTrue(metrics.contains("\"firstRequestMs\":-1"), metrics);
+        assertFalse(Files.exists(Paths.get("target/warmup-output/warmup")));
+
+        String site = "{\"siteName\": \"warm-site\", \"pages\": [{\"title\": \"Home\", \"slug\": \"index\", "
+            + "\"sections\": [{\"type\": \"text\", \"text\": \"Warm\"}]}]}";
+        HttpResponse<String> generated = send(HttpRequest.newBuilder(uri("/api/generate/json"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(site)));
+        assertEquals(200, generated.statusCode());
+
+        metrics = send(HttpRequest.newBuilder(uri("/api/warmup")).GET()).body();
+        assertFalse(metrics.contains("\"firstRequestMs\":-1"), metrics);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}